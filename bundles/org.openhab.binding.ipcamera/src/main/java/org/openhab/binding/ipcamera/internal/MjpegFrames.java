@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * The {@link MjpegFrames} class builds the parts of a multipart mjpeg stream. A frame is a {@link CompositeByteBuf} of
+ * a shared pre-encoded part header, a small pooled buffer holding the content length, the jpg wrapped without copying
+ * and a shared footer. Writing a frame to a ChannelGroup hands each viewer a retained duplicate, so the jpg is never
+ * copied no matter how many viewers there are.
+ *
+ * @author agent - Initial contribution
+ */
+
+@NonNullByDefault
+public class MjpegFrames {
+    public static final String BOUNDARY = "thisMjpegStream";
+
+    private static final ByteBuf PART_HEADER = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(
+            "--" + BOUNDARY + "\r\n" + "content-type: image/jpeg" + "\r\n" + "content-length: ",
+            StandardCharsets.US_ASCII));
+    private static final ByteBuf PART_FOOTER = Unpooled
+            .unreleasableBuffer(Unpooled.copiedBuffer("\r\n", StandardCharsets.US_ASCII));
+
+    /**
+     * Builds a frame for the given jpg, which must not be changed afterwards. The caller owns the returned buffer.
+     */
+    public static ByteBuf encode(byte[] jpg) {
+        ByteBuf contentLength = ByteBufAllocator.DEFAULT.buffer(16);
+        contentLength.writeCharSequence(jpg.length + "\r\n\r\n", StandardCharsets.US_ASCII);
+        CompositeByteBuf frame = ByteBufAllocator.DEFAULT.compositeBuffer(4);
+        frame.addComponents(true, PART_HEADER.duplicate(), contentLength, Unpooled.wrappedBuffer(jpg),
+                PART_FOOTER.duplicate());
+        return frame;
+    }
+}
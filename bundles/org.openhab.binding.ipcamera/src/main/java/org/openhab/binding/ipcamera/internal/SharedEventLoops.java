@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * The {@link SharedEventLoops} holds the Netty event loops that all cameras and groups of the binding share. Outgoing
+ * connections to cameras and the stream servers each get one group with a bounded number of threads. Netty only starts
+ * a thread once the first channel is registered with its loop, so the thread count follows the traffic and not the
+ * number of things.
+ *
+ * @author agent - Initial contribution
+ */
+
+@NonNullByDefault
+public class SharedEventLoops {
+    private static final int CLIENT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int SERVER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final CountingThreadFactory clientThreadFactory = new CountingThreadFactory("ipcamera-client");
+    private final CountingThreadFactory serverThreadFactory = new CountingThreadFactory("ipcamera-server");
+    private final EventLoopGroup clientGroup = new NioEventLoopGroup(CLIENT_THREADS, clientThreadFactory);
+    private final EventLoopGroup serverGroup = new NioEventLoopGroup(SERVER_THREADS, serverThreadFactory);
+    private final Map<String, AtomicInteger> channelsPerCamera = new ConcurrentHashMap<>();
+    private final Map<EventExecutor, AtomicInteger> channelsPerLoop = new ConcurrentHashMap<>();
+
+    private static class CountingThreadFactory extends DefaultThreadFactory {
+        private final AtomicInteger threads = new AtomicInteger();
+
+        CountingThreadFactory(String poolName) {
+            super(poolName, true);
+        }
+
+        @Override
+        public Thread newThread(@Nullable Runnable runnable) {
+            threads.incrementAndGet();
+            return super.newThread(runnable);
+        }
+    }
+
+    /**
+     * Event loops for connections the binding opens to cameras, ie HTTP and ONVIF requests.
+     */
+    public EventLoopGroup getClientGroup() {
+        return clientGroup;
+    }
+
+    /**
+     * Event loops for the stream servers of cameras and groups and the connections of their viewers.
+     */
+    public EventLoopGroup getServerGroup() {
+        return serverGroup;
+    }
+
+    /**
+     * Counts the channel for the given camera and event loop until it is closed.
+     */
+    public void track(String cameraId, Channel channel) {
+        AtomicInteger cameraChannels = channelsPerCamera.computeIfAbsent(cameraId, id -> new AtomicInteger());
+        AtomicInteger loopChannels = channelsPerLoop.computeIfAbsent(channel.eventLoop(), loop -> new AtomicInteger());
+        cameraChannels.incrementAndGet();
+        loopChannels.incrementAndGet();
+        channel.closeFuture().addListener(future -> {
+            cameraChannels.decrementAndGet();
+            loopChannels.decrementAndGet();
+        });
+    }
+
+    /**
+     * Returns the number of channels of the given camera that have not been closed yet.
+     */
+    public int getChannelCount(String cameraId) {
+        AtomicInteger channels = channelsPerCamera.get(cameraId);
+        return channels == null ? 0 : channels.get();
+    }
+
+    /**
+     * Stops counting the channels of the given camera, called when the camera is disposed. Channels that are still
+     * closing no longer show up in the statistics.
+     */
+    public void release(String cameraId) {
+        channelsPerCamera.remove(cameraId);
+    }
+
+    private int getStartedThreads() {
+        return clientThreadFactory.threads.get() + serverThreadFactory.threads.get();
+    }
+
+    private int getMaxThreads() {
+        return CLIENT_THREADS + SERVER_THREADS;
+    }
+
+    /**
+     * The busiest event loop is the one with the most open channels, a high value compared to the average shows that
+     * the load is not spread evenly over the threads.
+     */
+    private int getMaxChannelsPerThread() {
+        int max = 0;
+        for (AtomicInteger channels : channelsPerLoop.values()) {
+            max = Math.max(max, channels.get());
+        }
+        return max;
+    }
+
+    private int getPendingTasks() {
+        return pendingTasks(clientGroup) + pendingTasks(serverGroup);
+    }
+
+    private int pendingTasks(EventLoopGroup group) {
+        int pending = 0;
+        for (EventExecutor executor : group) {
+            if (executor instanceof SingleThreadEventExecutor) {
+                pending += ((SingleThreadEventExecutor) executor).pendingTasks();
+            }
+        }
+        return pending;
+    }
+
+    public String getStatistics() {
+        int channels = 0;
+        for (AtomicInteger cameraChannels : channelsPerCamera.values()) {
+            channels += cameraChannels.get();
+        }
+        return String.format("%d of %d threads started, %d open channels, at most %d per thread, %d pending tasks",
+                getStartedThreads(), getMaxThreads(), channels, getMaxChannelsPerThread(), getPendingTasks());
+    }
+
+    public void shutdown() {
+        clientGroup.shutdownGracefully(0, 8, TimeUnit.SECONDS);
+        serverGroup.shutdownGracefully(0, 8, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SnapshotRingBuffer} keeps the latest snapshots of a camera so they can be used as the pre-roll of a GIF.
+ * Once full, each new snapshot replaces the oldest one in place.
+ *
+ * @author agent - Initial contribution
+ */
+
+@NonNullByDefault
+public class SnapshotRingBuffer {
+    private byte[][] snapshots = new byte[0][];
+    private int next = 0;
+    private int size = 0;
+
+    /**
+     * Changes how many snapshots are kept, the newest ones are kept when the buffer shrinks.
+     */
+    public synchronized void setCapacity(int capacity) {
+        int newCapacity = Math.max(0, capacity);
+        if (newCapacity == snapshots.length) {
+            return;
+        }
+        List<byte[]> kept = toList();
+        kept = kept.subList(Math.max(0, kept.size() - newCapacity), kept.size());
+        snapshots = new byte[newCapacity][];
+        size = 0;
+        next = 0;
+        for (byte[] snapshot : kept) {
+            add(snapshot);
+        }
+    }
+
+    public synchronized void add(byte[] snapshot) {
+        if (snapshots.length == 0) {
+            return;
+        }
+        snapshots[next] = snapshot;
+        next = (next + 1) % snapshots.length;
+        size = Math.min(size + 1, snapshots.length);
+    }
+
+    /**
+     * Returns the kept snapshots, oldest first.
+     */
+    public synchronized List<byte[]> toList() {
+        List<byte[]> list = new ArrayList<>(size);
+        int start = (next - size + snapshots.length) % Math.max(1, snapshots.length);
+        for (int i = 0; i < size; i++) {
+            byte[] snapshot = snapshots[(start + i) % snapshots.length];
+            if (snapshot != null) {
+                list.add(snapshot);
+            }
+        }
+        return list;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = null;
+        }
+        size = 0;
+        next = 0;
+    }
+}
@@ -33,6 +33,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.ipcamera.internal.GroupConfig;
 import org.openhab.binding.ipcamera.internal.GroupTracker;
 import org.openhab.binding.ipcamera.internal.Helper;
+import org.openhab.binding.ipcamera.internal.SharedEventLoops;
 import org.openhab.binding.ipcamera.internal.StreamServerGroupHandler;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.StringType;
@@ -49,13 +50,14 @@ import org.slf4j.LoggerFactory;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
 
 /**
  * The {@link IpCameraGroupHandler} is responsible for finding cameras that are part of this group and displaying a
@@ -70,7 +72,8 @@ public class IpCameraGroupHandler extends BaseThingHandler {
     public GroupConfig groupConfig;
     private BigDecimal pollTimeInSeconds = new BigDecimal(2);
     public ArrayList<IpCameraHandler> cameraOrder = new ArrayList<IpCameraHandler>(2);
-    private EventLoopGroup serversLoopGroup = new NioEventLoopGroup();
+    private final SharedEventLoops eventLoops;
+    private final ChannelGroup serverChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
     private final ScheduledExecutorService pollCameraGroup = Executors.newSingleThreadScheduledExecutor();
     private @Nullable ScheduledFuture<?> pollCameraGroupJob = null;
     private @Nullable ServerBootstrap serverBootstrap;
@@ -87,8 +90,10 @@ public class IpCameraGroupHandler extends BaseThingHandler {
     private int discontinuitySequence = 0;
     private GroupTracker groupTracker;
 
-    public IpCameraGroupHandler(Thing thing, @Nullable String openhabIpAddress, GroupTracker groupTracker) {
+    public IpCameraGroupHandler(Thing thing, @Nullable String openhabIpAddress, GroupTracker groupTracker,
+            SharedEventLoops eventLoops) {
         super(thing);
+        this.eventLoops = eventLoops;
         groupConfig = getConfigAs(GroupConfig.class);
         if (openhabIpAddress != null) {
             hostIp = openhabIpAddress;
@@ -188,20 +193,27 @@ public class IpCameraGroupHandler extends BaseThingHandler {
     @SuppressWarnings("null")
     public void startStreamServer(boolean start) {
         if (!start) {
-            serversLoopGroup.shutdownGracefully(8, 8, TimeUnit.SECONDS);
+            // the event loops are shared, so the server and its viewers have to be closed one by one
+            ChannelFuture localFuture = serverFuture;
+            if (localFuture != null) {
+                localFuture.channel().close();
+                serverFuture = null;
+            }
+            serverChannels.close();
             serverBootstrap = null;
         } else {
             if (serverBootstrap == null) {
                 try {
-                    serversLoopGroup = new NioEventLoopGroup();
                     serverBootstrap = new ServerBootstrap();
-                    serverBootstrap.group(serversLoopGroup);
+                    serverBootstrap.group(eventLoops.getServerGroup());
                     serverBootstrap.channel(NioServerSocketChannel.class);
                     // IP "0.0.0.0" will bind the server to all network connections//
                     serverBootstrap.localAddress(new InetSocketAddress("0.0.0.0", serverPort));
                     serverBootstrap.childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel socketChannel) throws Exception {
+                            serverChannels.add(socketChannel);
+                            eventLoops.track(getThing().getUID().getId(), socketChannel);
                             socketChannel.pipeline().addLast("idleStateHandler", new IdleStateHandler(0, 25, 0));
                             socketChannel.pipeline().addLast("HttpServerCodec", new HttpServerCodec());
                             socketChannel.pipeline().addLast("ChunkedWriteHandler", new ChunkedWriteHandler());
@@ -367,5 +379,6 @@ public class IpCameraGroupHandler extends BaseThingHandler {
             future.cancel(true);
         }
         cameraOrder.clear();
+        eventLoops.release(getThing().getUID().getId());
     }
 }
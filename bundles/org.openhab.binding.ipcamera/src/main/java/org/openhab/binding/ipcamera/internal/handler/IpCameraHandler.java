@@ -23,11 +23,9 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,6 +34,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -55,7 +54,10 @@ import org.openhab.binding.ipcamera.internal.InstarHandler;
 import org.openhab.binding.ipcamera.internal.IpCameraActions;
 import org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.FFmpegFormat;
 import org.openhab.binding.ipcamera.internal.IpCameraDynamicStateDescriptionProvider;
+import org.openhab.binding.ipcamera.internal.MjpegFrames;
 import org.openhab.binding.ipcamera.internal.MyNettyAuthHandler;
+import org.openhab.binding.ipcamera.internal.SharedEventLoops;
+import org.openhab.binding.ipcamera.internal.SnapshotRingBuffer;
 import org.openhab.binding.ipcamera.internal.StreamServerHandler;
 import org.openhab.binding.ipcamera.internal.onvif.OnvifConnection;
 import org.openhab.core.library.types.DecimalType;
@@ -87,10 +89,10 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.ChannelMatcher;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -137,6 +139,7 @@ public class IpCameraHandler extends BaseThingHandler {
     private final ChannelGroup snapshotMjpegChannelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
     private final ChannelGroup autoSnapshotMjpegChannelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
     public final ChannelGroup openChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final ChannelGroup serverChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
     public @Nullable Ffmpeg ffmpegHLS = null;
     public @Nullable Ffmpeg ffmpegRecord = null;
     public @Nullable Ffmpeg ffmpegGIF = null;
@@ -152,8 +155,7 @@ public class IpCameraHandler extends BaseThingHandler {
     private @Nullable Bootstrap mainBootstrap;
     private @Nullable ServerBootstrap serverBootstrap;
 
-    private EventLoopGroup mainEventLoopGroup = new NioEventLoopGroup();
-    private EventLoopGroup serversLoopGroup = new NioEventLoopGroup();
+    private final SharedEventLoops eventLoops;
     private FullHttpRequest putRequestWithBody = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, new HttpMethod("PUT"),
             "");
     private String gifFilename = "ipcamera";
@@ -164,7 +166,17 @@ public class IpCameraHandler extends BaseThingHandler {
     private String mp4Filename = "ipcamera";
     private int mp4RecordTime;
     private int gifRecordTime = 5;
-    private LinkedList<byte[]> fifoSnapshotBuffer = new LinkedList<byte[]>();
+    private final SnapshotRingBuffer preEventSnapshots = new SnapshotRingBuffer();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    // viewers that have not taken the last frames yet skip new ones instead of piling them up in memory
+    private final ChannelMatcher writableViewers = channel -> {
+        if (channel.isWritable()) {
+            return true;
+        }
+        long dropped = droppedFrames.incrementAndGet();
+        logger.trace("Dropped a frame for slow viewer {}, {} frames dropped so far", channel.remoteAddress(), dropped);
+        return false;
+    };
     private int snapCount;
     private boolean updateImageChannel = false;
     private boolean updateAutoFps = false;
@@ -198,7 +210,7 @@ public class IpCameraHandler extends BaseThingHandler {
     public boolean audioAlarmEnabled = false;
     public boolean ffmpegSnapshotGeneration = false;
     public boolean snapshotPolling = false;
-    public OnvifConnection onvifCamera = new OnvifConnection(this, "", "", "");
+    public OnvifConnection onvifCamera;
 
     // These methods handle the response from all camera brands, nothing specific to 1 brand.
     private class CommonCameraHandler extends ChannelDuplexHandler {
@@ -395,9 +407,11 @@ public class IpCameraHandler extends BaseThingHandler {
     }
 
     public IpCameraHandler(Thing thing, @Nullable String ipAddress, GroupTracker groupTracker,
-            IpCameraDynamicStateDescriptionProvider stateDescriptionProvider) {
+            IpCameraDynamicStateDescriptionProvider stateDescriptionProvider, SharedEventLoops eventLoops) {
         super(thing);
         this.stateDescriptionProvider = stateDescriptionProvider;
+        this.eventLoops = eventLoops;
+        onvifCamera = new OnvifConnection(this, eventLoops, "", "", "");
         if (ipAddress != null) {
             hostIp = ipAddress;
         } else {
@@ -503,7 +517,7 @@ public class IpCameraHandler extends BaseThingHandler {
 
         if (mainBootstrap == null) {
             mainBootstrap = new Bootstrap();
-            mainBootstrap.group(mainEventLoopGroup);
+            mainBootstrap.group(eventLoops.getClientGroup());
             mainBootstrap.channel(NioSocketChannel.class);
             mainBootstrap.option(ChannelOption.SO_KEEPALIVE, true);
             mainBootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 4500);
@@ -586,6 +600,7 @@ public class IpCameraHandler extends BaseThingHandler {
                         if (future.isDone() && future.isSuccess()) {
                             Channel ch = future.channel();
                             openChannels.add(ch);
+                            eventLoops.track(getThing().getUID().getId(), ch);
                             if (!isOnline) {
                                 bringCameraOnline();
                             }
@@ -622,10 +637,8 @@ public class IpCameraHandler extends BaseThingHandler {
         try {
             currentSnapshot = incommingSnapshot;
             if (cameraConfig.getGifPreroll() > 0) {
-                fifoSnapshotBuffer.add(incommingSnapshot);
-                if (fifoSnapshotBuffer.size() > (cameraConfig.getGifPreroll() + gifRecordTime)) {
-                    fifoSnapshotBuffer.removeFirst();
-                }
+                preEventSnapshots.setCapacity(cameraConfig.getGifPreroll() + gifRecordTime);
+                preEventSnapshots.add(incommingSnapshot);
             }
         } finally {
             lockCurrentSnapshot.unlock();
@@ -656,7 +669,13 @@ public class IpCameraHandler extends BaseThingHandler {
     }
 
     public void stopStreamServer() {
-        serversLoopGroup.shutdownGracefully();
+        // the event loops are shared, so the server and its viewers have to be closed one by one
+        ChannelFuture localFuture = serverFuture;
+        if (localFuture != null) {
+            localFuture.channel().close();
+            serverFuture = null;
+        }
+        serverChannels.close();
         serverBootstrap = null;
     }
 
@@ -664,15 +683,18 @@ public class IpCameraHandler extends BaseThingHandler {
     public void startStreamServer() {
         if (serverBootstrap == null) {
             try {
-                serversLoopGroup = new NioEventLoopGroup();
                 serverBootstrap = new ServerBootstrap();
-                serverBootstrap.group(serversLoopGroup);
+                serverBootstrap.group(eventLoops.getServerGroup());
                 serverBootstrap.channel(NioServerSocketChannel.class);
+                serverBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(512 * 1024, 1024 * 1024));
                 // IP "0.0.0.0" will bind the server to all network connections//
                 serverBootstrap.localAddress(new InetSocketAddress("0.0.0.0", cameraConfig.getServerPort()));
                 serverBootstrap.childHandler(new ChannelInitializer<SocketChannel>() {
                     @Override
                     protected void initChannel(SocketChannel socketChannel) throws Exception {
+                        serverChannels.add(socketChannel);
+                        eventLoops.track(getThing().getUID().getId(), socketChannel);
                         socketChannel.pipeline().addLast("idleStateHandler", new IdleStateHandler(0, 60, 0));
                         socketChannel.pipeline().addLast("HttpServerCodec", new HttpServerCodec());
                         socketChannel.pipeline().addLast("ChunkedWriteHandler", new ChunkedWriteHandler());
@@ -817,8 +839,7 @@ public class IpCameraHandler extends BaseThingHandler {
 
     // sends direct to ctx so can be either snapshots.mjpeg or normal mjpeg stream
     public void sendMjpegFirstPacket(ChannelHandlerContext ctx) {
-        final String boundary = "thisMjpegStream";
-        String contentType = "multipart/x-mixed-replace; boundary=" + boundary;
+        String contentType = "multipart/x-mixed-replace; boundary=" + MjpegFrames.BOUNDARY;
         HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
         response.headers().add(HttpHeaderNames.CONTENT_TYPE, contentType);
         response.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
@@ -829,16 +850,11 @@ public class IpCameraHandler extends BaseThingHandler {
     }
 
     public void sendMjpegFrame(byte[] jpg, ChannelGroup channelGroup) {
-        final String boundary = "thisMjpegStream";
-        ByteBuf imageByteBuf = Unpooled.copiedBuffer(jpg);
-        int length = imageByteBuf.readableBytes();
-        String header = "--" + boundary + "\r\n" + "content-type: image/jpeg" + "\r\n" + "content-length: " + length
-                + "\r\n\r\n";
-        ByteBuf headerBbuf = Unpooled.copiedBuffer(header, 0, header.length(), StandardCharsets.UTF_8);
-        ByteBuf footerBbuf = Unpooled.copiedBuffer("\r\n", 0, 2, StandardCharsets.UTF_8);
-        streamToGroup(headerBbuf, channelGroup, false);
-        streamToGroup(imageByteBuf, channelGroup, false);
-        streamToGroup(footerBbuf, channelGroup, true);
+        if (channelGroup.isEmpty()) {
+            return;
+        }
+        // the group writes a retained duplicate of the same frame to each viewer and releases the frame afterwards
+        channelGroup.writeAndFlush(MjpegFrames.encode(jpg), writableViewers);
     }
 
     public void streamToGroup(Object msg, ChannelGroup channelGroup, boolean flush) {
@@ -850,24 +866,18 @@ public class IpCameraHandler extends BaseThingHandler {
 
     private void storeSnapshots() {
         int count = 0;
-        // Need to lock as fifoSnapshotBuffer is not thread safe and new snapshots can be incoming.
-        lockCurrentSnapshot.lock();
-        try {
-            for (byte[] foo : fifoSnapshotBuffer) {
-                File file = new File(cameraConfig.getFfmpegOutput() + "snapshot" + count + ".jpg");
-                count++;
-                try {
-                    OutputStream fos = new FileOutputStream(file);
-                    fos.write(foo);
-                    fos.close();
-                } catch (FileNotFoundException e) {
-                    logger.warn("FileNotFoundException {}", e.getMessage());
-                } catch (IOException e) {
-                    logger.warn("IOException {}", e.getMessage());
-                }
+        for (byte[] foo : preEventSnapshots.toList()) {
+            File file = new File(cameraConfig.getFfmpegOutput() + "snapshot" + count + ".jpg");
+            count++;
+            try {
+                OutputStream fos = new FileOutputStream(file);
+                fos.write(foo);
+                fos.close();
+            } catch (FileNotFoundException e) {
+                logger.warn("FileNotFoundException {}", e.getMessage());
+            } catch (IOException e) {
+                logger.warn("IOException {}", e.getMessage());
             }
-        } finally {
-            lockCurrentSnapshot.unlock();
         }
     }
 
@@ -1678,8 +1688,9 @@ public class IpCameraHandler extends BaseThingHandler {
         }
 
         if (!thing.getThingTypeUID().getId().equals(GENERIC_THING)) {
-            onvifCamera = new OnvifConnection(this, cameraConfig.getIp() + ":" + cameraConfig.getOnvifPort(),
-                    cameraConfig.getUser(), cameraConfig.getPassword());
+            onvifCamera = new OnvifConnection(this, eventLoops,
+                    cameraConfig.getIp() + ":" + cameraConfig.getOnvifPort(), cameraConfig.getUser(),
+                    cameraConfig.getPassword());
             onvifCamera.setSelectedMediaProfile(cameraConfig.getOnvifMediaProfile());
             // Only use ONVIF events if it is not an API camera.
             onvifCamera.connect(thing.getThingTypeUID().getId().equals(ONVIF_THING));
@@ -1730,6 +1741,12 @@ public class IpCameraHandler extends BaseThingHandler {
         useDigestAuth = false;
         stopStreamServer();
         openChannels.close();
+        logger.debug(
+                "Shared event loops after disposing camera {}: {}, {} channels of the camera still open, {} mjpeg frames dropped for slow viewers",
+                getThing().getUID().getId(), eventLoops.getStatistics(),
+                eventLoops.getChannelCount(getThing().getUID().getId()), droppedFrames.get());
+        eventLoops.release(getThing().getUID().getId());
+        preEventSnapshots.clear();
 
         Ffmpeg localFfmpeg = ffmpegHLS;
         if (localFfmpeg != null) {
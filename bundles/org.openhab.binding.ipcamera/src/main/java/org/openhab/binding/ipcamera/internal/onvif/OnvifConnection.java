@@ -28,11 +28,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.ipcamera.internal.Helper;
+import org.openhab.binding.ipcamera.internal.SharedEventLoops;
 import org.openhab.binding.ipcamera.internal.handler.IpCameraHandler;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.thing.ChannelUID;
@@ -48,8 +48,6 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
@@ -112,7 +110,7 @@ public class OnvifConnection {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private @Nullable Bootstrap bootstrap;
-    private EventLoopGroup mainEventLoopGroup = new NioEventLoopGroup();
+    private final SharedEventLoops eventLoops;
     private String ipAddress = "";
     private String user = "";
     private String password = "";
@@ -154,8 +152,10 @@ public class OnvifConnection {
     private List<String> mediaProfileTokens = new LinkedList<>();
     private boolean ptzDevice = true;
 
-    public OnvifConnection(IpCameraHandler ipCameraHandler, String ipAddress, String user, String password) {
+    public OnvifConnection(IpCameraHandler ipCameraHandler, SharedEventLoops eventLoops, String ipAddress, String user,
+            String password) {
         this.ipCameraHandler = ipCameraHandler;
+        this.eventLoops = eventLoops;
         if (!ipAddress.isEmpty()) {
             this.user = user;
             this.password = password;
@@ -498,7 +498,7 @@ public class OnvifConnection {
     public void sendOnvifRequest(HttpRequest request) {
         if (bootstrap == null) {
             bootstrap = new Bootstrap();
-            bootstrap.group(mainEventLoopGroup);
+            bootstrap.group(eventLoops.getClientGroup());
             bootstrap.channel(NioSocketChannel.class);
             bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
             bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000);
@@ -524,6 +524,7 @@ public class OnvifConnection {
                 }
                 if (future.isDone() && future.isSuccess()) {
                     Channel ch = future.channel();
+                    eventLoops.track(ipCameraHandler.getThing().getUID().getId(), ch);
                     ch.writeAndFlush(request);
                 } else { // an error occured
                     logger.debug("Camera is not reachable on ONVIF port:{} or the port may be wrong.", onvifPort);
@@ -835,15 +836,7 @@ public class OnvifConnection {
         isConnected = false;
         presetTokens.clear();
         mediaProfileTokens.clear();
-        if (!mainEventLoopGroup.isShutdown()) {
-            try {
-                mainEventLoopGroup.awaitTermination(3, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                logger.info("Onvif was not shutdown correctly due to being interrupted");
-            } finally {
-                mainEventLoopGroup = new NioEventLoopGroup();
-                bootstrap = null;
-            }
-        }
+        // the event loops are shared with other cameras, only the bootstrap belongs to this connection
+        bootstrap = null;
     }
 }
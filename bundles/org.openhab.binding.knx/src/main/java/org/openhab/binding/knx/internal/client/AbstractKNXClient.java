@@ -12,9 +12,15 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -33,11 +39,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tuwien.auto.calimero.CloseEvent;
+import tuwien.auto.calimero.DataUnitBuilder;
 import tuwien.auto.calimero.DetachEvent;
 import tuwien.auto.calimero.FrameEvent;
 import tuwien.auto.calimero.GroupAddress;
 import tuwien.auto.calimero.IndividualAddress;
 import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.Priority;
 import tuwien.auto.calimero.datapoint.CommandDP;
 import tuwien.auto.calimero.datapoint.Datapoint;
 import tuwien.auto.calimero.device.ProcessCommunicationResponder;
@@ -64,13 +72,14 @@ import tuwien.auto.calimero.process.ProcessListener;
 public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClient {
 
     private static final int MAX_SEND_ATTEMPTS = 2;
+    private static final int GROUP_READ = 0x00;
 
     private final Logger logger = LoggerFactory.getLogger(AbstractKNXClient.class);
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
 
     private final ThingUID thingUID;
     private final int responseTimeout;
-    private final int readingPause;
+    private final int maxOutstandingReads;
     private final int autoReconnectPeriod;
     private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
@@ -84,9 +93,17 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable DeviceInfoClient deviceInfoClient;
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
-
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    // identifies the current read job, a job only reschedules itself while it is current
+    private long readJobGeneration;
+
+    // registered listeners with the group addresses they were indexed under, guarded by itself
+    private final Map<GroupAddressListener, Set<GroupAddress>> groupAddressListeners = new HashMap<>();
+    private final Map<GroupAddress, Set<GroupAddressListener>> listenersByGroupAddress = new ConcurrentHashMap<>();
+    // notifications waiting per destination, a destination is present while a drain task is scheduled or running
+    private final Map<GroupAddress, Queue<Runnable>> pendingNotifications = new HashMap<>();
+    private final ReadRequestQueue readRequests = new ReadRequestQueue();
+    private final ReadPacer readPacer;
+    private final long idlePause;
 
     @FunctionalInterface
     private interface ListenerNotification {
@@ -103,6 +120,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupWrite(ProcessEvent e) {
+            readRequests.answered(e.getDestination());
             processEvent("Group Write", e, (listener, source, destination, asdu) -> {
                 listener.onGroupWrite(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -117,6 +135,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupReadResponse(ProcessEvent e) {
+            readRequests.answered(e.getDestination());
             processEvent("Group Read Response", e, (listener, source, destination, asdu) -> {
                 listener.onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -124,14 +143,17 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     };
 
     public AbstractKNXClient(int autoReconnectPeriod, ThingUID thingUID, int responseTimeout, int readingPause,
-            int readRetriesLimit, ScheduledExecutorService knxScheduler, StatusUpdateCallback statusUpdateCallback) {
+            int readRetriesLimit, int maxOutstandingReads, ScheduledExecutorService knxScheduler,
+            StatusUpdateCallback statusUpdateCallback) {
         this.autoReconnectPeriod = autoReconnectPeriod;
         this.thingUID = thingUID;
         this.responseTimeout = responseTimeout;
-        this.readingPause = readingPause;
         this.readRetriesLimit = readRetriesLimit;
+        this.maxOutstandingReads = Math.max(1, maxOutstandingReads);
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
+        this.readPacer = new ReadPacer(readingPause);
+        this.idlePause = Math.max(readingPause, ReadPacer.MIN_PAUSE);
     }
 
     public void initialize() {
@@ -196,8 +218,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
             link.addLinkListener(this);
 
-            busJob = knxScheduler.scheduleWithFixedDelay(() -> readNextQueuedDatapoint(), 0, readingPause,
-                    TimeUnit.MILLISECONDS);
+            long generation = ++readJobGeneration;
+            busJob = knxScheduler.schedule(() -> readNextQueuedDatapoint(generation), 0, TimeUnit.MILLISECONDS);
 
             statusUpdateCallback.updateStatus(ThingStatus.ONLINE);
             connectJob = null;
@@ -224,8 +246,11 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     @SuppressWarnings("null")
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
-        readDatapoints.clear();
-        busJob = nullify(busJob, j -> j.cancel(true));
+        readRequests.clear();
+        synchronized (this) {
+            readJobGeneration++;
+            busJob = nullify(busJob, j -> j.cancel(true));
+        }
         deviceInfoClient = null;
         managementProcedures = nullify(managementProcedures, mp -> mp.detach());
         managementClient = nullify(managementClient, mc -> mc.detach());
@@ -252,13 +277,63 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+        readPacer.telegramObserved(now());
+        Set<GroupAddressListener> listeners = getGroupAddressListeners(destination);
+        if (listeners.isEmpty()) {
+            return;
+        }
+        enqueueNotification(destination, () -> {
+            for (GroupAddressListener listener : listeners) {
+                try {
+                    action.apply(listener, source, destination, asdu);
+                } catch (RuntimeException e) {
+                    logger.warn("Listener '{}' failed to process a {} telegram to '{}': {}", listener, task,
+                            destination, e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues the notification of all listeners of a destination. Only one task per destination is handed to the
+     * scheduler at a time, it runs the queued notifications in the order the telegrams were received.
+     */
+    private void enqueueNotification(GroupAddress destination, Runnable notification) {
+        synchronized (pendingNotifications) {
+            Queue<Runnable> queue = pendingNotifications.get(destination);
+            if (queue != null) {
+                queue.add(notification);
+                return;
+            }
+            queue = new ArrayDeque<>();
+            queue.add(notification);
+            pendingNotifications.put(destination, queue);
+        }
+        try {
+            knxScheduler.execute(() -> drainNotifications(destination));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Dropping notifications for '{}', the scheduler rejected them", destination);
+            synchronized (pendingNotifications) {
+                pendingNotifications.remove(destination);
             }
         }
     }
 
+    private void drainNotifications(GroupAddress destination) {
+        while (true) {
+            Runnable notification;
+            synchronized (pendingNotifications) {
+                Queue<Runnable> queue = pendingNotifications.get(destination);
+                notification = queue != null ? queue.poll() : null;
+                if (notification == null) {
+                    pendingNotifications.remove(destination);
+                    return;
+                }
+            }
+            notification.run();
+        }
+    }
+
     /**
      * Transforms a {@link Type} into a datapoint type value for the KNX bus.
      *
@@ -271,37 +346,85 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return typeHelper.toDPTValue(type, dpt);
     }
 
-    @SuppressWarnings("null")
-    private void readNextQueuedDatapoint() {
+    private void readNextQueuedDatapoint(long generation) {
+        long pause = idlePause;
+        try {
+            pause = sendNextReadRequest();
+        } finally {
+            rescheduleReadJob(generation, pause);
+        }
+    }
+
+    private synchronized void rescheduleReadJob(long generation, long pause) {
+        if (generation == readJobGeneration && link != null) {
+            busJob = knxScheduler.schedule(() -> readNextQueuedDatapoint(generation), pause, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the most urgent queued read request without waiting for its response. The response is picked up by the
+     * process listener, requests which stay unanswered for longer than the response timeout are retried.
+     *
+     * @return the pause in milliseconds before the next request should be sent
+     */
+    private long sendNextReadRequest() {
         if (!connectIfNotAutomatic()) {
-            return;
+            return idlePause;
         }
-        ProcessCommunicator processCommunicator = this.processCommunicator;
-        if (processCommunicator == null) {
-            return;
+        KNXNetworkLink link = this.link;
+        if (link == null) {
+            return idlePause;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
-        if (datapoint != null) {
-            datapoint.incrementRetries();
-            try {
-                logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
-                processCommunicator.read(datapoint.getDatapoint());
-            } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
-                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
-                            datapoint.getDatapoint().getMainAddress(), e.getMessage());
-                } else {
-                    logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
-                            datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
-                }
-            } catch (InterruptedException e) {
-                logger.debug("Interrupted sending KNX read request");
-                return;
-            }
+        for (ReadDatapoint expired : readRequests.expire(now())) {
+            retryRead(expired, "no response within " + responseTimeout + "s");
+        }
+        if (readRequests.outstanding() >= maxOutstandingReads) {
+            return readPacer.getPause();
+        }
+        ReadDatapoint datapoint = readRequests.poll(now() + TimeUnit.SECONDS.toMillis(responseTimeout));
+        if (datapoint == null) {
+            return idlePause;
+        }
+        datapoint.incrementRetries();
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        try {
+            logger.trace("Sending a Group Read Request telegram for {} ({} queued, pause {}ms)", address,
+                    readRequests.size(), readPacer.getPause());
+            long start = now();
+            sendReadRequest(link, address);
+            long confirmed = now();
+            return readPacer.confirmed(confirmed - start, confirmed);
+        } catch (KNXException e) {
+            readRequests.release(datapoint);
+            retryRead(datapoint, e.getMessage());
+            return readPacer.failed();
+        } catch (InterruptedException e) {
+            readRequests.release(datapoint);
+            logger.debug("Interrupted sending KNX read request");
+            return idlePause;
         }
     }
 
+    private void sendReadRequest(KNXNetworkLink link, GroupAddress address) throws KNXException, InterruptedException {
+        link.sendRequestWait(address, Priority.LOW, DataUnitBuilder.createLengthOptimizedAPDU(GROUP_READ, null));
+    }
+
+    private void retryRead(ReadDatapoint datapoint, @Nullable String reason) {
+        if (datapoint.getRetries() < datapoint.getLimit()) {
+            datapoint.setPriority(ReadPriority.LOW);
+            readRequests.add(datapoint);
+            logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
+                    datapoint.getDatapoint().getMainAddress(), reason);
+        } else {
+            logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                    datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
     public void dispose() {
         cancelReconnectJob();
         disconnect(null);
@@ -367,23 +490,52 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+    public void readDatapoint(Datapoint datapoint, ReadPriority priority) {
+        readRequests.add(new ReadDatapoint(datapoint, readRetriesLimit, priority));
     }
 
     @Override
     public final boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.add(listener);
+        Set<GroupAddress> groupAddresses = listener.getGroupAddresses();
+        synchronized (groupAddressListeners) {
+            Set<GroupAddress> previous = groupAddressListeners.put(listener, groupAddresses);
+            if (previous != null) {
+                removeFromIndex(listener, previous);
+            }
+            for (GroupAddress groupAddress : groupAddresses) {
+                listenersByGroupAddress.computeIfAbsent(groupAddress, ga -> new CopyOnWriteArraySet<>()).add(listener);
+            }
+            return previous == null;
+        }
     }
 
     @Override
     public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.remove(listener);
+        synchronized (groupAddressListeners) {
+            Set<GroupAddress> previous = groupAddressListeners.remove(listener);
+            if (previous == null) {
+                return false;
+            }
+            removeFromIndex(listener, previous);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the listeners registered for the given destination.
+     */
+    Set<GroupAddressListener> getGroupAddressListeners(GroupAddress destination) {
+        Set<GroupAddressListener> listeners = listenersByGroupAddress.get(destination);
+        return listeners != null ? listeners : Collections.emptySet();
+    }
+
+    private void removeFromIndex(GroupAddressListener listener, Set<GroupAddress> groupAddresses) {
+        for (GroupAddress groupAddress : groupAddresses) {
+            listenersByGroupAddress.computeIfPresent(groupAddress, (ga, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            });
+        }
     }
 
     @Override
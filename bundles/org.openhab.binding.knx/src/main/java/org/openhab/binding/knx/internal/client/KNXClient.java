@@ -81,7 +81,18 @@ public interface KNXClient {
      *
      * @param datapoint the datapoint
      */
-    void readDatapoint(Datapoint datapoint);
+    default void readDatapoint(Datapoint datapoint) {
+        readDatapoint(datapoint, ReadPriority.NORMAL);
+    }
+
+    /**
+     * Schedule the given data point for asynchronous reading. A data point which is queued already is not queued
+     * again, its priority is raised if necessary.
+     *
+     * @param datapoint the datapoint
+     * @param priority the priority of the read request
+     */
+    void readDatapoint(Datapoint datapoint, ReadPriority priority);
 
     /**
      * Write a command to the KNX bus.
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Adapts the pause between two read requests to the load of the KNX bus.
+ *
+ * The configured reading pause is the shortest pause used, the pacer only lengthens it. The pause doubles when a
+ * confirmation takes much longer than usual, a request fails or the bus carries many telegrams. It shrinks back to the
+ * configured reading pause while read requests are confirmed quickly and the bus is quiet.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadPacer {
+
+    static final long MIN_PAUSE = 10;
+    static final long MAX_PAUSE = 2000;
+    static final int BUSY_TELEGRAMS_PER_SECOND = 25;
+
+    private static final long LOAD_WINDOW = 1000;
+
+    private final long minPause;
+    private long pause;
+    private long averageLatency = -1;
+    private long windowStart;
+    private int windowTelegrams;
+    private int busLoad;
+
+    public ReadPacer(long readingPause) {
+        this.minPause = Math.min(Math.max(readingPause, MIN_PAUSE), MAX_PAUSE);
+        this.pause = this.minPause;
+    }
+
+    /**
+     * Counts a telegram seen on the bus.
+     *
+     * @param now the current time in milliseconds
+     */
+    public synchronized void telegramObserved(long now) {
+        if (now - windowStart >= LOAD_WINDOW) {
+            busLoad = now - windowStart < 2 * LOAD_WINDOW ? windowTelegrams : 0;
+            windowStart = now;
+            windowTelegrams = 0;
+        }
+        windowTelegrams++;
+    }
+
+    /**
+     * Adapts the pause after a read request has been confirmed by the bus.
+     *
+     * @param latency the time in milliseconds it took to get the confirmation
+     * @param now the current time in milliseconds
+     * @return the pause in milliseconds before the next read request
+     */
+    public synchronized long confirmed(long latency, long now) {
+        boolean slow = averageLatency >= 0 && latency > 2 * averageLatency + minPause;
+        averageLatency = averageLatency < 0 ? latency : averageLatency + (latency - averageLatency) / 8;
+        if (slow || isBusy(now)) {
+            pause = Math.min(MAX_PAUSE, Math.max(pause, minPause + 1) * 2);
+        } else {
+            pause = Math.max(minPause, pause * 3 / 4);
+        }
+        return pause;
+    }
+
+    /**
+     * Adapts the pause after a read request could not be sent.
+     *
+     * @return the pause in milliseconds before the next read request
+     */
+    public synchronized long failed() {
+        pause = Math.min(MAX_PAUSE, Math.max(pause, minPause + 1) * 2);
+        return pause;
+    }
+
+    public synchronized long getPause() {
+        return pause;
+    }
+
+    public synchronized int getBusLoad(long now) {
+        long age = now - windowStart;
+        if (age < LOAD_WINDOW) {
+            return Math.max(busLoad, windowTelegrams);
+        }
+        return age < 2 * LOAD_WINDOW ? windowTelegrams : 0;
+    }
+
+    private boolean isBusy(long now) {
+        return getBusLoad(now) > BUSY_TELEGRAMS_PER_SECOND;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Queue of read requests to the KNX bus, keyed by group address.
+ *
+ * A group address is queued at most once, adding it again only raises its priority. Requests are handed out by
+ * priority and in insertion order within the same priority. Sent requests stay outstanding until a telegram for their
+ * group address is seen or their deadline passes.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadRequestQueue {
+
+    private static final Comparator<ReadDatapoint> ORDER = Comparator
+            .comparing((ReadDatapoint datapoint) -> datapoint.getPriority())
+            .thenComparingLong(datapoint -> datapoint.getSequence());
+
+    private final Map<GroupAddress, ReadDatapoint> queued = new HashMap<>();
+    private final TreeSet<ReadDatapoint> order = new TreeSet<>(ORDER);
+    private final Map<GroupAddress, ReadDatapoint> outstanding = new HashMap<>();
+    private long sequence;
+
+    /**
+     * Queues the given request unless its group address is queued or outstanding already.
+     *
+     * @param datapoint the request
+     * @return {@code true} if the request was added, {@code false} if an existing one was kept
+     */
+    public synchronized boolean add(ReadDatapoint datapoint) {
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        ReadDatapoint existing = queued.get(address);
+        if (existing != null) {
+            if (datapoint.getPriority().compareTo(existing.getPriority()) < 0) {
+                order.remove(existing);
+                existing.setPriority(datapoint.getPriority());
+                existing.setSequence(sequence++);
+                order.add(existing);
+            }
+            return false;
+        }
+        if (outstanding.containsKey(address)) {
+            return false;
+        }
+        datapoint.setSequence(sequence++);
+        queued.put(address, datapoint);
+        order.add(datapoint);
+        return true;
+    }
+
+    /**
+     * Takes the next request and marks it as outstanding.
+     *
+     * @param deadline the time in milliseconds after which the request is considered unanswered
+     * @return the request or {@code null} if none is queued
+     */
+    public synchronized @Nullable ReadDatapoint poll(long deadline) {
+        ReadDatapoint datapoint = order.pollFirst();
+        if (datapoint == null) {
+            return null;
+        }
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        queued.remove(address);
+        datapoint.setDeadline(deadline);
+        outstanding.put(address, datapoint);
+        return datapoint;
+    }
+
+    /**
+     * Removes a request which could not be sent from the outstanding ones.
+     *
+     * @param datapoint the request
+     */
+    public synchronized void release(ReadDatapoint datapoint) {
+        outstanding.remove(datapoint.getDatapoint().getMainAddress(), datapoint);
+    }
+
+    /**
+     * Called for every telegram carrying a value of the given group address, it satisfies the outstanding request as
+     * well as a queued one.
+     *
+     * @param address the group address
+     * @return {@code true} if an outstanding request was answered
+     */
+    public synchronized boolean answered(GroupAddress address) {
+        ReadDatapoint datapoint = queued.remove(address);
+        if (datapoint != null) {
+            order.remove(datapoint);
+        }
+        return outstanding.remove(address) != null;
+    }
+
+    /**
+     * Removes all outstanding requests whose deadline has passed.
+     *
+     * @param now the current time in milliseconds
+     * @return the expired requests
+     */
+    public synchronized List<ReadDatapoint> expire(long now) {
+        List<ReadDatapoint> expired = new ArrayList<>();
+        for (Iterator<ReadDatapoint> iterator = outstanding.values().iterator(); iterator.hasNext();) {
+            ReadDatapoint datapoint = iterator.next();
+            if (datapoint.getDeadline() - now <= 0) {
+                iterator.remove();
+                expired.add(datapoint);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return queued.size();
+    }
+
+    public synchronized int outstanding() {
+        return outstanding.size();
+    }
+
+    public synchronized void clear() {
+        queued.clear();
+        order.clear();
+        outstanding.clear();
+    }
+}
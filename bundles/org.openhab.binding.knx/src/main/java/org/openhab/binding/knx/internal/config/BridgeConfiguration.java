@@ -26,6 +26,7 @@ public class BridgeConfiguration {
     private int autoReconnectPeriod;
     private BigDecimal readingPause;
     private BigDecimal readRetriesLimit;
+    private BigDecimal maxOutstandingReads = BigDecimal.valueOf(8);
     private BigDecimal responseTimeout;
 
     public int getAutoReconnectPeriod() {
@@ -40,6 +41,10 @@ public class BridgeConfiguration {
         return readRetriesLimit;
     }
 
+    public BigDecimal getMaxOutstandingReads() {
+        return maxOutstandingReads;
+    }
+
     public BigDecimal getResponseTimeout() {
         return responseTimeout;
     }
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.knx.internal.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
@@ -28,9 +30,10 @@ import tuwien.auto.calimero.GroupAddress;
 public interface GroupAddressListener extends BusMessageListener {
 
     /**
-     * Called to verify if the GroupAddressListener has an interest in the given GroupAddress
+     * Returns all GroupAddresses the GroupAddressListener has an interest in. Called when the listener is registered,
+     * the client uses it to look up the listeners of a destination instead of asking each listener.
      *
-     * @param destination
+     * @return the GroupAddresses the GroupAddressListener wants to be notified about
      */
-    public boolean listensTo(GroupAddress destination);
+    public Set<GroupAddress> getGroupAddresses();
 }
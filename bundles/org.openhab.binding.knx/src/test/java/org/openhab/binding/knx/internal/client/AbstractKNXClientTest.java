@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+import org.openhab.core.thing.ThingUID;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+
+/**
+ * Tests the group address index of the {@link AbstractKNXClient}.
+ *
+ * @author agent - Initial contribution
+ */
+public class AbstractKNXClientTest {
+
+    private AbstractKNXClient client;
+    private GroupAddress address1;
+    private GroupAddress address2;
+
+    @BeforeEach
+    public void setup() throws KNXFormatException {
+        client = new AbstractKNXClient(0, new ThingUID("knx:ip:bridge"), 10, 50, 3, 8,
+                mock(ScheduledExecutorService.class), mock(StatusUpdateCallback.class)) {
+            @Override
+            protected KNXNetworkLink establishConnection() throws KNXException {
+                throw new KNXException("not connected");
+            }
+        };
+        address1 = new GroupAddress("1/1/1");
+        address2 = new GroupAddress("1/1/2");
+    }
+
+    private GroupAddressListener listener(GroupAddress... groupAddresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(Set.of(groupAddresses));
+        return listener;
+    }
+
+    @Test
+    public void testRegisterAndUnregister() {
+        GroupAddressListener listener = listener(address1, address2);
+
+        assertTrue(client.registerGroupAddressListener(listener));
+        assertEquals(Set.of(listener), client.getGroupAddressListeners(address1));
+        assertEquals(Set.of(listener), client.getGroupAddressListeners(address2));
+
+        assertTrue(client.unregisterGroupAddressListener(listener));
+        assertTrue(client.getGroupAddressListeners(address1).isEmpty());
+        assertTrue(client.getGroupAddressListeners(address2).isEmpty());
+        assertFalse(client.unregisterGroupAddressListener(listener));
+    }
+
+    @Test
+    public void testRegisterAgain_updatesChangedAddresses() {
+        GroupAddressListener listener = listener(address1);
+        assertTrue(client.registerGroupAddressListener(listener));
+
+        // the handler is initialized again with another configuration
+        when(listener.getGroupAddresses()).thenReturn(Set.of(address2));
+        assertFalse(client.registerGroupAddressListener(listener));
+
+        assertTrue(client.getGroupAddressListeners(address1).isEmpty());
+        assertEquals(Set.of(listener), client.getGroupAddressListeners(address2));
+
+        assertTrue(client.unregisterGroupAddressListener(listener));
+        assertTrue(client.getGroupAddressListeners(address2).isEmpty());
+    }
+
+    @Test
+    public void testMultipleListeners() {
+        GroupAddressListener first = listener(address1);
+        GroupAddressListener second = listener(address1, address2);
+        client.registerGroupAddressListener(first);
+        client.registerGroupAddressListener(second);
+
+        assertEquals(Set.of(first, second), client.getGroupAddressListeners(address1));
+        assertEquals(Set.of(second), client.getGroupAddressListeners(address2));
+
+        client.unregisterGroupAddressListener(second);
+        assertEquals(Set.of(first), client.getGroupAddressListeners(address1));
+        assertTrue(client.getGroupAddressListeners(address2).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+
+/**
+ * Tests the {@link ReadRequestQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ReadRequestQueueTest {
+
+    private ReadRequestQueue queue;
+
+    @BeforeEach
+    public void setup() {
+        queue = new ReadRequestQueue();
+    }
+
+    @Test
+    public void testPoll_byPriorityThenInsertionOrder() throws KNXFormatException {
+        queue.add(request("1/1/1", ReadPriority.LOW));
+        queue.add(request("1/1/2", ReadPriority.NORMAL));
+        queue.add(request("1/1/3", ReadPriority.HIGH));
+        queue.add(request("1/1/4", ReadPriority.NORMAL));
+
+        assertEquals(new GroupAddress("1/1/3"), poll());
+        assertEquals(new GroupAddress("1/1/2"), poll());
+        assertEquals(new GroupAddress("1/1/4"), poll());
+        assertEquals(new GroupAddress("1/1/1"), poll());
+        assertNull(queue.poll(0));
+    }
+
+    @Test
+    public void testAdd_deduplicatesAndRaisesPriority() throws KNXFormatException {
+        assertTrue(queue.add(request("1/1/1", ReadPriority.NORMAL)));
+        assertTrue(queue.add(request("1/1/2", ReadPriority.LOW)));
+        assertFalse(queue.add(request("1/1/2", ReadPriority.HIGH)));
+        assertFalse(queue.add(request("1/1/1", ReadPriority.LOW)));
+
+        assertEquals(2, queue.size());
+        assertEquals(new GroupAddress("1/1/2"), poll());
+        assertEquals(new GroupAddress("1/1/1"), poll());
+    }
+
+    @Test
+    public void testAnswered_removesOutstandingAndQueued() throws KNXFormatException {
+        queue.add(request("1/1/1", ReadPriority.NORMAL));
+        queue.add(request("1/1/2", ReadPriority.NORMAL));
+        poll();
+        assertFalse(queue.add(request("1/1/1", ReadPriority.HIGH)));
+
+        assertTrue(queue.answered(new GroupAddress("1/1/1")));
+        assertFalse(queue.answered(new GroupAddress("1/1/2")));
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.outstanding());
+    }
+
+    @Test
+    public void testExpire() throws KNXFormatException {
+        queue.add(request("1/1/1", ReadPriority.NORMAL));
+        queue.add(request("1/1/2", ReadPriority.NORMAL));
+        queue.poll(100);
+        queue.poll(200);
+
+        assertEquals(1, queue.expire(150).size());
+        assertEquals(1, queue.outstanding());
+        assertTrue(queue.add(request("1/1/1", ReadPriority.LOW)));
+    }
+
+    private ReadDatapoint request(String address, ReadPriority priority) throws KNXFormatException {
+        return new ReadDatapoint(new CommandDP(new GroupAddress(address), "test", 0, "1.001"), 3, priority);
+    }
+
+    private GroupAddress poll() {
+        ReadDatapoint datapoint = queue.poll(0);
+        assertNotNull(datapoint);
+        return datapoint.getDatapoint().getMainAddress();
+    }
+}
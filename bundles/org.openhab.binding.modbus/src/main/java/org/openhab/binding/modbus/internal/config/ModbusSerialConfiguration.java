@@ -37,6 +37,7 @@ public class ModbusSerialConfiguration {
     private int timeBetweenTransactionsMillis;
     private int connectMaxTries;
     private int connectTimeoutMillis;
+    private int readCoalescingGap = -1;
     private boolean enableDiscovery;
 
     public @Nullable String getPort() {
@@ -151,6 +152,14 @@ public class ModbusSerialConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getReadCoalescingGap() {
+        return readCoalescingGap;
+    }
+
+    public void setReadCoalescingGap(int readCoalescingGap) {
+        this.readCoalescingGap = readCoalescingGap;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
@@ -31,6 +31,7 @@ public class ModbusTcpConfiguration {
     private int connectMaxTries;
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
+    private int readCoalescingGap = -1;
     private boolean enableDiscovery;
 
     public @Nullable String getHost() {
@@ -97,6 +98,14 @@ public class ModbusTcpConfiguration {
         this.connectTimeoutMillis = connectTimeoutMillis;
     }
 
+    public int getReadCoalescingGap() {
+        return readCoalescingGap;
+    }
+
+    public void setReadCoalescingGap(int readCoalescingGap) {
+        this.readCoalescingGap = readCoalescingGap;
+    }
+
     public boolean isDiscoveryEnabled() {
         return enableDiscovery;
     }
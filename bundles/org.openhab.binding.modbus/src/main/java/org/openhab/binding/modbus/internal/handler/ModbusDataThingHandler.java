@@ -15,6 +15,7 @@ package org.openhab.binding.modbus.internal.handler;
 import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal.*;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -142,6 +143,14 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    /**
+     * Raw (undecoded) value of the last processed poll, see {@link #isUnchangedRawValue(long)}
+     */
+    private volatile long lastRawValue;
+    /**
+     * Until this time, unchanged raw value does not need to be processed. Zero when there is no processed value
+     */
+    private volatile long lastRawValueValidUntilMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -408,6 +417,15 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        lastRawValue = 0;
+        lastRawValueValidUntilMillis = 0;
+    }
+
+    @Override
+    public synchronized void channelLinked(ChannelUID channelUID) {
+        // Process next poll fully, even if unchanged, so that the linked channel receives the value
+        lastRawValueValidUntilMillis = 0;
+        super.channelLinked(channelUID);
     }
 
     @Override
@@ -696,9 +714,21 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
+        // Read the value without allocations first, decoding and transformation are skipped with unchanged data
+        ByteBuffer buffer = registers.asByteBuffer();
+        long rawValue = readValueType == ValueType.FLOAT32 || readValueType == ValueType.FLOAT32_SWAP
+                ? Float.floatToRawIntBits(
+                        ModbusBitUtilities.extractFloatFromRegisters(buffer, extractIndex, readValueType))
+                : ModbusBitUtilities.extractLongFromRegisters(buffer, extractIndex, readValueType);
+        if (isUnchangedRawValue(rawValue)) {
+            logger.trace("Thing {} data unchanged (extractIndex={}, raw value {}), channels not updated",
+                    thing.getUID(), extractIndex, rawValue);
+            return;
+        }
         numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
                 .map(state -> (State) state).orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
+        lastRawValue = rawValue;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
                 "Thing {} channels updated: {}. readValueType={}, readIndex={}, readSubIndex(or 0)={}, extractIndex={} -> numeric value {} and boolValue={}. Registers {} for request {}",
@@ -713,6 +743,11 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (isUnchangedRawValue(boolValue ? 1 : 0)) {
+            logger.trace("Thing {} data unchanged (bool value {}), channels not updated", thing.getUID(), boolValue);
+            return;
+        }
+        lastRawValue = boolValue ? 1 : 0;
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -888,8 +923,41 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             long now = System.currentTimeMillis();
             // Update channels that have not been updated in a while, or when their values has changed
             states.forEach((uid, state) -> updateExpiredChannel(now, uid, state));
-            channelLastState = states;
+            channelLastState.keySet().retainAll(states.keySet());
+            channelLastState.putAll(states);
+
+            // Same raw value would not update any channel before the first of them expires
+            long validUntilMillis = Long.MAX_VALUE;
+            for (ChannelUID uid : states.keySet()) {
+                validUntilMillis = Math.min(validUntilMillis,
+                        channelLastUpdated.getOrDefault(uid, now) + updateUnchangedValuesEveryMillis);
+            }
+            lastRawValueValidUntilMillis = validUntilMillis;
+        }
+    }
+
+    /**
+     * Check whether polled raw value can be ignored
+     *
+     * Processing is skipped when the value equals the previously processed value, and none of the channels would be
+     * updated due to updateUnchangedValuesEveryMillis. The last read success channel is updated nevertheless.
+     *
+     * @param rawValue raw value, as extracted from the polled data without any transformation
+     * @return whether the value was unchanged and thus handled
+     */
+    private synchronized boolean isUnchangedRawValue(long rawValue) {
+        long now = System.currentTimeMillis();
+        if (updateUnchangedValuesEveryMillis <= 0L || lastRawValueValidUntilMillis <= 0L || rawValue != lastRawValue
+                || now > lastRawValueValidUntilMillis) {
+            return false;
+        }
+        updateStatusIfChanged(ThingStatus.ONLINE);
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            tryUpdateState(lastReadSuccessUID, new DateTimeType());
+            channelLastUpdated.put(lastReadSuccessUID, now);
         }
+        return true;
     }
 
     // since lastState can be null, and "lastState == null" in conditional is not useless
@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.generic.tools.CoalescingPublisher;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.binding.mqtt.generic.values.OnOffValue;
 import org.openhab.binding.mqtt.generic.values.Value;
@@ -83,6 +84,8 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
     private final int subscribeTimeout;
 
     protected @Nullable MqttBrokerConnection connection;
+    // Publishes the commands of channels with a coalesce window
+    protected final CoalescingPublisher commandPublisher = new CoalescingPublisher(scheduler);
 
     private AtomicBoolean messageReceived = new AtomicBoolean(false);
     private Map<String, @Nullable ChannelState> availabilityStates = new ConcurrentHashMap<>();
@@ -114,6 +117,11 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
      * You should clean up all resources that depend on a working connection.
      */
     protected void stop() {
+        int queued = commandPublisher.getQueueLength();
+        if (queued > 0) {
+            logger.debug("Dropping {} coalesced commands of {} that were not published yet", queued, thing.getUID());
+        }
+        commandPublisher.clear();
         clearAllAvailabilityTopics();
         resetMessageReceived();
     }
@@ -256,6 +264,11 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
         } catch (InterruptedException | ExecutionException | TimeoutException e) {
             logger.warn("unsubscription on disposal failed for {}: ", thing.getUID(), e);
         }
+        if (commandPublisher.getPublishedCount() > 0) {
+            logger.debug("Coalesced commands of {}: {} published, {} replaced, average latency {} ms",
+                    thing.getUID(), commandPublisher.getPublishedCount(), commandPublisher.getReplacedCount(),
+                    commandPublisher.getAverageLatency());
+        }
         connection = null;
         super.dispose();
     }
@@ -37,8 +37,18 @@ public class ChannelConfig {
      * Instead a postCommand() call is performed.
      */
     public boolean postCommand = false;
+    /**
+     * If true, a message with the same payload as the previous one of the topic is not processed again. Does not apply
+     * to trigger channels and channels posting commands.
+     */
+    public boolean skipUnchanged = false;
     public @Nullable Integer qos;
     public boolean retained = false;
+    /**
+     * Time in milliseconds commands are collected before the latest one is published. 0 publishes every command
+     * immediately.
+     */
+    public int coalesceWindow = 0;
     /** If true, the state topic will not update a state, but trigger a channel instead. */
     public boolean trigger = false;
     public String unit = "";
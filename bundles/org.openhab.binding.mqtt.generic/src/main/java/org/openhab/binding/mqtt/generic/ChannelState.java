@@ -24,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.generic.tools.CoalescingPublisher;
+import org.openhab.binding.mqtt.generic.tools.SharedMessageDecoder;
+import org.openhab.binding.mqtt.generic.tools.SharedMessageDecoder.DecodedMessage;
 import org.openhab.binding.mqtt.generic.values.TextValue;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -62,6 +65,9 @@ public class ChannelState implements MqttMessageSubscriber {
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = CompletableFuture.completedFuture(null);
     private final Object futureLock = new Object();
+    private @Nullable SharedMessageDecoder messageDecoder;
+    private volatile @Nullable DecodedMessage lastMessage;
+    private @Nullable CoalescingPublisher publisher;
 
     /**
      * Creates a new channel state.
@@ -105,6 +111,26 @@ public class ChannelState implements MqttMessageSubscriber {
         transformationsOut.add(transformation);
     }
 
+    /**
+     * Decode incoming payloads with the given decoder, which is shared with the other channel states of the thing.
+     * If {@link ChannelConfig#skipUnchanged} is set, messages with the same payload as the previous one are then
+     * skipped, unless this is a trigger channel or a channel posting commands.
+     *
+     * @param messageDecoder A shared decoder
+     */
+    public void setMessageDecoder(SharedMessageDecoder messageDecoder) {
+        this.messageDecoder = messageDecoder;
+    }
+
+    /**
+     * Publish commands through the given publisher if a coalesce window is configured for this channel.
+     *
+     * @param publisher A publisher, usually shared with the other channel states of the thing
+     */
+    public void setPublisher(CoalescingPublisher publisher) {
+        this.publisher = publisher;
+    }
+
     /**
      * Clear transformations
      */
@@ -153,8 +179,22 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
+        String strValue;
+        final SharedMessageDecoder messageDecoder = this.messageDecoder;
+        if (messageDecoder != null) {
+            DecodedMessage message = messageDecoder.decode(topic, payload);
+            if (config.skipUnchanged && message == lastMessage && !config.trigger && !config.postCommand) {
+                logger.trace("Unchanged payload on topic {}, skipping channel {}", topic, channelUID);
+                receivedOrTimeout();
+                return;
+            }
+            lastMessage = message;
+            strValue = message.getText();
+        } else {
+            strValue = new String(payload, StandardCharsets.UTF_8);
+        }
+
         // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
         for (ChannelStateTransformation t : transformationsIn) {
             String transformedValue = t.processValue(strValue);
             if (transformedValue != null) {
@@ -255,6 +295,7 @@ public class ChannelState implements MqttMessageSubscriber {
         this.connection = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
+        lastMessage = null;
         cachedValue.resetState();
     }
 
@@ -333,6 +374,8 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public CompletableFuture<Boolean> publishValue(Command command) {
         cachedValue.update(command);
+        // the device may answer with the previous payload, which must not be skipped then
+        lastMessage = null;
 
         Value mqttCommandValue = cachedValue;
 
@@ -383,6 +426,11 @@ public class ChannelState implements MqttMessageSubscriber {
 
         int qos = (config.qos != null) ? config.qos : connection.getQos();
 
+        final CoalescingPublisher publisher = this.publisher;
+        if (publisher != null && config.coalesceWindow > 0) {
+            return publisher.publish(connection, config.commandTopic, commandString.getBytes(), qos, config.retained,
+                    config.coalesceWindow);
+        }
         return connection.publish(config.commandTopic, commandString.getBytes(), qos, config.retained);
     }
 
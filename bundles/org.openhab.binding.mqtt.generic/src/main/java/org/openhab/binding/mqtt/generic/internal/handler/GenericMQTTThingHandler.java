@@ -31,6 +31,7 @@ import org.openhab.binding.mqtt.generic.ChannelStateTransformation;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.binding.mqtt.generic.tools.SharedMessageDecoder;
 import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.binding.mqtt.generic.values.ValueFactory;
@@ -56,6 +57,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     final Map<ChannelUID, ChannelState> channelStateByChannelUID = new HashMap<>();
     protected final MqttChannelStateDescriptionProvider stateDescProvider;
     protected final TransformationServiceProvider transformationServiceProvider;
+    private final SharedMessageDecoder messageDecoder = new SharedMessageDecoder();
 
     /**
      * Creates a new Thing handler for generic MQTT channels.
@@ -92,6 +94,7 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
     @Override
     protected void stop() {
         channelStateByChannelUID.values().forEach(c -> c.getCache().resetState());
+        messageDecoder.clear();
         super.stop();
     }
 
@@ -123,6 +126,9 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
      */
     protected ChannelState createChannelState(ChannelConfig channelConfig, ChannelUID channelUID, Value valueState) {
         ChannelState state = new ChannelState(channelConfig, channelUID, valueState, this);
+        // channels on the same topic share the decoded payload
+        state.setMessageDecoder(messageDecoder);
+        state.setPublisher(commandPublisher);
         String[] transformations;
 
         // Incoming value transformations
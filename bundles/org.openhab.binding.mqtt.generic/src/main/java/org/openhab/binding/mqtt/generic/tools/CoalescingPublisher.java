@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+
+/**
+ * Publishes only the latest message of a topic within a time window.
+ *
+ * The first message for a topic starts the window. Messages for the same topic arriving within the window replace the
+ * queued one, and when the window has passed the latest message is published. A dimmer slider or a rule loop sending
+ * many values in a short time thereby results in a single publish. Unlike {@link DelayedBatchProcessing}, new messages
+ * don't restart the window, so a steady stream of values is still published once per window.
+ *
+ * The queued message is published with the highest QoS of the messages it replaced. The futures of replaced messages
+ * complete with the result of the message that replaced them.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CoalescingPublisher {
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, QueuedMessage> queue = new HashMap<>();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong replaced = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    private static class QueuedMessage {
+        final long queued = System.nanoTime();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        @Nullable
+        ScheduledFuture<?> flushFuture;
+
+        MqttBrokerConnection connection;
+        byte[] payload;
+        int qos;
+        boolean retain;
+
+        QueuedMessage(MqttBrokerConnection connection, byte[] payload, int qos, boolean retain) {
+            this.connection = connection;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+        }
+    }
+
+    /**
+     * Creates a {@link CoalescingPublisher}.
+     *
+     * @param scheduler A scheduler to publish the queued messages when their window has passed
+     */
+    public CoalescingPublisher(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues a message for publishing.
+     *
+     * @param connection The broker connection
+     * @param topic The topic
+     * @param payload The payload
+     * @param qos The QoS
+     * @param retain True to publish a retained message
+     * @param window The time in milliseconds to wait for newer messages for this topic
+     * @return A future that completes like {@link MqttBrokerConnection#publish(String, byte[], int, boolean)} once
+     *         the message or the message replacing it has been published. Completes with false if the queue is
+     *         cleared before.
+     */
+    public CompletableFuture<Boolean> publish(MqttBrokerConnection connection, String topic, byte[] payload, int qos,
+            boolean retain, int window) {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        synchronized (queue) {
+            QueuedMessage message = queue.get(topic);
+            if (message == null) {
+                message = new QueuedMessage(connection, payload, qos, retain);
+                queue.put(topic, message);
+                message.flushFuture = scheduler.schedule(() -> flush(topic), window, TimeUnit.MILLISECONDS);
+            } else {
+                message.connection = connection;
+                message.payload = payload;
+                message.qos = Math.max(message.qos, qos);
+                message.retain = retain;
+                replaced.incrementAndGet();
+            }
+            message.futures.add(future);
+        }
+        return future;
+    }
+
+    private void flush(String topic) {
+        final QueuedMessage message;
+        synchronized (queue) {
+            message = queue.remove(topic);
+        }
+        if (message == null) {
+            return;
+        }
+        message.connection.publish(topic, message.payload, message.qos, message.retain).whenComplete((result, e) -> {
+            totalLatency.addAndGet(System.nanoTime() - message.queued);
+            published.incrementAndGet();
+            for (CompletableFuture<Boolean> future : message.futures) {
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    future.complete(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops all queued messages, e.g. because the connection has been lost. Their futures complete with false.
+     */
+    public void clear() {
+        final List<QueuedMessage> dropped;
+        synchronized (queue) {
+            dropped = new ArrayList<>(queue.values());
+            queue.clear();
+        }
+        for (QueuedMessage message : dropped) {
+            ScheduledFuture<?> flushFuture = message.flushFuture;
+            if (flushFuture != null) {
+                flushFuture.cancel(false);
+            }
+            message.futures.forEach(future -> future.complete(false));
+        }
+    }
+
+    /**
+     * Returns the number of topics with a queued message.
+     */
+    public int getQueueLength() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Returns the number of published messages.
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Returns the number of messages replaced by a newer one before they were published.
+     */
+    public long getReplacedCount() {
+        return replaced.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds from queuing the first message of a window to the completion of its
+     * publish.
+     */
+    public long getAverageLatency() {
+        long count = published.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / count);
+    }
+}
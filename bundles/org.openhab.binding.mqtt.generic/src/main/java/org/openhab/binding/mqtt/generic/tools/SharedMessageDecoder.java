@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Decodes the payload of a topic once for all channel states subscribed to that topic.
+ *
+ * The MQTT connection hands the same payload to every subscriber of a topic. The first channel state to process it
+ * decodes it, all others get the same {@link DecodedMessage}. The decoded string is the same instance for all of
+ * them, so transformations caching by content, like JSONPATH, find it on the first lookup.
+ *
+ * A message whose payload equals the previous payload of the topic is answered with the previous
+ * {@link DecodedMessage}, which lets a channel state recognize that nothing changed.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SharedMessageDecoder {
+    private final Map<String, TopicEntry> topics = new ConcurrentHashMap<>();
+
+    /**
+     * A decoded payload, shared by all channel states of a topic.
+     */
+    public static class DecodedMessage {
+        private final byte[] payload;
+        private final String text;
+
+        DecodedMessage(byte[] payload) {
+            this.payload = payload;
+            this.text = new String(payload, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the payload decoded as UTF-8.
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    private static class TopicEntry {
+        private @Nullable DecodedMessage last;
+
+        synchronized DecodedMessage decode(byte[] payload) {
+            DecodedMessage message = last;
+            if (message != null && (message.payload == payload || Arrays.equals(message.payload, payload))) {
+                return message;
+            }
+            message = new DecodedMessage(payload);
+            last = message;
+            return message;
+        }
+    }
+
+    /**
+     * Returns the decoded payload, decoding it only if it differs from the previous payload of the topic.
+     *
+     * @param topic The topic the payload has been received on
+     * @param payload The payload
+     * @return The decoded message, the same instance as before if the payload didn't change
+     */
+    public DecodedMessage decode(String topic, byte[] payload) {
+        return topics.computeIfAbsent(topic, t -> new TopicEntry()).decode(payload);
+    }
+
+    /**
+     * Forgets the previous payloads, e.g. after the connection has been lost.
+     */
+    public void clear() {
+        topics.clear();
+    }
+}
@@ -41,6 +41,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.openhab.binding.mqtt.generic.mapping.ColorMode;
+import org.openhab.binding.mqtt.generic.tools.CoalescingPublisher;
+import org.openhab.binding.mqtt.generic.tools.SharedMessageDecoder;
+import org.openhab.binding.mqtt.generic.tools.SharedMessageDecoder.DecodedMessage;
 import org.openhab.binding.mqtt.generic.values.ColorValue;
 import org.openhab.binding.mqtt.generic.values.DateTimeValue;
 import org.openhab.binding.mqtt.generic.values.ImageValue;
@@ -99,6 +102,40 @@ public class ChannelStateTests {
         verify(connection).unsubscribe(eq("state"), eq(c));
     }
 
+    @Test
+    public void publishCoalescedTest() throws InterruptedException, ExecutionException, TimeoutException {
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").build();
+        config.coalesceWindow = 50;
+        config.qos = 0;
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        CoalescingPublisher publisher = new CoalescingPublisher(scheduler);
+        c.setPublisher(publisher);
+
+        c.start(connection, scheduler, 0).get(50, TimeUnit.MILLISECONDS);
+        CompletableFuture<Boolean> first = c.publishValue(new StringType("ONE"));
+        c.config.qos = 1;
+        c.publishValue(new StringType("TWO"));
+        c.config.qos = 0;
+        CompletableFuture<Boolean> last = c.publishValue(new StringType("THREE"));
+        assertThat(publisher.getQueueLength(), is(1));
+
+        // Only the latest value is published, with the highest QoS, and all futures complete
+        assertThat(first.get(500, TimeUnit.MILLISECONDS), is(true));
+        assertThat(last.get(500, TimeUnit.MILLISECONDS), is(true));
+        verify(connection).publish(eq("command"), argThat(p -> Arrays.equals(p, "THREE".getBytes())), eq(1),
+                eq(false));
+        verify(connection, times(1)).publish(any(), any(), anyInt(), anyBoolean());
+        assertThat(publisher.getQueueLength(), is(0));
+        assertThat(publisher.getPublishedCount(), is(1L));
+        assertThat(publisher.getReplacedCount(), is(2L));
+
+        // Dropped on a lost connection
+        CompletableFuture<Boolean> dropped = c.publishValue(new StringType("FOUR"));
+        publisher.clear();
+        assertThat(dropped.get(50, TimeUnit.MILLISECONDS), is(false));
+        c.stop().get();
+    }
+
     @Test
     public void publishFormatTest() throws InterruptedException, ExecutionException, TimeoutException {
         ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
@@ -322,4 +359,51 @@ public class ChannelStateTests {
         assertThat(value.getChannelState(), is(instanceOf(RawType.class)));
         assertThat(((RawType) value.getChannelState()).getMimeType(), is("image/jpeg"));
     }
+
+    @Test
+    public void receiveUnchangedPayloadWithSharedDecoderTest() {
+        SharedMessageDecoder decoder = new SharedMessageDecoder();
+        ChannelConfig config = ChannelConfigBuilder.create("state", "command").build();
+        config.skipUnchanged = true;
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.setMessageDecoder(decoder);
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "A TEST".getBytes());
+        c.processMessage("state", "A TEST".getBytes());
+        verify(channelStateUpdateListener, times(1)).updateChannelState(eq(channelUID), any());
+
+        c.processMessage("state", "ANOTHER TEST".getBytes());
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), any());
+
+        // a published command invalidates the previous payload
+        c.publishValue(new StringType("UPDATE"));
+        c.processMessage("state", "ANOTHER TEST".getBytes());
+        verify(channelStateUpdateListener, times(3)).updateChannelState(eq(channelUID), any());
+        assertThat(textValue.getChannelState().toString(), is("ANOTHER TEST"));
+    }
+
+    @Test
+    public void receiveUnchangedPayloadWithoutSkipUnchangedTest() {
+        ChannelState c = spy(new ChannelState(config, channelUID, textValue, channelStateUpdateListener));
+        c.setMessageDecoder(new SharedMessageDecoder());
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "A TEST".getBytes());
+        c.processMessage("state", "A TEST".getBytes());
+        verify(channelStateUpdateListener, times(2)).updateChannelState(eq(channelUID), any());
+    }
+
+    @Test
+    public void sharedDecoderDecodesPayloadOnceTest() {
+        SharedMessageDecoder decoder = new SharedMessageDecoder();
+        byte[] payload = "{\"temperature\":21.5}".getBytes();
+
+        DecodedMessage first = decoder.decode("state", payload);
+        DecodedMessage second = decoder.decode("state", payload.clone());
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(decoder.decode("state", "{}".getBytes()), is(not(sameInstance(first))));
+        assertThat(decoder.decode("other", payload), is(not(sameInstance(first))));
+    }
 }
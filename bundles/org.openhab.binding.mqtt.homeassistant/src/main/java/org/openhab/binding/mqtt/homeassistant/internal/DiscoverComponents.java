@@ -14,6 +14,9 @@ package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -23,10 +26,10 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.discovery.TopicRouter;
 import org.openhab.binding.mqtt.generic.AvailabilityTracker;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
-import org.openhab.binding.mqtt.generic.utils.FutureCollector;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.thing.ThingUID;
@@ -136,20 +139,25 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         this.discoveredListener = componentsDiscoveredListener;
         this.connectionRef = new WeakReference<>(connection);
 
-        // Subscribe to the wildcard topic and start receive MQTT retained topics
-        this.topics.parallelStream().map(t -> connection.subscribe(t, this)).collect(FutureCollector.allOf())
-                .thenRun(this::subscribeSuccess).exceptionally(this::subscribeFail);
+        // Subscribe to the wildcard topic and start receive MQTT retained topics. All topics are subscribed in one
+        // batch, topics covered by another one share its subscription.
+        TopicRouter.of(connection).subscribe(subscriptions()).thenRun(this::subscribeSuccess)
+                .exceptionally(this::subscribeFail);
 
         return discoverFinishedFuture;
     }
 
+    private List<Entry<String, DiscoverComponents>> subscriptions() {
+        return topics.stream().map(topic -> Map.entry(topic, this)).collect(Collectors.toList());
+    }
+
     private void subscribeSuccess() {
         final MqttBrokerConnection connection = connectionRef.get();
         // Set up a scheduled future that will stop the discovery after the given time
         if (connection != null && discoverTime > 0) {
             this.stopDiscoveryFuture = scheduler.schedule(() -> {
                 this.stopDiscoveryFuture = null;
-                this.topics.parallelStream().forEach(t -> connection.unsubscribe(t, this));
+                TopicRouter.of(connection).unsubscribe(subscriptions());
                 this.discoveredListener = null;
                 discoverFinishedFuture.complete(null);
             }, discoverTime, TimeUnit.MILLISECONDS);
@@ -168,7 +176,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         this.discoveredListener = null;
         final MqttBrokerConnection connection = connectionRef.get();
         if (connection != null) {
-            this.topics.parallelStream().forEach(t -> connection.unsubscribe(t, this));
+            TopicRouter.of(connection).unsubscribe(subscriptions());
             connectionRef.clear();
         }
         discoverFinishedFuture.completeExceptionally(e);
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.discovery;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Routes the messages of a broker connection to subscribers, subscribing a batch of topic filters with as few broker
+ * subscriptions as possible.
+ *
+ * The topic filters of a batch, see {@link #subscribe(Collection)}, are subscribed together: a filter covered by
+ * another filter of the same batch doesn't get a broker subscription of its own, its messages are delivered through
+ * the covering subscription. As the covering subscription is new, the broker sends its retained messages, including
+ * those of the covered filters. The subscriptions of a batch are all requested before any of them is waited for.
+ *
+ * A filter subscribed later always gets a subscription of its own, even if an existing subscription covers it, so
+ * that the broker sends it the retained messages of its topics.
+ *
+ * If the filter of a subscription is unsubscribed while filters it covers remain, the remaining filters are subscribed
+ * again as a batch.
+ *
+ * There is one router per broker connection, see {@link #of(MqttBrokerConnection)}. This class is thread safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicRouter {
+    private static final Map<MqttBrokerConnection, TopicRouter> ROUTERS = new WeakHashMap<>();
+
+    private final WeakReference<MqttBrokerConnection> connectionRef;
+    // Registration -> broker subscription that delivers its messages
+    private final Map<Registration, Route> routes = new HashMap<>();
+
+    private TopicRouter(MqttBrokerConnection connection) {
+        this.connectionRef = new WeakReference<>(connection);
+    }
+
+    /**
+     * Returns the router of the given connection.
+     */
+    public static TopicRouter of(MqttBrokerConnection connection) {
+        synchronized (ROUTERS) {
+            return ROUTERS.computeIfAbsent(connection, TopicRouter::new);
+        }
+    }
+
+    /**
+     * Subscribes to a topic filter.
+     *
+     * @param filter A topic filter, wildcards supported
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> subscribe(String filter, MqttMessageSubscriber subscriber) {
+        return subscribe(List.of(Map.entry(filter, subscriber)));
+    }
+
+    /**
+     * Subscribes to a batch of topic filters.
+     *
+     * @param subscriptions Topic filters, wildcards supported, and their subscribers
+     * @return Completes with true if all subscriptions were successful, with false if one was not. Exceptionally if
+     *         one failed. The topic filters of failed subscriptions are not registered anymore.
+     */
+    public CompletableFuture<Boolean> subscribe(
+            Collection<? extends Entry<String, ? extends MqttMessageSubscriber>> subscriptions) {
+        final MqttBrokerConnection connection = connectionRef.get();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        final List<Registration> batch = new ArrayList<>();
+        synchronized (this) {
+            for (Entry<String, ? extends MqttMessageSubscriber> subscription : subscriptions) {
+                Registration registration = new Registration(subscription.getKey(), subscription.getValue());
+                if (!routes.containsKey(registration) && !batch.contains(registration)) {
+                    batch.add(registration);
+                }
+            }
+            return subscribeRoutes(connection, batch);
+        }
+    }
+
+    /**
+     * Unsubscribes from a topic filter.
+     *
+     * @param filter A topic filter, as given to {@link #subscribe(String, MqttMessageSubscriber)}
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String filter, MqttMessageSubscriber subscriber) {
+        return unsubscribe(List.of(Map.entry(filter, subscriber)));
+    }
+
+    /**
+     * Unsubscribes from a batch of topic filters.
+     *
+     * Filters that were delivered through the subscription of an unsubscribed filter are subscribed again. The
+     * returned future includes the results of these subscriptions.
+     *
+     * @param subscriptions Topic filters and subscribers, as given to {@link #subscribe(Collection)}
+     * @return Completes with true if successful. Exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> unsubscribe(
+            Collection<? extends Entry<String, ? extends MqttMessageSubscriber>> subscriptions) {
+        final MqttBrokerConnection connection = connectionRef.get();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        synchronized (this) {
+            final Set<Route> changed = new LinkedHashSet<>();
+            for (Entry<String, ? extends MqttMessageSubscriber> subscription : subscriptions) {
+                Registration registration = new Registration(subscription.getKey(), subscription.getValue());
+                Route route = routes.remove(registration);
+                if (route != null) {
+                    route.remove(registration);
+                    changed.add(route);
+                }
+            }
+            final List<Registration> rerouted = new ArrayList<>();
+            for (Route route : changed) {
+                if (route.hasOwnRegistration()) {
+                    // the subscription is still needed for its own topic filter
+                    continue;
+                }
+                // Topic filters delivered by this subscription need another one now
+                for (Registration other : route.clear()) {
+                    routes.remove(other);
+                    rerouted.add(other);
+                }
+                if (connection != null) {
+                    futures.add(connection.unsubscribe(route.filter, route));
+                }
+            }
+            if (connection != null && !rerouted.isEmpty()) {
+                futures.add(subscribeRoutes(connection, rerouted));
+            }
+        }
+        return allOf(futures);
+    }
+
+    /**
+     * Subscribes the given registrations, sharing a broker subscription where one filter covers another.
+     */
+    private CompletableFuture<Boolean> subscribeRoutes(MqttBrokerConnection connection, List<Registration> batch) {
+        final List<Route> newRoutes = new ArrayList<>();
+        for (Registration registration : batch) {
+            if (isCoveredByOther(registration.filter, batch)) {
+                continue;
+            }
+            if (newRoutes.stream().noneMatch(route -> route.filter.equals(registration.filter))) {
+                newRoutes.add(new Route(registration.filter));
+            }
+        }
+        for (Registration registration : batch) {
+            for (Route route : newRoutes) {
+                if (TopicTrie.covers(route.filter, registration.filter)) {
+                    route.add(registration);
+                    routes.put(registration, route);
+                    break;
+                }
+            }
+        }
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (Route route : newRoutes) {
+            futures.add(connection.subscribe(route.filter, route).whenComplete((result, ex) -> {
+                if (ex != null || !Boolean.TRUE.equals(result)) {
+                    removeRoute(route);
+                }
+            }));
+        }
+        return allOf(futures);
+    }
+
+    private static boolean isCoveredByOther(String filter, List<Registration> batch) {
+        return batch.stream().anyMatch(
+                other -> TopicTrie.covers(other.filter, filter) && !TopicTrie.covers(filter, other.filter));
+    }
+
+    /**
+     * Forgets a broker subscription that failed, and the registrations delivered through it.
+     */
+    private synchronized void removeRoute(Route route) {
+        route.clear().forEach(registration -> routes.remove(registration, route));
+    }
+
+    private static CompletableFuture<Boolean> allOf(List<CompletableFuture<Boolean>> futures) {
+        if (futures.size() == 1) {
+            return futures.get(0);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(v -> futures.stream().allMatch(future -> Boolean.TRUE.equals(future.join())));
+    }
+
+    /**
+     * A subscriber, registered for a topic filter.
+     */
+    private static class Registration {
+        final String filter;
+        final MqttMessageSubscriber subscriber;
+
+        Registration(String filter, MqttMessageSubscriber subscriber) {
+            this.filter = filter;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Registration)) {
+                return false;
+            }
+            Registration other = (Registration) obj;
+            return filter.equals(other.filter) && subscriber.equals(other.subscriber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, subscriber);
+        }
+    }
+
+    /**
+     * Broker subscription of a topic filter. Delivers the messages to the registrations routed through it, which are
+     * indexed by their own filters.
+     */
+    private class Route implements MqttMessageSubscriber {
+        final String filter;
+        // guarded by the router
+        private final List<Registration> registrations = new ArrayList<>();
+        private final TopicTrie<Registration> index = new TopicTrie<>();
+
+        Route(String filter) {
+            this.filter = filter;
+        }
+
+        void add(Registration registration) {
+            registrations.add(registration);
+            index.add(registration.filter, registration);
+        }
+
+        void remove(Registration registration) {
+            registrations.remove(registration);
+            index.remove(registration.filter, registration);
+        }
+
+        /**
+         * Stops delivering messages to the registrations of this route.
+         *
+         * @return The registrations that were routed through this route
+         */
+        List<Registration> clear() {
+            List<Registration> removed = new ArrayList<>(registrations);
+            removed.forEach(this::remove);
+            return removed;
+        }
+
+        boolean hasOwnRegistration() {
+            return !index.get(filter).isEmpty();
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            for (Registration registration : index.match(topic)) {
+                registration.subscriber.processMessage(topic, payload);
+            }
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.openhab.core.thing.ThingUID;
  * Represents a MQTT subscription for one specific topic. This is an immutable class.
  *
  * @author David Graeff - Initial contribution
+ * @deprecated The broker handler subscribes discovery topics through the {@link TopicRouter} of the connection, which
+ *             shares subscriptions between topics subscribed together. Use it instead.
  */
+@Deprecated
 @NonNullByDefault
 public class TopicSubscribe implements MqttMessageSubscriber {
     final @Nullable MqttBrokerConnection connection;
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Indexes values by MQTT topic filter and finds all values whose filter matches a topic.
+ *
+ * Each level of a filter is a node of the trie, the wildcards "+" and "#" are nodes as well. Finding the values for a
+ * topic follows the levels of the topic, so it takes time proportional to the depth of the topic and not to the number
+ * of filters. As in the MQTT specification, wildcards on the first level don't match topics starting with "$".
+ *
+ * This class is thread safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static final String SINGLE_LEVEL = "+";
+    private static final String MULTI_LEVEL = "#";
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final Set<T> values = new LinkedHashSet<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    /**
+     * Adds a value for the given topic filter.
+     *
+     * @param filter A topic filter, wildcards supported
+     * @param value The value
+     * @return Returns false if the value was already registered for this filter
+     */
+    public synchronized boolean add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        if (node.values.add(value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a value from the given topic filter.
+     *
+     * @param filter A topic filter, as given to {@link #add(String, Object)}
+     * @param value The value
+     * @return Returns false if the value wasn't registered for this filter
+     */
+    public synchronized boolean remove(String filter, T value) {
+        return remove(root, filter.split("/", -1), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            if (!node.values.remove(value)) {
+                return false;
+            }
+            size--;
+            return true;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null || !remove(child, levels, index + 1, value)) {
+            return false;
+        }
+        if (child.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values registered for exactly the given topic filter.
+     *
+     * @param filter A topic filter, wildcards are not expanded
+     */
+    public synchronized Set<T> get(String filter) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return Collections.emptySet();
+            }
+        }
+        return new LinkedHashSet<>(node.values);
+    }
+
+    /**
+     * Returns the values of all topic filters matching the given topic.
+     *
+     * @param topic A topic without wildcards, as received from the broker
+     */
+    public synchronized List<T> match(String topic) {
+        List<T> result = new ArrayList<>();
+        String[] levels = topic.split("/", -1);
+        match(root, levels, 0, !topic.startsWith("$"), result);
+        return result;
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcards, List<T> result) {
+        if (wildcards) {
+            // "a/#" matches "a" as well as everything below it
+            Node<T> multi = node.children.get(MULTI_LEVEL);
+            if (multi != null) {
+                result.addAll(multi.values);
+            }
+        }
+        if (index == levels.length) {
+            result.addAll(node.values);
+            return;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, result);
+        }
+        if (wildcards) {
+            Node<T> single = node.children.get(SINGLE_LEVEL);
+            if (single != null) {
+                match(single, levels, index + 1, true, result);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of registered values.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if every topic matched by the topic filter {@code other} is matched by {@code filter} as well.
+     *
+     * @param filter A topic filter
+     * @param other Another topic filter
+     */
+    public static boolean covers(String filter, String other) {
+        String[] levels = filter.split("/", -1);
+        String[] otherLevels = other.split("/", -1);
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (MULTI_LEVEL.equals(level)) {
+                return i > 0 || !other.startsWith("$");
+            }
+            if (i >= otherLevels.length) {
+                return false;
+            }
+            String otherLevel = otherLevels[i];
+            if (SINGLE_LEVEL.equals(level)) {
+                if (MULTI_LEVEL.equals(otherLevel) || (i == 0 && otherLevel.startsWith("$"))) {
+                    return false;
+                }
+            } else if (!level.equals(otherLevel)) {
+                return false;
+            }
+        }
+        return levels.length == otherLevels.length;
+    }
+}
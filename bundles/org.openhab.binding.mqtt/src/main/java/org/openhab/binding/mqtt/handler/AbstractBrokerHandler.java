@@ -15,18 +15,25 @@ package org.openhab.binding.mqtt.handler;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryParticipant;
-import org.openhab.binding.mqtt.discovery.TopicSubscribe;
+import org.openhab.binding.mqtt.discovery.TopicRouter;
 import org.openhab.binding.mqtt.internal.action.MQTTActions;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttConnectionObserver;
 import org.openhab.core.io.transport.mqtt.MqttConnectionState;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.io.transport.mqtt.MqttService;
 import org.openhab.core.thing.*;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
@@ -48,7 +55,11 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
     private final Logger logger = LoggerFactory.getLogger(AbstractBrokerHandler.class);
 
     final Map<ChannelUID, PublishTriggerChannel> channelStateByChannelUID = new HashMap<>();
-    private final Map<String, @Nullable Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe>> discoveryTopics = new HashMap<>();
+
+    private final Object discoveryLock = new Object();
+    private final Set<DiscoveryListener> discoveryListeners = new LinkedHashSet<>();
+    // Connection the discovery topics are subscribed on, null while discovery is stopped
+    private volatile @Nullable MqttBrokerConnection discoveryConnection;
 
     protected @Nullable MqttBrokerConnection connection;
     protected CompletableFuture<MqttBrokerConnection> connectionFuture = new CompletableFuture<>();
@@ -116,28 +127,9 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         });
         connectionFuture.complete(connection);
 
-        discoveryTopics.forEach((topic, listenerMap) -> {
-            listenerMap.replaceAll((listener, oldTopicSubscribe) -> {
-                if (oldTopicSubscribe.isStarted()) {
-                    oldTopicSubscribe.stop();
-                }
-
-                TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
-                if (discoveryEnabled()) {
-                    topicSubscribe.start().handle((result, ex) -> {
-                        if (ex != null) {
-                            logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
-                                    thing.getUID());
-                        } else {
-                            logger.trace("Subscribed {} to discovery topic {} on broker {}", listener, topic,
-                                    thing.getUID());
-                        }
-                        return null;
-                    });
-                }
-                return topicSubscribe;
-            });
-        });
+        if (discoveryEnabled()) {
+            startDiscoverySubscriptions(connection);
+        }
     }
 
     @Override
@@ -169,11 +161,7 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         channelStateByChannelUID.clear();
 
         // keep topics, but stop subscriptions
-        discoveryTopics.forEach((topic, listenerMap) -> {
-            listenerMap.forEach((listener, topicSubscribe) -> {
-                topicSubscribe.stop();
-            });
-        });
+        stopDiscoverySubscriptions();
 
         if (connection != null) {
             connection.removeConnectionObserver(this);
@@ -193,61 +181,135 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
      * @param topic the topic (wildcards supported)
      */
     public final void registerDiscoveryListener(MQTTTopicDiscoveryParticipant listener, String topic) {
-        Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe> topicListeners = discoveryTopics
-                .computeIfAbsent(topic, t -> new HashMap<>());
-        topicListeners.compute(listener, (k, v) -> {
-            if (v != null) {
+        final DiscoveryListener discoveryListener = new DiscoveryListener(topic, listener);
+        synchronized (discoveryLock) {
+            if (!discoveryListeners.add(discoveryListener)) {
                 logger.warn("Duplicate subscription for {} to discovery topic {} on broker {}. Check discovery logic!",
                         listener, topic, thing.getUID());
-                v.stop();
+                return;
             }
-
-            TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
-            if (discoveryEnabled()) {
-                topicSubscribe.start().handle((result, ex) -> {
-                    if (ex != null) {
-                        logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
-                                thing.getUID());
-                    } else {
-                        logger.trace("Subscribed {} to discovery topic {} on broker {}", listener, topic,
-                                thing.getUID());
-                    }
-                    return null;
-                });
+            final MqttBrokerConnection connection = discoveryConnection;
+            if (connection == null) {
+                return;
             }
-            return topicSubscribe;
-        });
+            // A topic registered on its own gets its own subscription, so that the broker sends its retained messages
+            TopicRouter.of(connection).subscribe(topic, discoveryListener).handle((result, ex) -> {
+                if (ex != null) {
+                    logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
+                            thing.getUID());
+                } else {
+                    logger.trace("Subscribed {} to discovery topic {} on broker {}", listener, topic, thing.getUID());
+                }
+                return null;
+            });
+        }
     }
 
     /**
      * unregisters a discovery listener from a specified topic on this broker (used by the handler factory)
      *
-     * @param listener the discovery participant that wishes no notifications about this topic
+     * @param listener the discovery participant that wishes no longer to be notified about this topic
      * @param topic the topic (as specified during registration)
      */
     public final void unregisterDiscoveryListener(MQTTTopicDiscoveryParticipant listener, String topic) {
-        Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe> topicListeners = discoveryTopics.compute(topic,
-                (k, v) -> {
-                    if (v == null) {
-                        logger.warn(
-                                "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered at all. Check discovery logic!",
-                                listener, topic, thing.getUID());
-                        return null;
-                    }
-                    v.compute(listener, (l, w) -> {
-                        if (w == null) {
-                            logger.warn(
-                                    "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered for listener. Check discovery logic!",
-                                    listener, topic, thing.getUID());
-                        } else {
-                            w.stop();
-                            logger.trace("Unsubscribed {} from discovery topic {} on broker {}", listener, topic,
-                                    thing.getUID());
-                        }
-                        return null;
-                    });
-                    return v.isEmpty() ? null : v;
-                });
+        final DiscoveryListener discoveryListener = new DiscoveryListener(topic, listener);
+        synchronized (discoveryLock) {
+            if (!discoveryListeners.remove(discoveryListener)) {
+                logger.warn(
+                        "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered for listener. Check discovery logic!",
+                        listener, topic, thing.getUID());
+                return;
+            }
+            final MqttBrokerConnection connection = discoveryConnection;
+            if (connection != null) {
+                TopicRouter.of(connection).unsubscribe(topic, discoveryListener);
+            }
+        }
+        logger.trace("Unsubscribed {} from discovery topic {} on broker {}", listener, topic, thing.getUID());
+    }
+
+    /**
+     * Subscribes all discovery topics in one batch, so that topics covered by another discovery topic share its
+     * subscription.
+     */
+    private void startDiscoverySubscriptions(MqttBrokerConnection connection) {
+        final List<Entry<String, DiscoveryListener>> subscriptions;
+        final CompletableFuture<Boolean> future;
+        synchronized (discoveryLock) {
+            stopDiscoverySubscriptions();
+            discoveryConnection = connection;
+            subscriptions = discoverySubscriptions();
+            if (subscriptions.isEmpty()) {
+                return;
+            }
+            future = TopicRouter.of(connection).subscribe(subscriptions);
+        }
+        future.handle((result, ex) -> {
+            if (ex != null) {
+                logger.warn("Failed to subscribe to discovery topics on broker {}", thing.getUID(), ex);
+            } else {
+                logger.debug("Subscribed to {} discovery topics on broker {}", subscriptions.size(), thing.getUID());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Unsubscribes all discovery topics, but keeps the listeners.
+     */
+    private void stopDiscoverySubscriptions() {
+        synchronized (discoveryLock) {
+            final MqttBrokerConnection connection = discoveryConnection;
+            discoveryConnection = null;
+            if (connection != null) {
+                TopicRouter.of(connection).unsubscribe(discoverySubscriptions());
+            }
+        }
+    }
+
+    private List<Entry<String, DiscoveryListener>> discoverySubscriptions() {
+        return discoveryListeners.stream().map(listener -> Map.entry(listener.topic, listener))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A discovery participant, registered for a topic.
+     */
+    private class DiscoveryListener implements MqttMessageSubscriber {
+        final String topic;
+        final MQTTTopicDiscoveryParticipant participant;
+
+        DiscoveryListener(String topic, MQTTTopicDiscoveryParticipant participant) {
+            this.topic = topic;
+            this.participant = participant;
+        }
+
+        @Override
+        public void processMessage(String receivedTopic, byte[] payload) {
+            final MqttBrokerConnection connection = discoveryConnection;
+            if (connection == null) {
+                return;
+            }
+            if (payload.length > 0) {
+                participant.receivedMessage(thing.getUID(), connection, receivedTopic, payload);
+            } else {
+                participant.topicVanished(thing.getUID(), connection, receivedTopic);
+            }
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof DiscoveryListener)) {
+                return false;
+            }
+            DiscoveryListener other = (DiscoveryListener) obj;
+            return topic.equals(other.topic) && participant.equals(other.participant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topic, participant);
+        }
     }
 
     /**
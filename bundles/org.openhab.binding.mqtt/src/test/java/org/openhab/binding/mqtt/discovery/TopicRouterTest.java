@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.discovery;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Tests the {@link TopicRouter}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicRouterTest {
+    private static final byte[] PAYLOAD = "3.0".getBytes();
+
+    private MqttBrokerConnection connection;
+    private TopicRouter router;
+
+    @BeforeEach
+    public void setUp() {
+        connection = mock(MqttBrokerConnection.class);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        router = TopicRouter.of(connection);
+    }
+
+    private MqttMessageSubscriber subscribed(String filter) {
+        ArgumentCaptor<MqttMessageSubscriber> captor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection).subscribe(eq(filter), captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void sameRouterPerConnection() {
+        assertThat(TopicRouter.of(connection), is(sameInstance(router)));
+        assertThat(TopicRouter.of(mock(MqttBrokerConnection.class)), is(not(sameInstance(router))));
+    }
+
+    @Test
+    public void batchSharesSubscriptionOfCoveringFilter() {
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber covered = mock(MqttMessageSubscriber.class);
+        router.subscribe(List.of(Map.entry("homie/+/$homie", covered), Map.entry("homie/#", wildcard)));
+
+        verify(connection, never()).subscribe(eq("homie/+/$homie"), any());
+        subscribed("homie/#").processMessage("homie/device/$homie", PAYLOAD);
+        subscribed("homie/#").processMessage("homie/device/$name", PAYLOAD);
+
+        verify(wildcard).processMessage("homie/device/$homie", PAYLOAD);
+        verify(wildcard).processMessage("homie/device/$name", PAYLOAD);
+        verify(covered).processMessage("homie/device/$homie", PAYLOAD);
+        verify(covered, never()).processMessage(eq("homie/device/$name"), any());
+    }
+
+    @Test
+    public void laterFilterGetsOwnSubscription() {
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber late = mock(MqttMessageSubscriber.class);
+        router.subscribe("homie/#", wildcard);
+        router.subscribe("homie/+/$homie", late);
+
+        // The broker sends the retained messages of the new subscription, each subscriber gets a message once
+        subscribed("homie/#").processMessage("homie/device/$homie", PAYLOAD);
+        subscribed("homie/+/$homie").processMessage("homie/device/$homie", PAYLOAD);
+        verify(wildcard).processMessage("homie/device/$homie", PAYLOAD);
+        verify(late).processMessage("homie/device/$homie", PAYLOAD);
+    }
+
+    @Test
+    public void resubscribeCoveredFilterWhenCoveringFilterIsRemoved() {
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber covered = mock(MqttMessageSubscriber.class);
+        router.subscribe(List.of(Map.entry("homie/#", wildcard), Map.entry("homie/+/$homie", covered)));
+        MqttMessageSubscriber route = subscribed("homie/#");
+
+        assertThat(router.unsubscribe("homie/#", wildcard).join(), is(true));
+
+        verify(connection).unsubscribe("homie/#", route);
+        route.processMessage("homie/other/$homie", PAYLOAD);
+        verify(covered, never()).processMessage(any(), any());
+        subscribed("homie/+/$homie").processMessage("homie/other/$homie", PAYLOAD);
+        verify(covered).processMessage("homie/other/$homie", PAYLOAD);
+        verify(wildcard, never()).processMessage(any(), any());
+    }
+
+    @Test
+    public void failedResubscribeIsReported() {
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber covered = mock(MqttMessageSubscriber.class);
+        router.subscribe(List.of(Map.entry("homie/#", wildcard), Map.entry("homie/+/$homie", covered)));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("not connected"))).when(connection)
+                .subscribe(eq("homie/+/$homie"), any());
+
+        CompletableFuture<Boolean> future = router.unsubscribe("homie/#", wildcard);
+
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void failedSubscriptionIsForgotten() {
+        MqttMessageSubscriber wildcard = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber covered = mock(MqttMessageSubscriber.class);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("not connected"))).when(connection)
+                .subscribe(eq("homie/#"), any());
+
+        CompletableFuture<Boolean> future = router
+                .subscribe(List.of(Map.entry("homie/#", wildcard), Map.entry("homie/+/$homie", covered)));
+        assertThat(future.isCompletedExceptionally(), is(true));
+
+        // The covered filter isn't reported as subscribed, it gets a subscription of its own when subscribed again
+        assertThat(router.subscribe("homie/+/$homie", covered).join(), is(true));
+        subscribed("homie/+/$homie").processMessage("homie/device/$homie", PAYLOAD);
+        verify(covered).processMessage("homie/device/$homie", PAYLOAD);
+    }
+
+    @Test
+    public void unsubscribeWhenLastSubscriberLeaves() {
+        MqttMessageSubscriber first = mock(MqttMessageSubscriber.class);
+        MqttMessageSubscriber second = mock(MqttMessageSubscriber.class);
+        router.subscribe(List.of(Map.entry("state", first), Map.entry("state", second)));
+        MqttMessageSubscriber route = subscribed("state");
+
+        router.unsubscribe("state", first);
+        verify(connection, never()).unsubscribe(any(), any());
+        route.processMessage("state", PAYLOAD);
+        verify(first, never()).processMessage(any(), any());
+        verify(second).processMessage("state", PAYLOAD);
+
+        router.unsubscribe("state", second);
+        verify(connection).unsubscribe("state", route);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.discovery;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link TopicTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicTrieTest {
+
+    @Test
+    public void matchExactAndWildcards() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("homie/device/$name", "exact");
+        trie.add("homie/+/$name", "single");
+        trie.add("homie/#", "multi");
+        trie.add("#", "all");
+        trie.add("homeassistant/+/+/config", "other");
+
+        assertThat(trie.match("homie/device/$name"), containsInAnyOrder("exact", "single", "multi", "all"));
+        assertThat(trie.match("homie/other/$name"), containsInAnyOrder("single", "multi", "all"));
+        assertThat(trie.match("homie"), containsInAnyOrder("multi", "all"));
+        assertThat(trie.match("homeassistant/sensor/abc/config"), containsInAnyOrder("other", "all"));
+        assertThat(trie.match("homeassistant/sensor/node/abc/config"), containsInAnyOrder("all"));
+        assertThat(trie.size(), is(5));
+    }
+
+    @Test
+    public void wildcardsDontMatchSystemTopics() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("#", "all");
+        trie.add("+/info", "single");
+        trie.add("$SYS/#", "sys");
+
+        assertThat(trie.match("$SYS/info"), containsInAnyOrder("sys"));
+        assertThat(trie.match("device/info"), containsInAnyOrder("all", "single"));
+    }
+
+    @Test
+    public void addAndRemove() {
+        TopicTrie<String> trie = new TopicTrie<>();
+        assertThat(trie.add("a/+/c", "one"), is(true));
+        assertThat(trie.add("a/+/c", "one"), is(false));
+        assertThat(trie.add("a/+/c", "two"), is(true));
+        assertThat(trie.get("a/+/c"), containsInAnyOrder("one", "two"));
+        assertThat(trie.get("a/b/c").isEmpty(), is(true));
+
+        assertThat(trie.remove("a/+/c", "one"), is(true));
+        assertThat(trie.remove("a/+/c", "one"), is(false));
+        assertThat(trie.remove("a/b/c", "two"), is(false));
+        assertThat(trie.match("a/b/c"), containsInAnyOrder("two"));
+
+        assertThat(trie.remove("a/+/c", "two"), is(true));
+        assertThat(trie.match("a/b/c").isEmpty(), is(true));
+        assertThat(trie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void covers() {
+        assertThat(TopicTrie.covers("#", "homie/device/$name"), is(true));
+        assertThat(TopicTrie.covers("homie/#", "homie"), is(true));
+        assertThat(TopicTrie.covers("homie/#", "homie/+/$name"), is(true));
+        assertThat(TopicTrie.covers("homie/+/$name", "homie/device/$name"), is(true));
+        assertThat(TopicTrie.covers("homie/+/$name", "homie/#"), is(false));
+        assertThat(TopicTrie.covers("homie/device/$name", "homie/+/$name"), is(false));
+        assertThat(TopicTrie.covers("homie/+", "homie/device/$name"), is(false));
+        assertThat(TopicTrie.covers("#", "$SYS/info"), is(false));
+        assertThat(TopicTrie.covers("a/b", "a/b"), is(true));
+    }
+}
@@ -13,6 +13,7 @@
 package org.openhab.binding.mqtt.internal;
 
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -62,6 +63,9 @@ public class MQTTTopicDiscoveryServiceTest {
     @Mock
     MQTTTopicDiscoveryParticipant listener;
 
+    @Mock
+    MQTTTopicDiscoveryParticipant otherListener;
+
     private MqttBrokerConnectionEx connection;
 
     private BrokerHandler handler;
@@ -150,4 +154,30 @@ public class MQTTTopicDiscoveryServiceTest {
         connection.getSubscribers().get("topic").messageArrived("topic", bytes, false);
         verify(listener).topicVanished(eq(thing.getUID()), eq(connection), eq("topic"));
     }
+
+    @Test
+    public void coveredTopicSharesSubscription() {
+        subject.createdHandler(handler);
+        subject.subscribe(listener, "homie/#");
+        subject.subscribe(otherListener, "homie/+/$homie");
+
+        // Both topics are subscribed at once, the wildcard topic delivers the messages of both
+        handler.initialize();
+        assertThat(connection.getSubscribers().containsKey("homie/+/$homie"), is(false));
+
+        final byte[] bytes = "3.0".getBytes();
+        connection.getSubscribers().get("homie/#").messageArrived("homie/device/$homie", bytes, false);
+        verify(listener).receivedMessage(eq(thing.getUID()), eq(connection), eq("homie/device/$homie"), eq(bytes));
+        verify(otherListener).receivedMessage(eq(thing.getUID()), eq(connection), eq("homie/device/$homie"),
+                eq(bytes));
+
+        // The covered topic gets its own subscription when the wildcard topic goes away
+        subject.unsubscribe(listener);
+        assertThat(connection.getSubscribers().containsKey("homie/#"), is(false));
+        connection.getSubscribers().get("homie/+/$homie").messageArrived("homie/other/$homie", bytes, false);
+        verify(otherListener).receivedMessage(eq(thing.getUID()), eq(connection), eq("homie/other/$homie"),
+                eq(bytes));
+        verify(listener, never()).receivedMessage(eq(thing.getUID()), eq(connection), eq("homie/other/$homie"),
+                eq(bytes));
+    }
 }
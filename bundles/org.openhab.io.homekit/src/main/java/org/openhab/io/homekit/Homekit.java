@@ -49,6 +49,17 @@ public interface Homekit {
      */
     List<HomekitAccessory> getAccessories();
 
+    /**
+     * returns the number of characteristic change notifications sent to HomeKit clients.
+     */
+    long getSentEvents();
+
+    /**
+     * returns the number of item changes merged into a later notification because they arrived within the minimum
+     * event interval.
+     */
+    long getSuppressedEvents();
+
     /**
      * clear all pairings with HomeKit clients
      */
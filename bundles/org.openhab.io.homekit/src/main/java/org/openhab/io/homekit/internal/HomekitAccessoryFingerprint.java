@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.items.Item;
+import org.openhab.io.homekit.internal.accessories.HomekitAccessoryFactory;
+
+import io.github.hapjava.accessories.HomekitAccessory;
+import io.github.hapjava.characteristics.Characteristic;
+import io.github.hapjava.services.Service;
+
+/**
+ * Snapshot of a HomeKit accessory that allows to compare a rebuilt accessory with the one currently published.
+ *
+ * The structure covers everything a HomeKit controller caches for the accessory: the accessory id, the service types
+ * and the characteristic descriptions (type, format, permissions, limits) in the order HAP assigns instance ids.
+ * Current values are not part of it. The content additionally covers the openHAB items, labels and configuration the
+ * accessory was created from.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+final class HomekitAccessoryFingerprint {
+    private static final String VALUE = "value";
+
+    private final String structure;
+    private final String content;
+    private final List<Item> items = new ArrayList<>();
+
+    HomekitAccessoryFingerprint(HomekitAccessory accessory) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(accessory.getId());
+        for (Service service : accessory.getServices()) {
+            builder.append('|').append(service.getType());
+            int position = 0;
+            for (Characteristic characteristic : service.getCharacteristics()) {
+                builder.append(';');
+                appendCharacteristic(builder, characteristic, ++position);
+            }
+        }
+        structure = builder.toString();
+
+        builder.setLength(0);
+        for (HomekitTaggedItem taggedItem : HomekitAccessoryFactory.getTaggedItems(accessory)) {
+            final Item item = taggedItem.getItem();
+            items.add(item);
+            builder.append(item.getName()).append('|').append(item.getLabel()).append('|')
+                    .append(taggedItem.getAccessoryType()).append('|').append(taggedItem.getCharacteristicType())
+                    .append('|').append(taggedItem.getConfiguration()).append(';');
+        }
+        content = builder.toString();
+    }
+
+    private static void appendCharacteristic(StringBuilder builder, Characteristic characteristic, int position) {
+        try {
+            final JsonObject json = characteristic.toJson(position).join();
+            for (Entry<String, JsonValue> entry : json.entrySet()) {
+                if (!VALUE.equals(entry.getKey())) {
+                    builder.append(entry.getKey()).append('=').append(entry.getValue()).append(',');
+                }
+            }
+        } catch (RuntimeException e) {
+            // the description could not be rendered, e.g. because the item state is not available yet
+            builder.append(characteristic.getClass().getName());
+        }
+    }
+
+    /**
+     * @return true if a HomeKit controller would see the same services and characteristics for both accessories
+     */
+    boolean hasSameStructure(HomekitAccessoryFingerprint other) {
+        return structure.equals(other.structure);
+    }
+
+    /**
+     * @return true if both accessories were created from the very same item instances with the same configuration,
+     *         i.e. the published accessory can be kept as it is
+     */
+    boolean hasSameContent(HomekitAccessoryFingerprint other) {
+        if (!hasSameStructure(other) || !content.equals(other.content) || items.size() != other.items.size()) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) != other.items.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
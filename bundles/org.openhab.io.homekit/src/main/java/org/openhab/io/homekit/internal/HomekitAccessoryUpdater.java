@@ -12,10 +12,18 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.StateChangeListener;
@@ -31,17 +39,68 @@ import io.github.hapjava.characteristics.HomekitCharacteristicChangeCallback;
  * HomeKit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Item changes are coalesced before they are passed to HomeKit: a characteristic is notified at most once per
+ * minimum event interval. Changes within the interval are delayed until it has passed, and as HomeKit reads the
+ * current item state when notified, only the latest value is sent. Delayed notifications of the same accessory are
+ * sent together in one batch.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AccessoryBatch> batchesByAccessory = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private final AtomicLong sentEvents = new AtomicLong();
+    private final AtomicLong suppressedEvents = new AtomicLong();
+    private volatile long minimumEventInterval;
+
+    /**
+     * Sets the minimum time between two notifications of the same characteristic. 0 disables coalescing.
+     *
+     * @param interval minimum event interval in milliseconds
+     */
+    public void setMinimumEventInterval(int interval) {
+        minimumEventInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, interval));
+    }
+
+    /**
+     * Returns the number of change notifications passed to HomeKit.
+     */
+    public long getSentEvents() {
+        return sentEvents.get();
+    }
+
+    /**
+     * Returns the number of item changes merged into a later notification instead of being sent on their own.
+     */
+    public long getSuppressedEvents() {
+        return suppressedEvents.get();
+    }
+
+    /**
+     * Logs the number of notifications passed to HomeKit and of item changes merged into a later notification.
+     */
+    public void logStatistics() {
+        logger.debug("HomeKit change notifications: {} sent, {} merged into a later notification", sentEvents.get(),
+                suppressedEvents.get());
+    }
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
     }
 
+    public void subscribe(HomekitTaggedItem taggedItem, String key, HomekitCharacteristicChangeCallback callback) {
+        subscribe((GenericItem) taggedItem.getItem(), key, taggedItem.getAccessoryName(), callback);
+    }
+
     public void subscribe(GenericItem item, String key, HomekitCharacteristicChangeCallback callback) {
+        subscribe(item, key, item == null ? null : item.getName(), callback);
+    }
+
+    private void subscribe(GenericItem item, String key, String accessoryName,
+            HomekitCharacteristicChangeCallback callback) {
         logger.trace("Received subscription request for {} / {}", item, key);
         if (item == null) {
             return;
@@ -57,7 +116,7 @@ public class HomekitAccessoryUpdater {
                 unsubscribe(item, key);
             }
             logger.trace("Adding subscription for {} / {}", item, key);
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = new Subscription(acquireBatch(accessoryName), callback);
             item.addStateChangeListener(subscription);
             return subscription;
         });
@@ -74,21 +133,146 @@ public class HomekitAccessoryUpdater {
         subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
             logger.trace("Removing existing subscription for {} / {}", item, key);
             item.removeStateChangeListener(v);
+            v.batch.cancel(v);
+            releaseBatch(v.batch);
             return null;
         });
     }
 
-    @FunctionalInterface
+    private AccessoryBatch acquireBatch(String accessoryName) {
+        return batchesByAccessory.compute(accessoryName, (name, batch) -> {
+            AccessoryBatch result = batch != null ? batch : new AccessoryBatch(name);
+            result.subscriptions++;
+            return result;
+        });
+    }
+
+    private void releaseBatch(AccessoryBatch batch) {
+        batchesByAccessory.computeIfPresent(batch.accessoryName,
+                (name, current) -> current == batch && --current.subscriptions == 0 ? null : current);
+    }
+
+    /**
+     * Coalesces the changes of one characteristic.
+     */
     @NonNullByDefault
-    private interface Subscription extends StateChangeListener {
+    private class Subscription implements StateChangeListener {
+        private final AccessoryBatch batch;
+        private final HomekitCharacteristicChangeCallback callback;
+        // guarded by batch
+        private long lastSent;
+        private boolean pending;
+
+        Subscription(AccessoryBatch batch, HomekitCharacteristicChangeCallback callback) {
+            this.batch = batch;
+            this.callback = callback;
+            this.lastSent = System.nanoTime() - minimumEventInterval;
+        }
 
         @Override
-        void stateChanged(Item item, State oldState, State newState);
+        public void stateChanged(Item item, State oldState, State newState) {
+            if (batch.offer(this)) {
+                send();
+            }
+        }
 
         @Override
-        default void stateUpdated(Item item, State state) {
+        public void stateUpdated(Item item, State state) {
             // Do nothing on non-change update
         }
+
+        void send() {
+            sentEvents.incrementAndGet();
+            callback.changed();
+        }
+    }
+
+    /**
+     * Collects the delayed notifications of all characteristics of one accessory.
+     *
+     * A scheduled flush is never postponed: a characteristic that may not be notified again by then is queued for the
+     * flush after it.
+     */
+    @NonNullByDefault
+    private class AccessoryBatch {
+        private final String accessoryName;
+        // sent by the scheduled flush
+        private final List<Subscription> pending = new ArrayList<>();
+        // sent by the flush after the scheduled one
+        private final List<Subscription> next = new ArrayList<>();
+        private @Nullable ScheduledFuture<?> flushJob;
+        private long flushTime;
+        private long nextFlushTime;
+        // guarded by batchesByAccessory
+        private int subscriptions;
+
+        AccessoryBatch(String accessoryName) {
+            this.accessoryName = accessoryName;
+        }
+
+        /**
+         * Registers a change of the given characteristic.
+         *
+         * @return true if the change should be sent immediately, false if it has been queued or merged
+         */
+        synchronized boolean offer(Subscription subscription) {
+            final long interval = minimumEventInterval;
+            final long now = System.nanoTime();
+            if (subscription.pending) {
+                suppressedEvents.incrementAndGet();
+                return false;
+            }
+            final long due = subscription.lastSent + interval;
+            if (flushJob == null && due - now <= 0) {
+                subscription.lastSent = now;
+                return true;
+            }
+            subscription.pending = true;
+            if (flushJob == null) {
+                pending.add(subscription);
+                schedule(Math.max(due, now), now);
+            } else if (due - flushTime <= 0) {
+                pending.add(subscription);
+            } else {
+                nextFlushTime = (next.isEmpty() || due - nextFlushTime > 0) ? due : nextFlushTime;
+                next.add(subscription);
+            }
+            return false;
+        }
+
+        synchronized void cancel(Subscription subscription) {
+            if (subscription.pending) {
+                subscription.pending = false;
+                pending.remove(subscription);
+                next.remove(subscription);
+            }
+        }
+
+        private void schedule(long time, long now) {
+            flushTime = time;
+            flushJob = scheduler.schedule(this::flush, time - now, TimeUnit.NANOSECONDS);
+        }
+
+        private void flush() {
+            final List<Subscription> batch;
+            synchronized (this) {
+                final long now = System.nanoTime();
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                flushJob = null;
+                batch.forEach(subscription -> {
+                    subscription.pending = false;
+                    subscription.lastSent = now;
+                });
+                if (!next.isEmpty()) {
+                    pending.addAll(next);
+                    next.clear();
+                    schedule(Math.max(nextFlushTime, now), now);
+                }
+            }
+            logger.trace("Sending {} coalesced changes of accessory {}", batch.size(), accessoryName);
+            batch.forEach(Subscription::send);
+        }
     }
 
     private static class ItemKey {
@@ -15,6 +15,7 @@ package org.openhab.io.homekit.internal;
 import java.time.Clock;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -22,8 +23,11 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -79,12 +83,13 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         this.itemRegistry = itemRegistry;
         this.settings = settings;
         this.metadataRegistry = metadataRegistry;
+        updater.setMinimumEventInterval(settings.minimumEventInterval);
         storage = storageService.getStorage(HomekitAuthInfoImpl.STORAGE_KEY);
         this.applyUpdatesDebouncer = new Debouncer("update-homekit-devices", scheduler, Duration.ofMillis(1000),
                 Clock.systemUTC(), this::applyUpdates);
 
         itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getItems().forEach(this::createRootAccessories);
+        itemRegistry.getItems().forEach(item -> createRootAccessories(item, accessoryRegistry::addRootAccessory));
         initialiseRevision();
         logger.info("Created {} HomeKit items.", accessoryRegistry.getAllAccessories().size());
     }
@@ -165,17 +170,65 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         storage.put(ACCESSORY_COUNT, "" + lastAccessoryCount);
     }
 
+    /**
+     * Rebuilds all accessories marked dirty within the last debounce window and compares them with the published
+     * ones. Accessories created from the same items with the same configuration are kept untouched, so their instance
+     * ids and subscriptions stay as they are. A new configuration revision, which makes every controller download the
+     * whole accessory database again, is only created if accessories were added or removed or their services or
+     * characteristics changed.
+     */
     private synchronized void applyUpdates() {
-        logger.trace("apply updates");
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final Map<String, HomekitAccessory> rebuiltAccessories = new HashMap<>();
         for (final String name : pendingUpdates) {
-            accessoryRegistry.remove(name);
-            logger.trace(" add items {}", name);
-            getItemOptional(name).ifPresent(this::createRootAccessories);
+            logger.trace(" rebuild items {}", name);
+            getItemOptional(name).ifPresent(item -> createRootAccessories(item, rebuiltAccessories::put));
+        }
+        final Set<String> names = new HashSet<>(pendingUpdates);
+        names.addAll(rebuiltAccessories.keySet());
+        pendingUpdates.clear();
+
+        int unchanged = 0;
+        int replaced = 0;
+        int added = 0;
+        int removed = 0;
+        boolean structureChanged = false;
+        for (final String name : names) {
+            final @Nullable HomekitAccessory oldAccessory = accessoryRegistry.getAllAccessories().get(name);
+            final @Nullable HomekitAccessory newAccessory = rebuiltAccessories.get(name);
+            if (oldAccessory == null) {
+                if (newAccessory != null) {
+                    accessoryRegistry.addRootAccessory(name, newAccessory);
+                    added++;
+                    structureChanged = true;
+                }
+            } else if (newAccessory == null) {
+                accessoryRegistry.remove(name);
+                removed++;
+                structureChanged = true;
+            } else {
+                final HomekitAccessoryFingerprint oldFingerprint = new HomekitAccessoryFingerprint(oldAccessory);
+                final HomekitAccessoryFingerprint newFingerprint = new HomekitAccessoryFingerprint(newAccessory);
+                if (oldFingerprint.hasSameContent(newFingerprint)) {
+                    unchanged++;
+                } else {
+                    accessoryRegistry.remove(name);
+                    accessoryRegistry.addRootAccessory(name, newAccessory);
+                    replaced++;
+                    structureChanged |= !oldFingerprint.hasSameStructure(newFingerprint);
+                }
+            }
         }
-        if (!pendingUpdates.isEmpty()) {
+        if (structureChanged) {
             makeNewConfigurationRevision();
-            pendingUpdates.clear();
         }
+        logger.debug(
+                "Applied HomeKit updates in {} ms: {} unchanged, {} replaced, {} added, {} removed accessories, configuration revision {}{}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), unchanged, replaced, added, removed,
+                accessoryRegistry.getConfigurationRevision(), structureChanged ? " (new)" : "");
     }
 
     @Override
@@ -203,14 +256,21 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
         this.updater = updater;
+        updater.setMinimumEventInterval(settings.minimumEventInterval);
     }
 
     public void updateSettings(HomekitSettings settings) {
         this.settings = settings;
+        updater.setMinimumEventInterval(settings.minimumEventInterval);
     }
 
     public void stop() {
         this.itemRegistry.removeRegistryChangeListener(this);
+        updater.logStatistics();
+    }
+
+    public HomekitAccessoryUpdater getUpdater() {
+        return updater;
     }
 
     public Map<String, HomekitAccessory> getAccessories() {
@@ -245,8 +305,9 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
      * Switch light "Light" (gLight) {homekit="Lighting.OnState"}
      *
      * @param item openHAB item
+     * @param consumer receives the item name and the created accessory
      */
-    private void createRootAccessories(Item item) {
+    private void createRootAccessories(Item item, BiConsumer<String, HomekitAccessory> consumer) {
         final List<Entry<HomekitAccessoryType, HomekitCharacteristicType>> accessoryTypes = HomekitAccessoryFactory
                 .getAccessoryTypes(item, metadataRegistry);
         final List<GroupItem> groups = HomekitAccessoryFactory.getAccessoryGroups(item, itemRegistry, metadataRegistry);
@@ -255,13 +316,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
             logger.trace("Item {} is a HomeKit accessory of types {}", item.getName(), accessoryTypes);
             final HomekitOHItemProxy itemProxy = new HomekitOHItemProxy(item);
             accessoryTypes.forEach(rootAccessory -> createRootAccessory(new HomekitTaggedItem(itemProxy,
-                    rootAccessory.getKey(), HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry))));
+                    rootAccessory.getKey(), HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry)),
+                    consumer));
         }
     }
 
-    private void createRootAccessory(HomekitTaggedItem taggedItem) {
+    private void createRootAccessory(HomekitTaggedItem taggedItem, BiConsumer<String, HomekitAccessory> consumer) {
         try {
-            accessoryRegistry.addRootAccessory(taggedItem.getName(),
+            consumer.accept(taggedItem.getName(),
                     HomekitAccessoryFactory.create(taggedItem, metadataRegistry, updater, settings));
         } catch (HomekitException e) {
             logger.warn("Could not add device {}: {}", taggedItem.getItem().getUID(), e.getMessage());
@@ -38,6 +38,7 @@ public class HomekitCommandExtension extends AbstractConsoleCommandExtension {
     private static final String SUBCMD_LIST_ACCESSORIES = "list";
     private static final String SUBCMD_PRINT_ACCESSORY = "show";
     private static final String SUBCMD_ALLOW_UNAUTHENTICATED = "allowUnauthenticated";
+    private static final String SUBCMD_STATISTICS = "stats";
     @Deprecated
     private static final String LEGACY_SUBCMD_LIST_ACCESSORIES = "listAccessories";
     @Deprecated
@@ -88,6 +89,9 @@ public class HomekitCommandExtension extends AbstractConsoleCommandExtension {
                         console.println("Hey, you can use the shorter command 'homekit show <accessory_id|name>'");
                     }
                     break;
+                case SUBCMD_STATISTICS:
+                    printStatistics(console);
+                    break;
                 default:
                     console.println("Unknown command '" + subCommand + "'");
                     printUsage(console);
@@ -105,7 +109,8 @@ public class HomekitCommandExtension extends AbstractConsoleCommandExtension {
                         "print additional details of the accessories which partially match provided ID or name."),
                 buildCommandUsage(SUBCMD_CLEAR_PAIRINGS, "removes all pairings with HomeKit clients."),
                 buildCommandUsage(SUBCMD_ALLOW_UNAUTHENTICATED + " <boolean>",
-                        "enables or disables unauthenticated access to facilitate debugging"));
+                        "enables or disables unauthenticated access to facilitate debugging"),
+                buildCommandUsage(SUBCMD_STATISTICS, "print the number of sent and merged change notifications"));
     }
 
     @Reference
@@ -123,6 +128,11 @@ public class HomekitCommandExtension extends AbstractConsoleCommandExtension {
         console.println((allow ? "Enabled " : "Disabled ") + "unauthenticated HomeKit access");
     }
 
+    private void printStatistics(Console console) {
+        console.println("Change notifications sent: " + homekit.getSentEvents());
+        console.println("Changes merged into a later notification: " + homekit.getSuppressedEvents());
+    }
+
     private void listAccessories(Console console) {
         homekit.getAccessories().forEach(v -> {
             try {
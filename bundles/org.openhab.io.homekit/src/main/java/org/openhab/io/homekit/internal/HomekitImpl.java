@@ -199,6 +199,16 @@ public class HomekitImpl implements Homekit {
         return new ArrayList<>(this.changeListener.getAccessories().values());
     }
 
+    @Override
+    public long getSentEvents() {
+        return changeListener.getUpdater().getSentEvents();
+    }
+
+    @Override
+    public long getSuppressedEvents() {
+        return changeListener.getUpdater().getSuppressedEvents();
+    }
+
     @Override
     public void clearHomekitPairings() {
         try {
@@ -181,6 +181,15 @@ public class HomekitTaggedItem {
         return parentGroupItem != null;
     }
 
+    /**
+     * Returns the name of the item the HomeKit accessory is defined by, i.e. the accessory group for group members and
+     * the item itself otherwise.
+     */
+    public String getAccessoryName() {
+        final @Nullable GroupItem parentGroupItem = this.parentGroupItem;
+        return parentGroupItem != null ? parentGroupItem.getName() : getName();
+    }
+
     /**
      * return object from item configuration for given key or default if not found
      * 
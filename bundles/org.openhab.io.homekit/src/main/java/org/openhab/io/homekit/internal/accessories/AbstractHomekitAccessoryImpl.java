@@ -16,6 +16,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -113,6 +114,10 @@ abstract class AbstractHomekitAccessoryImpl implements HomekitAccessory {
         return accessory;
     }
 
+    public List<HomekitTaggedItem> getCharacteristics() {
+        return Collections.unmodifiableList(characteristics);
+    }
+
     public Collection<Service> getServices() {
         return this.services;
     }
@@ -130,7 +135,7 @@ abstract class AbstractHomekitAccessoryImpl implements HomekitAccessory {
             HomekitCharacteristicChangeCallback callback) {
         final Optional<HomekitTaggedItem> characteristic = getCharacteristic(characteristicType);
         if (characteristic.isPresent()) {
-            getUpdater().subscribe((GenericItem) characteristic.get().getItem(), characteristicType.getTag(), callback);
+            getUpdater().subscribe(characteristic.get(), characteristicType.getTag(), callback);
         } else {
             logger.warn("Missing mandatory characteristic {}", characteristicType);
         }
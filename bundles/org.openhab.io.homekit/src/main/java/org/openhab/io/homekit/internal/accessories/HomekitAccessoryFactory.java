@@ -269,6 +269,24 @@ public class HomekitAccessoryFactory {
         }).filter(groupItem -> !getAccessoryTypes(groupItem, metadataRegistry).isEmpty()).collect(Collectors.toList());
     }
 
+    /**
+     * return the tagged items an accessory was created from, i.e. the root accessory item followed by all its
+     * characteristic items. Returns an empty list for accessories not created by this factory.
+     * 
+     * @param accessory HomeKit accessory
+     * @return list of tagged items
+     */
+    public static List<HomekitTaggedItem> getTaggedItems(HomekitAccessory accessory) {
+        if (!(accessory instanceof AbstractHomekitAccessoryImpl)) {
+            return Collections.emptyList();
+        }
+        final AbstractHomekitAccessoryImpl accessoryImpl = (AbstractHomekitAccessoryImpl) accessory;
+        final List<HomekitTaggedItem> taggedItems = new ArrayList<>();
+        taggedItems.add(accessoryImpl.getRootAccessory());
+        taggedItems.addAll(accessoryImpl.getCharacteristics());
+        return taggedItems;
+    }
+
     /**
      * collect all mandatory characteristics for a given tagged item, e.g. collect all mandatory HomeKit items from a
      * GroupItem
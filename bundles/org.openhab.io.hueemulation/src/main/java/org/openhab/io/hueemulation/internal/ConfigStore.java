@@ -19,6 +19,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -98,6 +99,14 @@ public class ConfigStore {
             .registerTypeAdapter(HueSuccessResponseStateChanged.class, new HueSuccessResponseStateChanged.Serializer())
             .registerTypeAdapter(HueGroupEntry.class, new HueGroupEntry.Serializer(this)).create();
 
+    /**
+     * Serialized {@link HueDataStore#lights}, {@link HueDataStore#groups} and single lights. Whoever changes an entry
+     * or the item state it is based on has to call {@link #invalidateLight(String)} or {@link #invalidateGroups()}.
+     */
+    private final JsonCache lightsJson = new JsonCache();
+    private final JsonCache groupsJson = new JsonCache();
+    private final Map<String, JsonCache> lightJson = new ConcurrentHashMap<>();
+
     @Reference
     protected @NonNullByDefault({}) ConfigurationAdmin configAdmin;
 
@@ -314,6 +323,67 @@ public class ConfigStore {
         return String.valueOf(hueId);
     }
 
+    /**
+     * Returns the serialized {@link HueDataStore#lights}.
+     */
+    public JsonCache.Entry getLightsJson() {
+        return lightsJson.get(() -> gson.toJson(ds.lights));
+    }
+
+    /**
+     * Returns the serialized {@link HueDataStore#groups}.
+     */
+    public JsonCache.Entry getGroupsJson() {
+        return groupsJson.get(() -> gson.toJson(ds.groups));
+    }
+
+    /**
+     * Returns the serialized light with the given hue ID or null if there is no such light.
+     */
+    public JsonCache.@Nullable Entry getLightJson(String hueID) {
+        final HueLightEntry light = ds.lights.get(hueID);
+        if (light == null) {
+            return null;
+        }
+        return lightJson.computeIfAbsent(hueID, id -> new JsonCache()).get(() -> gson.toJson(light));
+    }
+
+    /**
+     * Invalidates the serialized light with the given hue ID and the serialized lights collection.
+     */
+    public void invalidateLight(String hueID) {
+        final JsonCache cache = lightJson.get(hueID);
+        if (cache != null) {
+            cache.invalidate();
+        }
+        lightsJson.invalidate();
+    }
+
+    /**
+     * Drops the serialized light with the given hue ID, which has been removed, and invalidates the serialized lights
+     * collection.
+     */
+    public void removeLight(String hueID) {
+        lightJson.remove(hueID);
+        lightsJson.invalidate();
+    }
+
+    /**
+     * Invalidates the serialized groups collection.
+     */
+    public void invalidateGroups() {
+        groupsJson.invalidate();
+    }
+
+    /**
+     * Drops all serialized lights and invalidates the serialized collections, e.g. after {@link HueDataStore#resetGroupsAndLights()}.
+     */
+    public void invalidateLightsAndGroups() {
+        lightJson.clear();
+        lightsJson.invalidate();
+        groupsJson.invalidate();
+    }
+
     public boolean isReady() {
         return !discoveryIps.isEmpty();
     }
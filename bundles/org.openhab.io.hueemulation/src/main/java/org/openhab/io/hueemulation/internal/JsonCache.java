@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.util.HexUtils;
+
+/**
+ * Keeps the serialized JSON of a data store entry until it is invalidated.
+ * <p>
+ * Every invalidation increments a generation counter. A serialized value is only handed out as long as the
+ * generation it was created for is the current one, so a value that was created while the entry changed is
+ * never reused. The entity tag is the SHA-256 digest of the JSON, so different values don't share a tag.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JsonCache {
+    private final AtomicLong generation = new AtomicLong();
+    private volatile @Nullable Entry entry;
+
+    /**
+     * A serialized value together with its entity tag.
+     */
+    public static class Entry {
+        private final long generation;
+        public final String json;
+        public final EntityTag etag;
+
+        Entry(long generation, String json) {
+            this.generation = generation;
+            this.json = json;
+            this.etag = new EntityTag(digest(json));
+        }
+    }
+
+    private static String digest(String json) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexUtils.bytesToHex(digest.digest(json.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Marks the cached value as outdated.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns the cached value or serializes the entry again if it has been invalidated in the meantime.
+     *
+     * @param serializer Creates the JSON of the entry
+     */
+    public Entry get(Supplier<String> serializer) {
+        final long currentGeneration = generation.get();
+        Entry cached = entry;
+        if (cached == null || cached.generation != currentGeneration) {
+            cached = new Entry(currentGeneration, serializer.get());
+            entry = cached;
+        }
+        return cached;
+    }
+}
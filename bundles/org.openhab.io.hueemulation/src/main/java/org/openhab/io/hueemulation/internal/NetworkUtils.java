@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -116,6 +117,22 @@ public class NetworkUtils {
         return Response.status(httpCode).entity(str).build();
     }
 
+    /**
+     * Creates a json response from a cached value. Answers with "304 Not Modified" if the client already has the
+     * value, according to its "If-None-Match" header.
+     *
+     * @param request The request, to evaluate the preconditions
+     * @param entry The cached value
+     * @return
+     */
+    public static Response cachedJson(Request request, JsonCache.Entry entry) {
+        ResponseBuilder notModified = request.evaluatePreconditions(entry.etag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(entry.json).tag(entry.etag).build();
+    }
+
     public static Response singleSuccess(Gson gson, String message, String uriPart) {
         List<HueResponse> responses = new ArrayList<>();
         responses.add(new HueResponse(new HueSuccessGeneric(message, uriPart)));
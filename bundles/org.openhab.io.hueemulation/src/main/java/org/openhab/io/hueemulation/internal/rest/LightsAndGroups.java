@@ -27,6 +27,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -38,12 +39,15 @@ import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.StateChangeListener;
 import org.openhab.core.items.events.ItemEventFactory;
 import org.openhab.core.library.CoreItemFactory;
 import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.DeviceType;
 import org.openhab.io.hueemulation.internal.HueEmulationService;
+import org.openhab.io.hueemulation.internal.JsonCache;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
 import org.openhab.io.hueemulation.internal.StateUtils;
 import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
@@ -118,12 +122,29 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
     protected volatile @Nullable EventPublisher eventPublisher;
 
+    /**
+     * The light state is serialized from the item state, so a state change invalidates the serialized light.
+     */
+    private final StateChangeListener stateChangeListener = new StateChangeListener() {
+        @Override
+        public void stateChanged(Item item, State oldState, State newState) {
+            cs.invalidateLight(cs.mapItemUIDtoHueID(item));
+        }
+
+        @Override
+        public void stateUpdated(Item item, State state) {
+            // Do nothing on non-change update
+        }
+    };
+
     /**
      * Registers to the {@link ItemRegistry} and enumerates currently existing items.
      */
     @Activate
     protected void activate() {
+        removeStateChangeListeners();
         cs.ds.resetGroupsAndLights();
+        cs.invalidateLightsAndGroups();
 
         itemRegistry.removeRegistryChangeListener(this);
         itemRegistry.addRegistryChangeListener(this);
@@ -139,10 +160,19 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @Deactivate
     protected void deactivate() {
         itemRegistry.removeRegistryChangeListener(this);
+        removeStateChangeListeners();
+    }
+
+    private void removeStateChangeListeners() {
+        for (HueLightEntry light : cs.ds.lights.values()) {
+            light.item.removeStateChangeListener(stateChangeListener);
+        }
     }
 
     @Override
     public synchronized void added(Item newElement) {
+        // The item might be a member of a group
+        cs.invalidateGroups();
         if (!(newElement instanceof GenericItem)) {
             return;
         }
@@ -182,7 +212,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
         } else {
             HueLightEntry device = new HueLightEntry(element, cs.ds.config.uuid + "-" + hueID.toString(), deviceType);
             device.item = element;
-            cs.ds.lights.put(hueID, device);
+            element.addStateChangeListener(stateChangeListener);
+            HueLightEntry oldDevice = cs.ds.lights.put(hueID, device);
+            if (oldDevice != null && oldDevice.item != element) {
+                oldDevice.item.removeStateChangeListener(stateChangeListener);
+            }
+            cs.invalidateLight(hueID);
             updateGroup0();
         }
     }
@@ -199,8 +234,13 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     public synchronized void removed(Item element) {
         String hueID = cs.mapItemUIDtoHueID(element);
         logger.debug("Remove item {}", hueID);
-        cs.ds.lights.remove(hueID);
+        HueLightEntry hueDevice = cs.ds.lights.remove(hueID);
+        if (hueDevice != null) {
+            hueDevice.item.removeStateChangeListener(stateChangeListener);
+            cs.removeLight(hueID);
+        }
         cs.ds.groups.remove(hueID);
+        cs.invalidateGroups();
         updateGroup0();
     }
 
@@ -210,6 +250,8 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @SuppressWarnings({ "null", "unused" })
     @Override
     public synchronized void updated(Item oldElement, Item newElement) {
+        // Group members might have changed
+        cs.invalidateGroups();
         if (!(newElement instanceof GenericItem)) {
             return;
         }
@@ -241,18 +283,21 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
             return;
         }
 
+        hueDevice.item.removeStateChangeListener(stateChangeListener);
         hueDevice.updateItem(element);
+        element.addStateChangeListener(stateChangeListener);
+        cs.invalidateLight(hueID);
     }
 
     @GET
     @Path("{username}/lights")
     @Operation(summary = "Return all lights", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getAllLightsApi(@Context UriInfo uri,
+    public Response getAllLightsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @Parameter(description = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights)).build();
+        return NetworkUtils.cachedJson(request, cs.getLightsJson());
     }
 
     @GET
@@ -282,13 +327,17 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @GET
     @Path("{username}/lights/{id}")
     @Operation(summary = "Return a light", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getLightApi(@Context UriInfo uri, //
+    public Response getLightApi(@Context UriInfo uri, @Context Request request, //
             @PathParam("username") @Parameter(description = "username") String username,
             @PathParam("id") @Parameter(description = "light id") String id) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights.get(id))).build();
+        JsonCache.Entry light = cs.getLightJson(id);
+        if (light == null) {
+            return Response.ok(cs.gson.toJson(null)).build();
+        }
+        return NetworkUtils.cachedJson(request, light);
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -383,6 +432,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
             }
             hueDevice.lastCommand = command;
             hueDevice.lastHueChange = newState;
+            cs.invalidateLight(id);
         }
 
         return Response.ok(cs.gson.toJson(responses, new TypeToken<List<?>>() {
@@ -414,6 +464,7 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
 
         // First synchronize the internal state information with the framework
         hueDevice.action = StateUtils.colorStateFromItemState(groupItem.getState(), hueDevice.deviceType);
+        cs.invalidateGroups();
 
         List<HueResponse> responses = new ArrayList<>();
         Command command = StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/", hueDevice.action,
@@ -438,12 +489,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @GET
     @Path("{username}/groups")
     @Operation(summary = "Return all groups", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getAllGroupsApi(@Context UriInfo uri,
+    public Response getAllGroupsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @Parameter(description = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.groups)).build();
+        return NetworkUtils.cachedJson(request, cs.getGroupsJson());
     }
 
     @GET
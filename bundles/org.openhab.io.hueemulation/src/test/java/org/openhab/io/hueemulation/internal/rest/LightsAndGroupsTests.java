@@ -21,6 +21,8 @@ import static org.mockito.Mockito.verify;
 import java.io.IOException;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -335,6 +337,38 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void allLightsNotModified() {
+        SwitchItem item = new SwitchItem("switch1");
+        item.setLabel("labelOld");
+        item.addTag("Switchable");
+        itemRegistry.add(item);
+
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        EntityTag etag = response.getEntityTag();
+        assertThat(etag, notNullValue());
+        // SHA-256 digest of the body
+        assertThat(etag.getValue().length(), is(64));
+        assertThat(response.readEntity(String.class), containsString("labelOld"));
+
+        // Unchanged lights are not sent again
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(304, response.getStatus());
+
+        // An item update invalidates the cached lights
+        SwitchItem newitem = new SwitchItem("switch1");
+        newitem.setLabel("labelNew");
+        newitem.addTag("Switchable");
+        subject.updated(item, newitem);
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag.toString()).get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.readEntity(String.class), containsString("labelNew"));
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
@@ -101,6 +101,21 @@ public class BitArray implements Iterable<Boolean> {
         }
     }
 
+    /**
+     * Get a copy of consecutive bits
+     *
+     * @param index index of the first bit to copy
+     * @param length number of bits to copy
+     * @return bits index, index+1, ..., index+length-1
+     * @throws IndexOutOfBoundsException if the bits are not within this instance
+     */
+    public BitArray slice(int index, int length) {
+        if (index < 0 || length < 0 || index + length > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new BitArray(wrapped.get(index, index + length), length);
+    }
+
     /**
      * Get number of bits stored in this instance
      *
@@ -14,6 +14,7 @@ package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -99,70 +100,143 @@ public class ModbusBitUtilities {
      */
     public static Optional<DecimalType> extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
-        byte[] bytes = registers.getBytes();
+        ByteBuffer buffer = registers.asByteBuffer();
         switch (type) {
-            case BIT:
-                return Optional.of(new DecimalType(extractBit(bytes, index)));
-            case INT8: {
-                int registerIndex = index / 2;
-                boolean hiByte = index % 2 == 1;
-                return Optional.of(new DecimalType(extractSInt8(bytes, registerIndex, hiByte)));
-            }
-            case UINT8: {
-                int registerIndex = index / 2;
-                boolean hiByte = index % 2 == 1;
-                return Optional.of(new DecimalType(extractUInt8(bytes, registerIndex, hiByte)));
-            }
-            case INT16:
-                return Optional.of(new DecimalType(extractSInt16(bytes, index * 2)));
-            case UINT16:
-                return Optional.of(new DecimalType(extractUInt16(bytes, index * 2)));
-            case INT32:
-                return Optional.of(new DecimalType(extractSInt32(bytes, index * 2)));
-            case UINT32:
-                return Optional.of(new DecimalType(extractUInt32(bytes, index * 2)));
             case FLOAT32:
+            case FLOAT32_SWAP:
                 try {
-                    return Optional.of(new DecimalType(extractFloat32(bytes, index * 2)));
+                    return Optional.of(new DecimalType(extractFloatFromRegisters(buffer, index, type)));
                 } catch (NumberFormatException e) {
                     // floating point NaN or infinity encountered
                     return Optional.empty();
                 }
-            case INT64:
-                return Optional.of(new DecimalType(extractSInt64(bytes, index * 2)));
             case UINT64:
-                return Optional.of(new DecimalType(new BigDecimal(extractUInt64(bytes, index * 2))));
+            case UINT64_SWAP: {
+                long value = extractLongFromRegisters(buffer, index, type);
+                return Optional.of(new DecimalType(
+                        value >= 0 ? BigDecimal.valueOf(value) : new BigDecimal(Long.toUnsignedString(value))));
+            }
+            default:
+                return Optional.of(new DecimalType(extractLongFromRegisters(buffer, index, type)));
+        }
+    }
+
+    /**
+     * Read integer data from registers as primitive value
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ValueType)}, but no objects are allocated.
+     *
+     * Unsigned 64bit integers do not fit <tt>long</tt>. They are returned with the same bits, i.e. values larger than
+     * {@link Long#MAX_VALUE} are negative, see e.g. {@link Long#toUnsignedString(long)}.
+     *
+     * @param registers registers, see {@link ModbusRegisterArray#asByteBuffer()}. Index 0 refers to the beginning of
+     *            the buffer regardless of its position.
+     * @param index zero based item index
+     * @param type integer item type
+     * @return queried value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or <tt>type</tt> is not an
+     *             integer type
+     */
+    public static long extractLongFromRegisters(ByteBuffer registers, int index, ValueType type) {
+        int bytes = registers.limit();
+        switch (type) {
+            case BIT:
+                assertIndexAndType(bytes, index, type);
+                return (registers.getShort(index / 16 * 2) >>> (index % 16)) & 1;
+            case INT8:
+            case UINT8: {
+                int byteIndex = index / 2 * 2 + (index % 2 == 1 ? 0 : 1);
+                assertIndexAndType(bytes, byteIndex, type);
+                byte value = registers.get(byteIndex);
+                return type == ValueType.INT8 ? value : value & 0xff;
+            }
+            case INT16:
+                assertIndexAndType(bytes, index * 2, type);
+                return registers.getShort(index * 2);
+            case UINT16:
+                assertIndexAndType(bytes, index * 2, type);
+                return registers.getShort(index * 2) & 0xffff;
+            case INT32:
+                assertIndexAndType(bytes, index * 2, type);
+                return registers.getInt(index * 2);
+            case UINT32:
+                assertIndexAndType(bytes, index * 2, type);
+                return registers.getInt(index * 2) & 0xffff_ffffL;
             case INT32_SWAP:
-                return Optional.of(new DecimalType(extractSInt32Swap(bytes, index * 2)));
+                assertIndexAndType(bytes, index * 2, type);
+                return getInt32Swap(registers, index * 2);
             case UINT32_SWAP:
-                return Optional.of(new DecimalType(extractUInt32Swap(bytes, index * 2)));
-            case FLOAT32_SWAP:
-                try {
-                    return Optional.of(new DecimalType(extractFloat32Swap(bytes, index * 2)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
+                assertIndexAndType(bytes, index * 2, type);
+                return getInt32Swap(registers, index * 2) & 0xffff_ffffL;
+            case INT64:
+            case UINT64:
+                assertIndexAndType(bytes, index * 2, type);
+                return registers.getLong(index * 2);
             case INT64_SWAP:
-                return Optional.of(new DecimalType(extractSInt64Swap(bytes, index * 2)));
-            case UINT64_SWAP:
-                return Optional.of(new DecimalType(new BigDecimal(extractUInt64Swap(bytes, index * 2))));
+            case UINT64_SWAP: {
+                assertIndexAndType(bytes, index * 2, type);
+                // swapped order of registers, register with the highest index has the most significant bits
+                long value = 0;
+                for (int register = 3; register >= 0; register--) {
+                    value = (value << 16) | (registers.getShort(index * 2 + register * 2) & 0xffff);
+                }
+                return value;
+            }
             default:
                 throw new IllegalArgumentException(type.getConfigValue());
         }
     }
 
+    /**
+     * Read floating point data from registers as primitive value
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ValueType)}, but no objects are allocated.
+     *
+     * Note that this method can return floating point NaN and floating point infinity.
+     *
+     * @param registers registers, see {@link ModbusRegisterArray#asByteBuffer()}. Index 0 refers to the beginning of
+     *            the buffer regardless of its position.
+     * @param index zero based index of the first register
+     * @param type floating point item type
+     * @return queried value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or <tt>type</tt> is not a
+     *             floating point type
+     */
+    public static float extractFloatFromRegisters(ByteBuffer registers, int index, ValueType type) {
+        switch (type) {
+            case FLOAT32:
+                assertIndexAndType(registers.limit(), index * 2, type);
+                return registers.getFloat(index * 2);
+            case FLOAT32_SWAP:
+                assertIndexAndType(registers.limit(), index * 2, type);
+                return Float.intBitsToFloat(getInt32Swap(registers, index * 2));
+            default:
+                throw new IllegalArgumentException(type.getConfigValue());
+        }
+    }
+
+    private static int getInt32Swap(ByteBuffer registers, int byteIndex) {
+        // swapped order of registers, high 16 bits *follow* low 16 bits
+        return ((registers.getShort(byteIndex + 2) & 0xffff) << 16) | (registers.getShort(byteIndex) & 0xffff);
+    }
+
     private static void assertIndexAndType(byte[] bytes, int index, ValueType type) {
+        assertIndexAndType(bytes.length, index, type);
+    }
+
+    private static void assertIndexAndType(int byteLength, int index, ValueType type) {
         int typeBits = type.getBits();
         // for 8-bit types and larger, index specifies the index of the byte. For bits, index specifies the index of the
         // bit (of the whole data)
         int indexPositionAsBitIndex = Math.min(type.getBits(), 8) * index;
         int endBitIndex = indexPositionAsBitIndex + typeBits - 1;
-        int lastValidIndex = bytes.length * 8 - 1;
+        int lastValidIndex = byteLength * 8 - 1;
         if (endBitIndex > lastValidIndex || index < 0) {
             throw new IllegalArgumentException(
                     String.format("Index=%d with type=%s is out-of-bounds given registers of size %d ", index, type,
-                            bytes.length / 2));
+                            byteLength / 2));
         }
     }
 
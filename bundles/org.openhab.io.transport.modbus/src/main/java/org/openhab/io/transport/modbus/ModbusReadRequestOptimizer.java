@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Merges read requests to the same slave into fewer, larger read requests
+ *
+ * Requests with the same unit id and function code are merged when they overlap, are adjacent, or when the gap
+ * between them is at most the configured gap tolerance. The merged request never exceeds the maximum read count of
+ * the function code ({@link ModbusConstants#MAX_REGISTERS_READ_COUNT} or {@link ModbusConstants#MAX_BITS_READ_COUNT}).
+ *
+ * The result of a merged request can be sliced back to the results of the original requests using
+ * {@link MergedRead#slice(AsyncModbusReadResult, ModbusReadRequestBlueprint)}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusReadRequestOptimizer {
+
+    private static final Comparator<ModbusReadRequestBlueprint> REQUEST_ORDER = Comparator
+            .comparingInt(ModbusReadRequestBlueprint::getUnitID)
+            .thenComparing(ModbusReadRequestBlueprint::getFunctionCode)
+            .thenComparingInt(ModbusReadRequestBlueprint::getReference);
+
+    private final int maxGap;
+
+    /**
+     * Read request covering one or more original requests
+     *
+     * @author agent - Initial contribution
+     */
+    public static class MergedRead {
+        private final ModbusReadRequestBlueprint request;
+        private final List<ModbusReadRequestBlueprint> parts;
+
+        private MergedRead(ModbusReadRequestBlueprint request, List<ModbusReadRequestBlueprint> parts) {
+            this.request = request;
+            this.parts = Collections.unmodifiableList(parts);
+        }
+
+        /**
+         * Get the request to execute
+         *
+         * @return request covering all parts
+         */
+        public ModbusReadRequestBlueprint getRequest() {
+            return request;
+        }
+
+        /**
+         * Get the original requests covered by this read
+         *
+         * @return original requests, ordered by start address
+         */
+        public List<ModbusReadRequestBlueprint> getParts() {
+            return parts;
+        }
+
+        /**
+         * Extract the result of an original request from the result of the merged request
+         *
+         * @param result result of {@link #getRequest()}
+         * @param part one of {@link #getParts()}
+         * @return result with the registers or bits of the part, and the part as request
+         */
+        public AsyncModbusReadResult slice(AsyncModbusReadResult result, ModbusReadRequestBlueprint part) {
+            if (part == request) {
+                return result;
+            }
+            int offset = part.getReference() - request.getReference();
+            if (result.getRegisters().isPresent()) {
+                return new AsyncModbusReadResult(part,
+                        result.getRegisters().get().slice(offset, part.getDataLength()));
+            } else if (result.getBits().isPresent()) {
+                return new AsyncModbusReadResult(part, result.getBits().get().slice(offset, part.getDataLength()));
+            }
+            throw new IllegalArgumentException("Result has neither registers nor bits");
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder("MergedRead(request=").append(request).append(", parts=").append(parts.size())
+                    .append(')').toString();
+        }
+    }
+
+    /**
+     * Create optimizer with the given gap tolerance
+     *
+     * @param maxGap maximum number of registers or bits between two requests that are read although no request
+     *            asks for them. 0 merges only overlapping and adjacent requests.
+     */
+    public ModbusReadRequestOptimizer(int maxGap) {
+        if (maxGap < 0) {
+            throw new IllegalArgumentException("maxGap should be non-negative");
+        }
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Merge requests
+     *
+     * Each of the given requests is part of exactly one of the returned reads. A read covering a single request
+     * executes that very request.
+     *
+     * @param requests requests to merge
+     * @return reads covering all requests
+     */
+    public List<MergedRead> merge(Collection<ModbusReadRequestBlueprint> requests) {
+        List<ModbusReadRequestBlueprint> sorted = new ArrayList<>(requests);
+        sorted.sort(REQUEST_ORDER);
+
+        List<MergedRead> reads = new ArrayList<>();
+        List<ModbusReadRequestBlueprint> parts = new ArrayList<>();
+        int start = 0;
+        int end = 0;
+        for (ModbusReadRequestBlueprint request : sorted) {
+            int requestEnd = request.getReference() + request.getDataLength();
+            if (!parts.isEmpty()) {
+                ModbusReadRequestBlueprint first = parts.get(0);
+                int mergedEnd = Math.max(end, requestEnd);
+                if (first.getUnitID() == request.getUnitID() && first.getFunctionCode() == request.getFunctionCode()
+                        && request.getReference() <= end + maxGap
+                        && mergedEnd - start <= getMaxReadCount(request.getFunctionCode())) {
+                    parts.add(request);
+                    end = mergedEnd;
+                    continue;
+                }
+                reads.add(createRead(parts, start, end));
+                parts = new ArrayList<>();
+            }
+            parts.add(request);
+            start = request.getReference();
+            end = requestEnd;
+        }
+        if (!parts.isEmpty()) {
+            reads.add(createRead(parts, start, end));
+        }
+        return reads;
+    }
+
+    private static MergedRead createRead(List<ModbusReadRequestBlueprint> parts, int start, int end) {
+        ModbusReadRequestBlueprint first = parts.get(0);
+        if (parts.size() == 1) {
+            return new MergedRead(first, parts);
+        }
+        int maxTries = parts.stream().mapToInt(ModbusReadRequestBlueprint::getMaxTries).max().getAsInt();
+        return new MergedRead(new ModbusReadRequestBlueprint(first.getUnitID(), first.getFunctionCode(), start,
+                end - start, maxTries), parts);
+    }
+
+    private static int getMaxReadCount(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return ModbusConstants.MAX_BITS_READ_COUNT;
+            default:
+                return ModbusConstants.MAX_REGISTERS_READ_COUNT;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -79,6 +80,33 @@ public class ModbusRegisterArray {
         return bytes;
     }
 
+    /**
+     * Get a read-only view of the registers, without copying them
+     *
+     * The buffer is big-endian, index 0 being the hi-byte of the 1st register. Use the absolute get methods of the
+     * buffer to read registers, e.g. <code>getShort(2 * registerIndex)</code>.
+     *
+     * @return buffer backed by the registers of this instance
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Get a copy of consecutive registers
+     *
+     * @param index index of the first register to copy
+     * @param length number of registers to copy
+     * @return registers index, index+1, ..., index+length-1
+     * @throws IndexOutOfBoundsException if the registers are not within this instance
+     */
+    public ModbusRegisterArray slice(int index, int length) {
+        if (index < 0 || length < 0 || index + length > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new ModbusRegisterArray(Arrays.copyOfRange(bytes, index * 2, (index + length) * 2));
+    }
+
     /**
      * Get number of registers stored in this instance
      *
@@ -13,18 +13,33 @@
 package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import javax.imageio.IIOException;
 
@@ -37,12 +52,15 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.util.ConcurrentHashSet;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
 import org.openhab.io.transport.modbus.AsyncModbusWriteResult;
 import org.openhab.io.transport.modbus.ModbusCommunicationInterface;
 import org.openhab.io.transport.modbus.ModbusFailureCallback;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadRequestOptimizer;
+import org.openhab.io.transport.modbus.ModbusReadRequestOptimizer.MergedRead;
 import org.openhab.io.transport.modbus.ModbusResultCallback;
 import org.openhab.io.transport.modbus.ModbusWriteCallback;
 import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
@@ -56,9 +74,14 @@ import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
 import org.openhab.io.transport.modbus.exception.ModbusConnectionException;
+import org.openhab.io.transport.modbus.exception.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.exception.ModbusTransportException;
 import org.openhab.io.transport.modbus.exception.ModbusUnexpectedResponseFunctionCodeException;
 import org.openhab.io.transport.modbus.exception.ModbusUnexpectedResponseSizeException;
 import org.openhab.io.transport.modbus.exception.ModbusUnexpectedTransactionIdException;
+import org.openhab.io.transport.modbus.internal.nio.ModbusTcpFrameCodec;
+import org.openhab.io.transport.modbus.internal.nio.ModbusTcpFrameCodec.Frame;
+import org.openhab.io.transport.modbus.internal.nio.ModbusTcpPipelinedClient;
 import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -82,6 +105,13 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * important with serial slaves but practice has shown that even many tcp slaves have limited
  * capability to handle many connections at the same time
  *
+ * On top of that, all work of an endpoint is queued to its {@link EndpointScheduler}, which executes writes before
+ * polls and merges overdue regular polls.
+ *
+ * Optionally, TCP slaves can be accessed with {@link ModbusTcpPipelinedClient} instead, keeping several transactions in
+ * flight on a single connection without blocking threads of the pool. This is enabled with the
+ * <code>pipelinedTcp</code> configuration parameter of the manager.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @Component(service = ModbusManager.class, configurationPid = "transport.modbus")
@@ -122,6 +152,20 @@ public class ModbusManagerImpl implements ModbusManager {
                 ModbusUnexpectedResponseFunctionCodeException, ModbusUnexpectedResponseSizeException;
     }
 
+    @FunctionalInterface
+    private interface PipelinedOperation<T> {
+
+        /**
+         * Handle response of a pipelined transaction, i.e. decode it and call the result callback of the task
+         *
+         * @param timer aggregate stop watch for performance profiling
+         * @param task task the response belongs to
+         * @param frame response from the slave
+         * @throws ModbusTransportException on exception responses and responses not matching the request
+         */
+        public void accept(AggregateStopWatch timer, T task, Frame frame) throws ModbusTransportException;
+    }
+
     /**
      * Check that transaction id of the response and request match
      *
@@ -294,8 +338,44 @@ public class ModbusManagerImpl implements ModbusManager {
     private static final long WARN_QUEUE_SIZE = 500;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
+    /**
+     * Configuration parameter enabling {@link ModbusTcpPipelinedClient} with TCP slaves
+     */
+    static final String CONFIG_PIPELINED_TCP = "pipelinedTcp";
+
+    /**
+     * Configuration parameter for the maximum number of transactions in flight per TCP slave when pipelining
+     */
+    static final String CONFIG_MAX_TRANSACTIONS_IN_FLIGHT = "maxTransactionsInFlight";
+
+    private static final int DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT = 4;
+
+    /**
+     * Priorities of the jobs of {@link EndpointScheduler}, lower value is executed first
+     */
+    private static final int PRIORITY_WRITE = 0;
+    private static final int PRIORITY_ONE_OFF_POLL = 1;
+    private static final int PRIORITY_REGULAR_POLL = 2;
+
+    private static final Comparator<Job> JOB_ORDER = Comparator.<Job> comparingInt(job -> job.priority)
+            .thenComparingLong(job -> job.deadlineMillis).thenComparingLong(job -> job.sequence);
+
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
+    private final PipelinedOperation<PollTask> pipelinedPollOperation = (timer, task, frame) -> {
+        ModbusReadRequestBlueprint request = task.getRequest();
+        AsyncModbusReadResult result = ModbusTcpFrameCodec.toReadResult(request, frame);
+        timer.callback.timeRunnable(() -> {
+            logger.trace("Calling read response callback {} for request {}", task.getResultCallback(), request);
+            task.getResultCallback().handle(result);
+        });
+    };
+    private final PipelinedOperation<WriteTask> pipelinedWriteOperation = (timer, task, frame) -> {
+        ModbusWriteRequestBlueprint request = task.getRequest();
+        ModbusTcpFrameCodec.checkWriteResponse(request, frame);
+        timer.callback.timeRunnable(() -> invokeCallbackWithResponse(request, task.getResultCallback(),
+                new ModbusResponseImpl(frame.getFunctionCode())));
+    };
 
     private volatile long lastQueueMonitorLog = -1;
 
@@ -312,12 +392,21 @@ public class ModbusManagerImpl implements ModbusManager {
     private volatile @Nullable KeyedObjectPool<ModbusSlaveEndpoint, ModbusSlaveConnection> connectionPool;
     private volatile @Nullable ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Groups of regular polls executed as merged reads, see {@link PollGroup}. Guarded by this.
+     */
+    private final List<PollGroup> pollGroups = new ArrayList<>();
+    private final Map<PollTask, PollGroup> pollGroupsByTask = new ConcurrentHashMap<>();
     /**
      * Executor for requests
      */
     private volatile @Nullable ScheduledExecutorService scheduledThreadPoolExecutor;
     private volatile @Nullable ScheduledFuture<?> monitorFuture;
     private volatile Set<ModbusCommunicationInterfaceImpl> communicationInterfaces = new ConcurrentHashSet<>();
+    private volatile boolean pipelinedTcp;
+    private volatile int maxTransactionsInFlight = DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT;
+    private final Map<ModbusSlaveEndpoint, ModbusTcpPipelinedClient> pipelinedClients = new ConcurrentHashMap<>();
+    private final Map<ModbusSlaveEndpoint, EndpointScheduler> endpointSchedulers = new ConcurrentHashMap<>();
 
     private void constructConnectionPool() {
         ModbusSlaveConnectionFactoryImpl connectionFactory = new ModbusSlaveConnectionFactoryImpl();
@@ -521,10 +610,10 @@ public class ModbusManagerImpl implements ModbusManager {
      * @param task
      * @param oneOffTask
      * @param operation
+     * @param timer aggregate stop watch for performance profiling, not running
      */
     private <R, C extends ModbusResultCallback, F extends ModbusFailureCallback<R>, T extends TaskWithEndpoint<R, C, F>> void executeOperation(
-            T task, boolean oneOffTask, ModbusOperation<T> operation) {
-        AggregateStopWatch timer = new AggregateStopWatch();
+            T task, boolean oneOffTask, ModbusOperation<T> operation, AggregateStopWatch timer) {
         timer.total.resume();
         String operationId = timer.operationId;
 
@@ -722,6 +811,197 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Execute poll task, with the pipelined client if enabled for the endpoint
+     *
+     * @param task task to execute
+     * @param oneOffTask whether the task is a one-off task, i.e. not registered as regular poll
+     * @param timer aggregate stop watch for performance profiling, not running
+     * @return future completing when the task has been executed and callbacks called
+     */
+    private CompletableFuture<?> executePoll(PollTask task, boolean oneOffTask, AggregateStopWatch timer) {
+        ModbusTcpPipelinedClient client = getPipelinedClient(task.getEndpoint());
+        if (client == null) {
+            executeOperation(task, oneOffTask, pollOperation, timer);
+            return CompletableFuture.completedFuture(null);
+        }
+        ModbusReadRequestBlueprint request = task.getRequest();
+        return executePipelined(client, task, oneOffTask,
+                transactionId -> ModbusTcpFrameCodec.encode(transactionId, request), pipelinedPollOperation, timer);
+    }
+
+    /**
+     * Execute write task, with the pipelined client if enabled for the endpoint
+     *
+     * @param task task to execute
+     * @param timer aggregate stop watch for performance profiling, not running
+     * @return future completing when the task has been executed and callbacks called
+     */
+    private CompletableFuture<?> executeWrite(WriteTask task, AggregateStopWatch timer) {
+        ModbusTcpPipelinedClient client = getPipelinedClient(task.getEndpoint());
+        if (client == null) {
+            executeOperation(task, true, writeOperation, timer);
+            return CompletableFuture.completedFuture(null);
+        }
+        ModbusWriteRequestBlueprint request = task.getRequest();
+        return executePipelined(client, task, true, transactionId -> ModbusTcpFrameCodec.encode(transactionId, request),
+                pipelinedWriteOperation, timer);
+    }
+
+    private boolean isPipelined(ModbusSlaveEndpoint endpoint) {
+        return pipelinedTcp && endpoint instanceof ModbusTCPSlaveEndpoint;
+    }
+
+    /**
+     * Queue job to the scheduler of the endpoint, see {@link EndpointScheduler#submit}
+     */
+    private CompletableFuture<?> submitJob(ModbusSlaveEndpoint endpoint, @Nullable Object key, int priority,
+            long deadlineMillis, Function<AggregateStopWatch, CompletableFuture<?>> work) {
+        while (true) {
+            CompletableFuture<?> future = endpointSchedulers.computeIfAbsent(endpoint, EndpointScheduler::new)
+                    .submit(key, priority, deadlineMillis, work);
+            if (future != null) {
+                return future;
+            }
+            // The scheduler was removed meanwhile, queue to a new one
+        }
+    }
+
+    /**
+     * Remove the scheduler of the endpoint, provided that no communication interface uses the endpoint and nothing is
+     * queued or executing anymore. Otherwise the scheduler removes itself once its queue has drained.
+     *
+     * @param scheduler scheduler to remove, or null to remove the current scheduler of the endpoint
+     */
+    private void removeEndpointSchedulerIfIdle(ModbusSlaveEndpoint endpoint, @Nullable EndpointScheduler scheduler) {
+        if (communicationInterfaces.stream().anyMatch(comm -> comm.endpoint.equals(endpoint))) {
+            return;
+        }
+        endpointSchedulers.computeIfPresent(endpoint, (key, current) -> (scheduler == null || current == scheduler)
+                && current.retireIfIdle() ? null : current);
+    }
+
+    private @Nullable ModbusTcpPipelinedClient getPipelinedClient(ModbusSlaveEndpoint endpoint) {
+        if (!isPipelined(endpoint)) {
+            return null;
+        }
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        ModbusSlaveConnectionFactoryImpl localConnectionFactory = connectionFactory;
+        if (executor == null || localConnectionFactory == null) {
+            // deactivated manager
+            return null;
+        }
+        return pipelinedClients.computeIfAbsent(endpoint,
+                e -> new ModbusTcpPipelinedClient((ModbusTCPSlaveEndpoint) e,
+                        localConnectionFactory.getEndpointPoolConfiguration(e), executor, maxTransactionsInFlight,
+                        Modbus.DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Execute operation with the pipelined client, using the same retry mechanism as
+     * {@link #executeOperation(TaskWithEndpoint, boolean, ModbusOperation, AggregateStopWatch)}
+     *
+     * No thread is blocked while the transaction is in flight. The response is handled, and callbacks called, in the
+     * thread pool of the manager.
+     *
+     * @param client client of the endpoint
+     * @param task task to execute
+     * @param oneOffTask whether the task is a one-off task, i.e. not registered as regular poll
+     * @param encoder encoder of the request
+     * @param operation response handling
+     * @param timer aggregate stop watch for performance profiling, not running
+     * @return future completing when the task has been executed and callbacks called
+     */
+    private <R, C extends ModbusResultCallback, F extends ModbusFailureCallback<R>, T extends TaskWithEndpoint<R, C, F>> CompletableFuture<?> executePipelined(
+            ModbusTcpPipelinedClient client, T task, boolean oneOffTask, IntFunction<ByteBuffer> encoder,
+            PipelinedOperation<T> operation, AggregateStopWatch timer) {
+        if (task.getMaxTries() <= 0) {
+            throw new IllegalArgumentException("maxTries should be positive");
+        }
+        timer.total.resume();
+        logTaskQueueInfo();
+        CompletableFuture<@Nullable Void> done = new CompletableFuture<>();
+        tryPipelined(client, task, oneOffTask, encoder, operation, timer, 1, done);
+        return done.whenComplete((result, error) -> {
+            timer.suspendAllRunning();
+            logger.debug("Pipelined modbus operation ended, timing info: {} [operation ID {}]", timer,
+                    timer.operationId);
+        });
+    }
+
+    private <R, C extends ModbusResultCallback, F extends ModbusFailureCallback<R>, T extends TaskWithEndpoint<R, C, F>> void tryPipelined(
+            ModbusTcpPipelinedClient client, T task, boolean oneOffTask, IntFunction<ByteBuffer> encoder,
+            PipelinedOperation<T> operation, AggregateStopWatch timer, int tryIndex,
+            CompletableFuture<@Nullable Void> done) {
+        String operationId = timer.operationId;
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        if (executor == null) {
+            logger.debug("Manager has been shut down, aborting processing request {} [operation ID {}]",
+                    task.getRequest(), operationId);
+            done.complete(null);
+            return;
+        }
+        // Check poll task is still registered (this is all asynchronous)
+        if (!oneOffTask && task instanceof PollTask && !scheduledPollTasks.containsKey(task)) {
+            logger.debug("Poll task {} is unregistered -- not executing/proceeding with the poll [operation ID {}]",
+                    task, operationId);
+            done.complete(null);
+            return;
+        }
+        logger.trace("Try {} out of {} [operation ID {}]", tryIndex, task.getMaxTries(), operationId);
+        timer.transaction.resume();
+        client.send(encoder).whenCompleteAsync((frame, error) -> {
+            timer.transaction.suspend();
+            R request = task.getRequest();
+            Exception lastError;
+            try {
+                if (error == null) {
+                    operation.accept(timer, task, frame);
+                    done.complete(null);
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                if (cause instanceof CancellationException) {
+                    logger.debug("Request {} was cancelled, the client has been closed [operation ID {}]", request,
+                            operationId);
+                    done.complete(null);
+                    return;
+                }
+                lastError = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+            } catch (ModbusTransportException e) {
+                lastError = e;
+            } catch (RuntimeException e) {
+                logger.warn("Callback of request {} failed unexpectedly [operation ID {}]", request, operationId, e);
+                done.complete(null);
+                return;
+            }
+
+            boolean willRetry = tryIndex < task.getMaxTries() && !(lastError instanceof ModbusConnectionException);
+            if (willRetry) {
+                logger.warn(
+                        "Try {} out of {} failed when executing request ({}). Will try again soon. Error details: {} {} [operation ID {}]",
+                        tryIndex, task.getMaxTries(), request, lastError.getClass().getName(), lastError.getMessage(),
+                        operationId);
+                tryPipelined(client, task, oneOffTask, encoder, operation, timer, tryIndex + 1, done);
+                return;
+            }
+            logger.error(
+                    "Last try {} failed when executing request ({}). Aborting. Error details: {} {} [operation ID {}]",
+                    tryIndex, request, lastError.getClass().getName(), lastError.getMessage(), operationId);
+            Exception exception = lastError;
+            try {
+                timer.callback.timeRunnable(() -> invokeCallbackWithError(request, task.getFailureCallback(), exception));
+            } catch (RuntimeException e) {
+                logger.warn("Failure callback of request {} failed unexpectedly [operation ID {}]", request,
+                        operationId, e);
+            } finally {
+                done.complete(null);
+            }
+        }, executor);
+    }
+
     private class ModbusCommunicationInterfaceImpl implements ModbusCommunicationInterface {
 
         private volatile ModbusSlaveEndpoint endpoint;
@@ -748,13 +1028,11 @@ public class ModbusManagerImpl implements ModbusManager {
             long scheduleTime = System.currentTimeMillis();
             BasicPollTask task = new BasicPollTask(endpoint, request, resultCallback, failureCallback);
             logger.debug("Scheduling one-off poll task {}", task);
-            Future<?> future = executor.submit(() -> {
-                long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-                logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                        millisInThreadPoolWaiting);
-                executeOperation(task, true, pollOperation);
+            return submitJob(endpoint, null, PRIORITY_ONE_OFF_POLL, scheduleTime, timer -> {
+                long millisInQueue = System.currentTimeMillis() - scheduleTime;
+                logger.debug("Will now execute one-off poll task {}, waited in queue for {}", task, millisInQueue);
+                return executePoll(task, true, timer);
             });
-            return future;
         }
 
         @Override
@@ -774,12 +1052,37 @@ public class ModbusManagerImpl implements ModbusManager {
                     logger.trace("Unregistering previous poll task (possibly with different period)");
                     unregisterRegularPoll(task);
                 }
+                ModbusSlaveConnectionFactoryImpl localConnectionFactory = connectionFactory;
+                Objects.requireNonNull(localConnectionFactory, "Not activated!");
+                EndpointPoolConfiguration poolConfiguration = localConnectionFactory
+                        .getEndpointPoolConfiguration(endpoint);
+                if (poolConfiguration != null && poolConfiguration.getReadCoalescingGap() >= 0) {
+                    PollGroup group = addToPollGroup(executor, task, pollPeriodMillis, initialDelayMillis,
+                            poolConfiguration.getReadCoalescingGap());
+                    pollGroupsByTask.put(task, group);
+                    scheduledPollTasks.put(task, group.future);
+                    pollTasksRegisteredByThisCommInterface.add(task);
+                    logger.trace("Registered poll task {} with period {} to poll group of endpoint {}", task,
+                            pollPeriodMillis, endpoint);
+                    return task;
+                }
+                // The scheduled task only queues the poll, it is executed by the scheduler of the endpoint
                 ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                    long started = System.currentTimeMillis();
-                    logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                            started);
+                    long queued = System.currentTimeMillis();
                     try {
-                        executeOperation(task, false, pollOperation);
+                        submitJob(endpoint, task, PRIORITY_REGULAR_POLL, queued + pollPeriodMillis,
+                                timer -> {
+                                    long started = System.currentTimeMillis();
+                                    logger.debug(
+                                            "Executing scheduled ({}ms) poll task {}. Current millis: {}, waited in queue for {}",
+                                            pollPeriodMillis, task, started, started - queued);
+                                    return executePoll(task, false, timer).whenComplete((result, error) -> {
+                                        long finished = System.currentTimeMillis();
+                                        logger.debug(
+                                                "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                                                pollPeriodMillis, task, finished, started, finished - started);
+                                    });
+                                });
                     } catch (RuntimeException e) {
                         // We want to catch all unexpected exceptions since all unhandled exceptions make
                         // ScheduledExecutorService halt the polling. It is better to print out the exception, and try
@@ -789,10 +1092,6 @@ public class ModbusManagerImpl implements ModbusManager {
                                 "Execution of scheduled ({}ms) poll task {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
                                 pollPeriodMillis, task, e);
                     }
-                    long finished = System.currentTimeMillis();
-                    logger.debug(
-                            "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                            pollPeriodMillis, task, finished, started, finished - started);
                 }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
 
                 scheduledPollTasks.put(task, future);
@@ -823,6 +1122,16 @@ public class ModbusManagerImpl implements ModbusManager {
                     logger.warn("Caller tried to unregister nonexisting poll task {}", task);
                     return false;
                 }
+                @Nullable
+                PollGroup group = pollGroupsByTask.remove(task);
+                if (group != null) {
+                    if (group.remove(task)) {
+                        logger.debug("Unregistered regular poll task {}, its poll group remains scheduled", task);
+                        return true;
+                    }
+                    // Last task of the group, the future cancelled below is the one of the group
+                    pollGroups.remove(group);
+                }
                 logger.debug("Unregistering regular poll task {} (interrupting if necessary)", task);
                 future.cancel(true);
                 logger.debug("Poll task {} canceled", task);
@@ -841,13 +1150,11 @@ public class ModbusManagerImpl implements ModbusManager {
             WriteTask task = new BasicWriteTask(endpoint, request, resultCallback, failureCallback);
             long scheduleTime = System.currentTimeMillis();
             logger.debug("Scheduling one-off write task {}", task);
-            Future<?> future = localScheduledThreadPoolExecutor.submit(() -> {
-                long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-                logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                        millisInThreadPoolWaiting);
-                executeOperation(task, true, writeOperation);
+            return submitJob(endpoint, null, PRIORITY_WRITE, scheduleTime, timer -> {
+                long millisInQueue = System.currentTimeMillis() - scheduleTime;
+                logger.debug("Will now execute one-off write task {}, waited in queue for {}", task, millisInQueue);
+                return executeWrite(task, timer);
             });
-            return future;
         }
 
         @Override
@@ -875,6 +1182,394 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Add task to the poll group of its endpoint and poll period, creating and scheduling the group if necessary
+     *
+     * Must be called holding the lock of this.
+     */
+    private PollGroup addToPollGroup(ScheduledExecutorService executor, PollTask task, long pollPeriodMillis,
+            long initialDelayMillis, int readCoalescingGap) {
+        for (PollGroup group : pollGroups) {
+            if (group.endpoint.equals(task.getEndpoint()) && group.pollPeriodMillis == pollPeriodMillis) {
+                group.add(task);
+                return group;
+            }
+        }
+        PollGroup group = new PollGroup(executor, task, pollPeriodMillis, initialDelayMillis,
+                new ModbusReadRequestOptimizer(readCoalescingGap));
+        pollGroups.add(group);
+        return group;
+    }
+
+    /**
+     * Regular polls of a single endpoint sharing the same poll period
+     *
+     * The polls are merged into as few reads as possible with {@link ModbusReadRequestOptimizer}, and the reads are
+     * queued by a single scheduled task to the {@link EndpointScheduler} of the endpoint. The results are sliced and
+     * handed to the callbacks of the polls still registered. Polls joining the group later are executed according to
+     * the schedule of the group.
+     *
+     * Should the slave reject a merged read with an illegal function or illegal data address exception response (e.g.
+     * since it covers unmapped registers), the polls of that read are executed separately from then on. Other exception
+     * responses, such as a busy slave, are passed to the polls like any other failure.
+     *
+     * @author agent - Initial contribution
+     */
+    private class PollGroup {
+        private final ModbusSlaveEndpoint endpoint;
+        private final long pollPeriodMillis;
+        private final ModbusReadRequestOptimizer optimizer;
+        private final ScheduledFuture<?> future;
+        /**
+         * Tasks of the group, guarded by the lock of the manager
+         */
+        private final Set<PollTask> tasks = new LinkedHashSet<>();
+        private final Set<ModbusReadRequestBlueprint> rejectedReads = ConcurrentHashMap.newKeySet();
+        private volatile List<GroupRead> reads = Collections.emptyList();
+
+        PollGroup(ScheduledExecutorService executor, PollTask firstTask, long pollPeriodMillis, long initialDelayMillis,
+                ModbusReadRequestOptimizer optimizer) {
+            this.endpoint = firstTask.getEndpoint();
+            this.pollPeriodMillis = pollPeriodMillis;
+            this.optimizer = optimizer;
+            add(firstTask);
+            this.future = executor.scheduleWithFixedDelay(this::poll, initialDelayMillis, pollPeriodMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        void add(PollTask task) {
+            tasks.add(task);
+            update();
+        }
+
+        /**
+         * Remove task from the group
+         *
+         * @return whether the group has tasks left
+         */
+        boolean remove(PollTask task) {
+            tasks.remove(task);
+            update();
+            return !tasks.isEmpty();
+        }
+
+        private void update() {
+            // Tasks using the same request instance are served by the same part
+            Map<ModbusReadRequestBlueprint, List<PollTask>> tasksByRequest = new IdentityHashMap<>();
+            tasks.forEach(task -> tasksByRequest.computeIfAbsent(task.getRequest(), r -> new ArrayList<>()).add(task));
+            List<GroupRead> reads = new ArrayList<>();
+            for (MergedRead read : optimizer.merge(tasksByRequest.keySet())) {
+                List<PollTask> readTasks = new ArrayList<>();
+                for (ModbusReadRequestBlueprint part : read.getParts()) {
+                    List<PollTask> partTasks = tasksByRequest.get(part);
+                    if (partTasks != null) {
+                        readTasks.addAll(partTasks);
+                    }
+                }
+                reads.add(new GroupRead(read, readTasks));
+            }
+            this.reads = reads;
+            logger.debug("Poll group of endpoint {} with period {}ms executes {} poll tasks with {} reads", endpoint,
+                    pollPeriodMillis, tasks.size(), reads.size());
+        }
+
+        private void poll() {
+            long started = System.currentTimeMillis();
+            logger.debug("Queuing scheduled ({}ms) poll group of endpoint {}. Current millis: {}", pollPeriodMillis,
+                    endpoint, started);
+            long deadline = started + pollPeriodMillis;
+            for (GroupRead read : reads) {
+                if (future.isCancelled()) {
+                    return;
+                }
+                try {
+                    if ((read.tasks.size() == 1 && read.merged.getParts().size() == 1)
+                            || rejectedReads.contains(read.merged.getRequest())) {
+                        read.tasks.forEach(task -> submitJob(endpoint, task, PRIORITY_REGULAR_POLL, deadline,
+                                timer -> executePoll(task, false, timer)));
+                    } else {
+                        submitJob(endpoint, read, PRIORITY_REGULAR_POLL, deadline,
+                                timer -> executeMerged(read, timer));
+                    }
+                } catch (RuntimeException e) {
+                    // All unhandled exceptions would make ScheduledExecutorService halt the polling
+                    logger.warn(
+                            "Execution of scheduled ({}ms) read {} failed unexpectedly. Ignoring exception, polling again according to poll interval.",
+                            pollPeriodMillis, read.merged, e);
+                }
+            }
+        }
+
+        private CompletableFuture<?> executeMerged(GroupRead read, AggregateStopWatch timer) {
+            ModbusReadRequestBlueprint request = read.merged.getRequest();
+            BasicPollTask mergedTask = new BasicPollTask(endpoint, request, result -> {
+                for (PollTask task : read.tasks) {
+                    if (scheduledPollTasks.containsKey(task)) {
+                        invokeGroupCallback(task, () -> task.getResultCallback()
+                                .handle(read.merged.slice(result, task.getRequest())));
+                    }
+                }
+            }, failure -> {
+                if (isRejection(failure.getCause()) && read.merged.getParts().size() > 1) {
+                    rejectTasks(read);
+                    return;
+                }
+                for (PollTask task : read.tasks) {
+                    if (scheduledPollTasks.containsKey(task)) {
+                        invokeGroupCallback(task, () -> task.getFailureCallback()
+                                .handle(new AsyncModbusFailure<>(task.getRequest(), failure.getCause())));
+                    }
+                }
+            });
+            return executePoll(mergedTask, true, timer);
+        }
+
+        /**
+         * Whether the slave refused the read itself, rather than failing temporarily (e.g. being busy)
+         */
+        private boolean isRejection(Exception cause) {
+            if (!(cause instanceof ModbusSlaveErrorResponseException)) {
+                return false;
+            }
+            int exceptionCode = ((ModbusSlaveErrorResponseException) cause).getExceptionCode();
+            return exceptionCode == ModbusSlaveErrorResponseException.ILLEGAL_FUNCTION
+                    || exceptionCode == ModbusSlaveErrorResponseException.ILLEGAL_DATA_ACCESS;
+        }
+
+        private void rejectTasks(GroupRead read) {
+            ModbusReadRequestBlueprint request = read.merged.getRequest();
+            logger.warn(
+                    "Slave rejected merged read {} of endpoint {}. Executing its {} poll tasks separately from now on.",
+                    request, endpoint, read.tasks.size());
+            rejectedReads.add(request);
+            // Queued since the merged read is still executing
+            long now = System.currentTimeMillis();
+            read.tasks.forEach(task -> submitJob(endpoint, task, PRIORITY_REGULAR_POLL, now,
+                    timer -> executePoll(task, false, timer)));
+        }
+
+        private void invokeGroupCallback(PollTask task, Runnable callback) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                // One failing callback should not prevent the other tasks of the read getting their data
+                logger.warn("Callback of poll task {} failed unexpectedly", task, e);
+            }
+        }
+    }
+
+    /**
+     * Read of a {@link PollGroup}, with the tasks of its parts
+     */
+    private static class GroupRead {
+        private final MergedRead merged;
+        private final List<PollTask> tasks;
+
+        GroupRead(MergedRead merged, List<PollTask> tasks) {
+            this.merged = merged;
+            this.tasks = tasks;
+        }
+    }
+
+    /**
+     * Job queued in {@link EndpointScheduler}
+     */
+    private static class Job {
+        private final @Nullable Object key;
+        private final int priority;
+        private final long queuedMillis;
+        private final long deadlineMillis;
+        private final long sequence;
+        private final Function<AggregateStopWatch, CompletableFuture<?>> work;
+        private final CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+
+        Job(@Nullable Object key, int priority, long deadlineMillis, long sequence,
+                Function<AggregateStopWatch, CompletableFuture<?>> work) {
+            this.key = key;
+            this.priority = priority;
+            this.queuedMillis = System.currentTimeMillis();
+            this.deadlineMillis = deadlineMillis;
+            this.sequence = sequence;
+            this.work = work;
+        }
+    }
+
+    /**
+     * Serializes the work of a single endpoint
+     *
+     * Regular polls, one-off polls and writes are queued per endpoint instead of competing for the connection of the
+     * endpoint in the thread pool. A slow endpoint (e.g. serial line) thereby occupies at most one thread of the pool,
+     * or as many as there are transactions in flight with pipelined TCP slaves.
+     *
+     * Writes are executed before one-off polls, and one-off polls before regular polls. Jobs of the same priority are
+     * executed in the order of their deadlines: one-off jobs as soon as possible, regular polls before their next poll
+     * is due. A regular poll is queued only once: when the next poll is due while the previous one is still queued or
+     * executing, the two are merged.
+     *
+     * Lag (time from queuing to execution), queue depth and transaction time are collected to histograms which are
+     * logged with the poll monitor.
+     *
+     * @author agent - Initial contribution
+     */
+    private class EndpointScheduler {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int maxConcurrency;
+        /**
+         * Queued jobs, and keys of queued and executing jobs. Guarded by this.
+         */
+        private final PriorityQueue<Job> queue = new PriorityQueue<>(JOB_ORDER);
+        private final Set<Object> activeKeys = new HashSet<>();
+        private int running;
+        private long sequence;
+        /**
+         * Set once the scheduler has been removed, jobs are not accepted anymore. Guarded by this.
+         */
+        private boolean retired;
+
+        private final SimpleHistogram lag = new SimpleHistogram(SimpleHistogram.MILLIS_BUCKETS);
+        private final SimpleHistogram queueDepth = new SimpleHistogram(SimpleHistogram.DEPTH_BUCKETS);
+        private final SimpleHistogram transactionTime = new SimpleHistogram(SimpleHistogram.MILLIS_BUCKETS);
+        private final AtomicLong mergedPolls = new AtomicLong();
+
+        EndpointScheduler(ModbusSlaveEndpoint endpoint) {
+            this.endpoint = endpoint;
+            this.maxConcurrency = isPipelined(endpoint) ? maxTransactionsInFlight : 1;
+        }
+
+        /**
+         * Queue job
+         *
+         * @param key key identifying a regular poll, or null with one-off jobs. Job is not queued if a job with the
+         *            same key is queued or executing already.
+         * @param priority priority of the job, lower value is executed first
+         * @param deadlineMillis time by which the job should be executed
+         * @param work function executing the job with the given stop watch
+         * @return future completing when the job has been executed. Cancelling the future before the job has been
+         *         started removes the job from the queue. Null if the scheduler has been removed already.
+         */
+        synchronized @Nullable CompletableFuture<?> submit(@Nullable Object key, int priority, long deadlineMillis,
+                Function<AggregateStopWatch, CompletableFuture<?>> work) {
+            if (retired) {
+                return null;
+            }
+            if (key != null && !activeKeys.add(key)) {
+                mergedPolls.incrementAndGet();
+                logger.debug("Previous execution of {} still queued or ongoing with endpoint {}, merging the polls", key,
+                        endpoint);
+                return CompletableFuture.completedFuture(null);
+            }
+            queueDepth.record(queue.size());
+            Job job = new Job(key, priority, deadlineMillis, sequence++, work);
+            queue.add(job);
+            dispatch();
+            return job.future;
+        }
+
+        private void dispatch() {
+            ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+            while (running < maxConcurrency && !queue.isEmpty()) {
+                Job job = queue.poll();
+                if (executor == null || job.future.isCancelled()) {
+                    // deactivated manager or cancelled job
+                    release(job);
+                    job.future.cancel(false);
+                    continue;
+                }
+                running++;
+                executor.execute(() -> run(job));
+            }
+        }
+
+        private void release(Job job) {
+            Object key = job.key;
+            if (key != null) {
+                activeKeys.remove(key);
+            }
+        }
+
+        private void run(Job job) {
+            long started = System.currentTimeMillis();
+            lag.record(started - job.queuedMillis);
+            if (started > job.deadlineMillis) {
+                logger.debug("Executing job queued {}ms ago with endpoint {}, {}ms past its deadline",
+                        started - job.queuedMillis, endpoint, started - job.deadlineMillis);
+            }
+            AggregateStopWatch timer = new AggregateStopWatch();
+            CompletableFuture<?> execution;
+            try {
+                execution = job.work.apply(timer);
+            } catch (RuntimeException e) {
+                // Continue with the other jobs, unhandled exceptions would halt the queue of the endpoint
+                logger.warn("Execution of job with endpoint {} failed unexpectedly. Ignoring exception.", endpoint, e);
+                execution = CompletableFuture.failedFuture(e);
+            }
+            execution.whenComplete((result, error) -> {
+                transactionTime.record(timer.transaction.getTotalTimeMillis());
+                boolean idle;
+                synchronized (this) {
+                    running--;
+                    release(job);
+                    dispatch();
+                    idle = running == 0 && queue.isEmpty();
+                }
+                if (idle) {
+                    removeEndpointSchedulerIfIdle(endpoint, this);
+                }
+                if (error != null) {
+                    job.future.completeExceptionally(error);
+                } else {
+                    job.future.complete(null);
+                }
+            });
+        }
+
+        /**
+         * Retire the scheduler if nothing is queued or executing
+         *
+         * @return true if the scheduler has been retired, it does not accept jobs anymore
+         */
+        synchronized boolean retireIfIdle() {
+            if (running == 0 && queue.isEmpty()) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        /**
+         * Retire the scheduler and cancel the futures of all queued jobs. Executing jobs complete as usual.
+         */
+        void retire() {
+            List<Job> cancelled;
+            synchronized (this) {
+                retired = true;
+                cancelled = new ArrayList<>(queue);
+                queue.clear();
+                cancelled.forEach(this::release);
+            }
+            if (!cancelled.isEmpty()) {
+                logger.debug("Cancelling {} queued jobs of endpoint {}", cancelled.size(), endpoint);
+            }
+            cancelled.forEach(job -> job.future.cancel(false));
+        }
+
+        private void logStatistics() {
+            int queued;
+            int executing;
+            synchronized (this) {
+                queued = queue.size();
+                executing = running;
+            }
+            pollMonitorLogger.trace(
+                    "POLL MONITOR: endpoint {}: queued {}, executing {}, merged polls {}, lag (ms) {}, queue depth {}, transaction time (ms) {}",
+                    endpoint, queued, executing, mergedPolls.get(), lag, queueDepth, transactionTime);
+            if (queued >= WARN_QUEUE_SIZE) {
+                pollMonitorLogger.warn(
+                        "Many ({}) tasks queued for endpoint {}! The endpoint cannot keep up with the poll intervals and writes.",
+                        queued, endpoint);
+            }
+        }
+    }
+
     @Override
     public ModbusCommunicationInterface newModbusCommunicationInterface(ModbusSlaveEndpoint endpoint,
             @Nullable EndpointPoolConfiguration configuration) throws IllegalArgumentException {
@@ -908,6 +1603,11 @@ public class ModbusManagerImpl implements ModbusManager {
         if (lastCommWithThisEndpointWasRemoved) {
             // Since last communication interface pointing to this endpoint was closed, we can clean up resources
             // and disconnect connections.
+            removeEndpointSchedulerIfIdle(endpoint, null);
+            ModbusTcpPipelinedClient client = pipelinedClients.remove(endpoint);
+            if (client != null) {
+                client.close();
+            }
 
             // Make sure connections to this endpoint are closed when they are returned to pool (which
             // is usually pretty soon as transactions should be relatively short-lived)
@@ -930,6 +1630,7 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            configure(configProperties);
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -947,6 +1648,29 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    private void configure(Map<String, Object> configProperties) {
+        Object pipelinedTcp = configProperties.get(CONFIG_PIPELINED_TCP);
+        this.pipelinedTcp = pipelinedTcp != null && Boolean.parseBoolean(pipelinedTcp.toString());
+        Object maxTransactionsInFlight = configProperties.get(CONFIG_MAX_TRANSACTIONS_IN_FLIGHT);
+        int max = DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT;
+        if (maxTransactionsInFlight != null) {
+            try {
+                max = Integer.parseInt(maxTransactionsInFlight.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} '{}', using default {}", CONFIG_MAX_TRANSACTIONS_IN_FLIGHT,
+                        maxTransactionsInFlight, DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT);
+            }
+        }
+        if (max < 1) {
+            logger.warn("{} should be positive, using 1", CONFIG_MAX_TRANSACTIONS_IN_FLIGHT);
+            max = 1;
+        }
+        this.maxTransactionsInFlight = max;
+        if (this.pipelinedTcp) {
+            logger.info("Pipelining enabled with TCP slaves, maximum of {} transactions in flight", max);
+        }
+    }
+
     @Deactivate
     protected void deactivate() {
         synchronized (this) {
@@ -964,6 +1688,11 @@ public class ModbusManagerImpl implements ModbusManager {
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            pipelinedClients.values().forEach(ModbusTcpPipelinedClient::close);
+            pipelinedClients.clear();
+            // Callers waiting for queued jobs would otherwise wait forever
+            endpointSchedulers.values().forEach(EndpointScheduler::retire);
+            endpointSchedulers.clear();
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -996,6 +1725,7 @@ public class ModbusManagerImpl implements ModbusManager {
                         task.getRequest().getDataLength(), future.isDone(), future.isCancelled(),
                         future.getDelay(TimeUnit.MILLISECONDS), task);
             });
+            this.endpointSchedulers.values().forEach(EndpointScheduler::logStatistics);
             if (scheduledThreadPoolExecutor instanceof ThreadPoolExecutor) {
                 ThreadPoolExecutor executor = ((ThreadPoolExecutor) scheduledThreadPoolExecutor);
                 pollMonitorLogger.trace(
@@ -32,6 +32,10 @@ public class ModbusResponseImpl implements ModbusResponse {
         this.responseFunctionCode = response.getFunctionCode();
     }
 
+    public ModbusResponseImpl(int responseFunctionCode) {
+        this.responseFunctionCode = responseFunctionCode;
+    }
+
     @Override
     public int getFunctionCode() {
         return responseFunctionCode;
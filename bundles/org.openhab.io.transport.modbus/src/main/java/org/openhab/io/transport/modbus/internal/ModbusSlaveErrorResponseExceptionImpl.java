@@ -35,6 +35,10 @@ public class ModbusSlaveErrorResponseExceptionImpl extends ModbusSlaveErrorRespo
         type = e.getType();
     }
 
+    public ModbusSlaveErrorResponseExceptionImpl(int type) {
+        this.type = type;
+    }
+
     /**
      * @return the Modbus exception code that happened
      */
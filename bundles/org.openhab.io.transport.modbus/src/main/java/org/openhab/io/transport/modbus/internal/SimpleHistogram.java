@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Implementation of simple histogram with fixed buckets.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class SimpleHistogram {
+
+    /**
+     * Bucket upper bounds suitable for durations in milliseconds
+     */
+    public static final long[] MILLIS_BUCKETS = new long[] { 1, 5, 10, 50, 100, 500, 1000, 5000, 10000 };
+
+    /**
+     * Bucket upper bounds suitable for queue depths
+     */
+    public static final long[] DEPTH_BUCKETS = new long[] { 0, 1, 2, 5, 10, 20, 50, 100, 500 };
+
+    private final long[] upperBounds;
+    private final AtomicLongArray counts;
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * Create histogram
+     *
+     * @param upperBounds inclusive upper bounds of the buckets, in ascending order. Values above the last bound are
+     *            counted in an additional bucket.
+     */
+    public SimpleHistogram(long[] upperBounds) {
+        this.upperBounds = upperBounds.clone();
+        this.counts = new AtomicLongArray(upperBounds.length + 1);
+    }
+
+    /**
+     * Record value
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get number of recorded values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get largest recorded value, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get average of recorded values, or 0 if nothing has been recorded
+     */
+    public long getAverage() {
+        long count = getCount();
+        return count == 0 ? 0 : sum.get() / count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{count: ").append(getCount()).append(", avg: ")
+                .append(getAverage()).append(", max: ").append(getMax());
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            builder.append(", ").append(i < upperBounds.length ? "<=" + upperBounds[i] : ">" + upperBounds[i - 1])
+                    .append(": ").append(count);
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.nio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteFunctionCode;
+import org.openhab.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprintVisitor;
+import org.openhab.io.transport.modbus.exception.ModbusTransportException;
+import org.openhab.io.transport.modbus.exception.ModbusUnexpectedResponseFunctionCodeException;
+import org.openhab.io.transport.modbus.exception.ModbusUnexpectedResponseSizeException;
+import org.openhab.io.transport.modbus.internal.ModbusSlaveErrorResponseExceptionImpl;
+
+import net.wimpi.modbus.Modbus;
+
+/**
+ * Encodes requests to and decodes responses from Modbus/TCP frames
+ *
+ * A frame consists of the MBAP header (transaction id, protocol id, length and unit id) followed by the PDU (function
+ * code and data). The length field counts the unit id and the PDU.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTcpFrameCodec {
+
+    /**
+     * Length of the MBAP header, including the unit id
+     */
+    public static final int MBAP_HEADER_LENGTH = 7;
+
+    /**
+     * Maximum length of a Modbus/TCP frame (MBAP header and PDU of 253 bytes)
+     */
+    public static final int MAX_FRAME_LENGTH = 260;
+
+    private static final int EXCEPTION_RESPONSE_FLAG = 0x80;
+
+    /**
+     * Received frame
+     *
+     * @author agent - Initial contribution
+     */
+    public static class Frame {
+        private final int transactionId;
+        private final int unitId;
+        private final int functionCode;
+        private final byte[] data;
+
+        Frame(int transactionId, int unitId, int functionCode, byte[] data) {
+            this.transactionId = transactionId;
+            this.unitId = unitId;
+            this.functionCode = functionCode;
+            this.data = data;
+        }
+
+        public int getTransactionId() {
+            return transactionId;
+        }
+
+        public int getUnitId() {
+            return unitId;
+        }
+
+        /**
+         * Function code of the response. The highest bit is set with exception responses.
+         */
+        public int getFunctionCode() {
+            return functionCode;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Frame(transactionId=%d, unitId=%d, functionCode=%d, data=%d bytes)", transactionId,
+                    unitId, functionCode, data.length);
+        }
+    }
+
+    /**
+     * Encode read request
+     *
+     * @param transactionId transaction id of the frame
+     * @param request request to encode
+     * @return buffer ready for writing
+     */
+    public static ByteBuffer encode(int transactionId, ModbusReadRequestBlueprint request) {
+        ByteBuffer pdu = ByteBuffer.allocate(5);
+        pdu.put((byte) getFunctionCode(request.getFunctionCode()));
+        pdu.putShort((short) request.getReference());
+        pdu.putShort((short) request.getDataLength());
+        return frame(transactionId, request.getUnitID(), pdu);
+    }
+
+    /**
+     * Encode write request
+     *
+     * @param transactionId transaction id of the frame
+     * @param request request to encode
+     * @return buffer ready for writing
+     * @throws IllegalArgumentException when the data of the request does not match the function code
+     */
+    public static ByteBuffer encode(int transactionId, ModbusWriteRequestBlueprint request) {
+        ModbusWriteFunctionCode functionCode = request.getFunctionCode();
+        AtomicReference<ByteBuffer> pdu = new AtomicReference<>();
+        request.accept(new ModbusWriteRequestBlueprintVisitor() {
+
+            @Override
+            public void visit(ModbusWriteCoilRequestBlueprint blueprint) {
+                BitArray coils = blueprint.getCoils();
+                if (coils.size() == 0) {
+                    throw new IllegalArgumentException("Must provide at least one coil");
+                }
+                if (functionCode == ModbusWriteFunctionCode.WRITE_COIL) {
+                    if (coils.size() != 1) {
+                        throw new IllegalArgumentException("Must provide single coil with WRITE_COIL");
+                    }
+                    pdu.set(ByteBuffer.allocate(5).put((byte) functionCode.getFunctionCode())
+                            .putShort((short) request.getReference())
+                            .putShort((short) (coils.getBit(0) ? 0xff00 : 0x0000)));
+                } else if (functionCode == ModbusWriteFunctionCode.WRITE_MULTIPLE_COILS) {
+                    byte[] bytes = new byte[(coils.size() + 7) / 8];
+                    for (int i = 0; i < coils.size(); i++) {
+                        if (coils.getBit(i)) {
+                            bytes[i / 8] |= 1 << (i % 8);
+                        }
+                    }
+                    pdu.set(ByteBuffer.allocate(6 + bytes.length).put((byte) functionCode.getFunctionCode())
+                            .putShort((short) request.getReference()).putShort((short) coils.size())
+                            .put((byte) bytes.length).put(bytes));
+                } else {
+                    throw new IllegalArgumentException();
+                }
+            }
+
+            @Override
+            public void visit(ModbusWriteRegisterRequestBlueprint blueprint) {
+                ModbusRegisterArray registers = blueprint.getRegisters();
+                if (registers.size() == 0) {
+                    throw new IllegalArgumentException("Must provide at least one register");
+                }
+                if (functionCode == ModbusWriteFunctionCode.WRITE_SINGLE_REGISTER) {
+                    if (registers.size() != 1) {
+                        throw new IllegalArgumentException("Must provide single register with WRITE_SINGLE_REGISTER");
+                    }
+                    pdu.set(ByteBuffer.allocate(5).put((byte) functionCode.getFunctionCode())
+                            .putShort((short) request.getReference()).putShort((short) registers.getRegister(0)));
+                } else if (functionCode == ModbusWriteFunctionCode.WRITE_MULTIPLE_REGISTERS) {
+                    byte[] bytes = registers.getBytes();
+                    pdu.set(ByteBuffer.allocate(6 + bytes.length).put((byte) functionCode.getFunctionCode())
+                            .putShort((short) request.getReference()).putShort((short) registers.size())
+                            .put((byte) bytes.length).put(bytes));
+                } else {
+                    throw new IllegalArgumentException();
+                }
+            }
+        });
+        return frame(transactionId, request.getUnitID(), pdu.get());
+    }
+
+    private static ByteBuffer frame(int transactionId, int unitId, ByteBuffer pdu) {
+        pdu.flip();
+        ByteBuffer frame = ByteBuffer.allocate(MBAP_HEADER_LENGTH + pdu.remaining());
+        frame.putShort((short) transactionId);
+        frame.putShort((short) Modbus.DEFAULT_PROTOCOL_ID);
+        frame.putShort((short) (1 + pdu.remaining()));
+        frame.put((byte) unitId);
+        frame.put(pdu);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Decode the next frame from the buffer
+     *
+     * @param buffer buffer in read mode. The position is moved past the frame when a complete frame is available.
+     * @return frame, or null if the buffer does not contain a complete frame yet
+     * @throws IllegalStateException when the length field of the header is invalid, i.e. the stream is corrupt
+     */
+    public static @Nullable Frame decode(ByteBuffer buffer) {
+        if (buffer.remaining() < MBAP_HEADER_LENGTH) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getShort(start + 4) & 0xffff;
+        if (length < 2 || MBAP_HEADER_LENGTH - 1 + length > MAX_FRAME_LENGTH) {
+            throw new IllegalStateException(String.format("Invalid MBAP length %d", length));
+        }
+        if (buffer.remaining() < MBAP_HEADER_LENGTH - 1 + length) {
+            return null;
+        }
+        int transactionId = buffer.getShort() & 0xffff;
+        buffer.getShort(); // protocol id
+        buffer.getShort(); // length
+        int unitId = buffer.get() & 0xff;
+        int functionCode = buffer.get() & 0xff;
+        byte[] data = new byte[length - 2];
+        buffer.get(data);
+        return new Frame(transactionId, unitId, functionCode, data);
+    }
+
+    /**
+     * Convert response frame to read result
+     *
+     * @param request request matching the response
+     * @param frame response frame
+     * @return read result
+     * @throws ModbusTransportException on exception responses, and responses not matching the request
+     */
+    public static AsyncModbusReadResult toReadResult(ModbusReadRequestBlueprint request, Frame frame)
+            throws ModbusTransportException {
+        int functionCode = getFunctionCode(request.getFunctionCode());
+        checkFunctionCode(functionCode, frame);
+        int byteCount = frame.data.length == 0 ? 0 : frame.data[0] & 0xff;
+        byte[] bytes = Arrays.copyOfRange(frame.data, Math.min(1, frame.data.length),
+                Math.min(1 + byteCount, frame.data.length));
+        switch (request.getFunctionCode()) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                int bitCount = bytes.length * 8;
+                if (bitCount < request.getDataLength()) {
+                    throw new ModbusUnexpectedResponseSizeException(request.getDataLength(), bitCount);
+                }
+                // The bits are sent in multiples of 8, ignore the padding
+                return new AsyncModbusReadResult(request, new BitArray(BitSet.valueOf(bytes), request.getDataLength()));
+            default:
+                if (bytes.length % 2 != 0 || bytes.length / 2 < request.getDataLength()) {
+                    throw new ModbusUnexpectedResponseSizeException(request.getDataLength(), bytes.length / 2);
+                }
+                return new AsyncModbusReadResult(request, new ModbusRegisterArray(bytes));
+        }
+    }
+
+    /**
+     * Check write response
+     *
+     * @param request request matching the response
+     * @param frame response frame
+     * @throws ModbusTransportException on exception responses, and responses not matching the request
+     */
+    public static void checkWriteResponse(ModbusWriteRequestBlueprint request, Frame frame)
+            throws ModbusTransportException {
+        checkFunctionCode(request.getFunctionCode().getFunctionCode(), frame);
+    }
+
+    private static void checkFunctionCode(int functionCode, Frame frame) throws ModbusTransportException {
+        if (frame.functionCode == (functionCode | EXCEPTION_RESPONSE_FLAG)) {
+            throw new ModbusSlaveErrorResponseExceptionImpl(frame.data.length == 0 ? 0 : frame.data[0] & 0xff);
+        } else if (frame.functionCode != functionCode) {
+            throw new ModbusUnexpectedResponseFunctionCodeException(functionCode, frame.functionCode);
+        }
+    }
+
+    private static int getFunctionCode(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+                return Modbus.READ_COILS;
+            case READ_INPUT_DISCRETES:
+                return Modbus.READ_INPUT_DISCRETES;
+            case READ_MULTIPLE_REGISTERS:
+                return Modbus.READ_MULTIPLE_REGISTERS;
+            case READ_INPUT_REGISTERS:
+                return Modbus.READ_INPUT_REGISTERS;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected function code %s", functionCode));
+        }
+    }
+}
@@ -0,0 +1,553 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal.nio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.exception.ModbusConnectionException;
+import org.openhab.io.transport.modbus.internal.ModbusSlaveIOExceptionImpl;
+import org.openhab.io.transport.modbus.internal.nio.ModbusTcpFrameCodec.Frame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking Modbus/TCP client keeping several transactions in flight on a single connection
+ *
+ * Requests are queued and sent as soon as the connection allows, without waiting for the responses of the previous
+ * requests. Responses are matched to the requests by the transaction id of the MBAP header, so they may arrive in any
+ * order. Responses with unknown transaction id (e.g. arriving after the request timed out) are discarded.
+ *
+ * The inter-transaction delay of the {@link EndpointPoolConfiguration} is the minimum time between sending two
+ * requests. It is enforced with a timer, no thread is waiting in the meantime.
+ *
+ * The connection is closed on I/O errors, and after {@value #MAX_CONSECUTIVE_TIMEOUTS} requests in a row timed out, as
+ * the connection might be half-open then. It is reconnected with the next request. Like with the pooled connections,
+ * the reconnect interval of the {@link EndpointPoolConfiguration} applies: with a positive interval, a connection
+ * older than that is reconnected once its requests have been answered. With zero, the connection is closed once no
+ * request has been sent or answered for {@value #IDLE_DISCONNECT_DELAY_MILLIS} ms, so that requests following each
+ * other closely still share the connection. With a negative interval, the connection is kept open.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTcpPipelinedClient implements AutoCloseable {
+
+    private static final int MAX_TRANSACTION_ID = 0xffff;
+    private static final int MAX_CONSECUTIVE_TIMEOUTS = 3;
+    private static final long IDLE_DISCONNECT_DELAY_MILLIS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusTcpPipelinedClient.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final ScheduledExecutorService scheduler;
+    private final int maxTransactionsInFlight;
+    private final long responseTimeoutMillis;
+    private final long interTransactionDelayMillis;
+    private final long interConnectDelayMillis;
+    private final int connectTimeoutMillis;
+    private final int connectMaxTries;
+    private final long reconnectAfterMillis;
+
+    /**
+     * Guards all mutable state below
+     */
+    private final Object lock = new Object();
+    private final Deque<Transaction> queue = new ArrayDeque<>();
+    private final Map<Integer, Transaction> inFlight = new HashMap<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(4 * ModbusTcpFrameCodec.MAX_FRAME_LENGTH);
+    private @Nullable AsynchronousSocketChannel channel;
+    private @Nullable ScheduledFuture<?> sendTimer;
+    private @Nullable ScheduledFuture<?> idleTimer;
+    private boolean connecting;
+    private boolean writing;
+    private boolean closed;
+    private int connectTries;
+    private int consecutiveTimeouts;
+    private int lastTransactionId;
+    private long nextSendMillis;
+    private long lastConnectMillis;
+    private long connectedMillis;
+    private long lastActivityMillis;
+
+    private static class Transaction {
+        private final IntFunction<ByteBuffer> encoder;
+        private final CompletableFuture<Frame> future = new CompletableFuture<>();
+        private int transactionId;
+        private @Nullable ScheduledFuture<?> timeout;
+
+        Transaction(IntFunction<ByteBuffer> encoder) {
+            this.encoder = encoder;
+        }
+    }
+
+    /**
+     * Create client. The connection is established when the first request is sent.
+     *
+     * @param endpoint endpoint to connect to
+     * @param configuration endpoint configuration, or null for defaults
+     * @param scheduler scheduler for the timers of the client
+     * @param maxTransactionsInFlight maximum number of requests sent but not answered yet
+     * @param responseTimeoutMillis time to wait for the response of a request
+     */
+    public ModbusTcpPipelinedClient(ModbusTCPSlaveEndpoint endpoint, @Nullable EndpointPoolConfiguration configuration,
+            ScheduledExecutorService scheduler, int maxTransactionsInFlight, long responseTimeoutMillis) {
+        this.endpoint = endpoint;
+        this.scheduler = scheduler;
+        this.maxTransactionsInFlight = Math.max(1, maxTransactionsInFlight);
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        EndpointPoolConfiguration config = configuration == null ? new EndpointPoolConfiguration() : configuration;
+        this.interTransactionDelayMillis = config.getInterTransactionDelayMillis();
+        this.interConnectDelayMillis = config.getInterConnectDelayMillis();
+        this.connectTimeoutMillis = config.getConnectTimeoutMillis();
+        this.connectMaxTries = Math.max(1, config.getConnectMaxTries());
+        this.reconnectAfterMillis = config.getReconnectAfterMillis();
+    }
+
+    /**
+     * Send request
+     *
+     * @param encoder function encoding the request with the given transaction id
+     * @return future completing with the response frame. It completes exceptionally with
+     *         {@link ModbusConnectionException} when no connection could be established, and with
+     *         {@link ModbusSlaveIOExceptionImpl} on I/O errors and timeouts. It is cancelled when the client is closed.
+     */
+    public CompletableFuture<Frame> send(IntFunction<ByteBuffer> encoder) {
+        Transaction transaction = new Transaction(encoder);
+        synchronized (lock) {
+            if (closed) {
+                transaction.future.cancel(false);
+                return transaction.future;
+            }
+            queue.add(transaction);
+            pump();
+        }
+        return transaction.future;
+    }
+
+    /**
+     * Number of requests waiting to be sent
+     */
+    public int getQueueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Number of requests sent but not answered yet
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight.size();
+        }
+    }
+
+    /**
+     * Send queued requests, connecting first if necessary. Must be called holding the lock.
+     */
+    private void pump() {
+        while (!closed && !queue.isEmpty()) {
+            AsynchronousSocketChannel localChannel = channel;
+            if (localChannel == null) {
+                if (!connecting) {
+                    connect();
+                }
+                return;
+            }
+            if (writing || inFlight.size() >= maxTransactionsInFlight) {
+                // continued when the write completes or a response arrives
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (reconnectAfterMillis > 0 && now - connectedMillis > reconnectAfterMillis) {
+                if (!inFlight.isEmpty()) {
+                    // continued when the last response arrives or times out
+                    return;
+                }
+                logger.trace("Connection to endpoint {} is older than {} ms, reconnecting", endpoint,
+                        reconnectAfterMillis);
+                disconnect();
+                continue;
+            }
+            if (now < nextSendMillis) {
+                if (sendTimer == null) {
+                    sendTimer = scheduler.schedule(() -> {
+                        synchronized (lock) {
+                            sendTimer = null;
+                            pump();
+                        }
+                    }, nextSendMillis - now, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+
+            Transaction transaction = queue.poll();
+            transaction.transactionId = nextTransactionId();
+            ByteBuffer frame;
+            try {
+                frame = transaction.encoder.apply(transaction.transactionId);
+            } catch (RuntimeException e) {
+                transaction.future.completeExceptionally(e);
+                continue;
+            }
+            inFlight.put(transaction.transactionId, transaction);
+            transaction.timeout = scheduler.schedule(() -> timeout(transaction), responseTimeoutMillis,
+                    TimeUnit.MILLISECONDS);
+            nextSendMillis = now + interTransactionDelayMillis;
+            lastActivityMillis = now;
+            writing = true;
+            logger.trace("Sending transaction {} to endpoint {} ({} in flight)", transaction.transactionId, endpoint,
+                    inFlight.size());
+            write(localChannel, frame);
+        }
+        if (reconnectAfterMillis == 0 && channel != null && queue.isEmpty() && inFlight.isEmpty() && !writing
+                && idleTimer == null) {
+            idleTimer = scheduler.schedule(this::disconnectIfIdle, IDLE_DISCONNECT_DELAY_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void disconnectIfIdle() {
+        synchronized (lock) {
+            idleTimer = null;
+            if (channel == null || !queue.isEmpty() || !inFlight.isEmpty() || writing) {
+                return;
+            }
+            long idleMillis = System.currentTimeMillis() - lastActivityMillis;
+            if (idleMillis < IDLE_DISCONNECT_DELAY_MILLIS) {
+                idleTimer = scheduler.schedule(this::disconnectIfIdle, IDLE_DISCONNECT_DELAY_MILLIS - idleMillis,
+                        TimeUnit.MILLISECONDS);
+                return;
+            }
+            logger.trace("Closing idle connection to endpoint {}", endpoint);
+            disconnect();
+        }
+    }
+
+    /**
+     * Close the connection without failing the requests in flight. Must be called holding the lock.
+     */
+    private void disconnect() {
+        AsynchronousSocketChannel localChannel = channel;
+        channel = null;
+        writing = false;
+        consecutiveTimeouts = 0;
+        if (localChannel != null) {
+            closeQuietly(localChannel);
+        }
+    }
+
+    private int nextTransactionId() {
+        do {
+            lastTransactionId = lastTransactionId >= MAX_TRANSACTION_ID ? 1 : lastTransactionId + 1;
+        } while (inFlight.containsKey(lastTransactionId));
+        return lastTransactionId;
+    }
+
+    private void connect() {
+        connecting = true;
+        long wait = lastConnectMillis + interConnectDelayMillis - System.currentTimeMillis();
+        if (wait > 0) {
+            scheduler.schedule(() -> {
+                synchronized (lock) {
+                    doConnect();
+                }
+            }, wait, TimeUnit.MILLISECONDS);
+        } else {
+            doConnect();
+        }
+    }
+
+    private void doConnect() {
+        if (closed) {
+            connecting = false;
+            return;
+        }
+        lastConnectMillis = System.currentTimeMillis();
+        connectTries++;
+        AsynchronousSocketChannel newChannel;
+        try {
+            newChannel = AsynchronousSocketChannel.open();
+        } catch (IOException e) {
+            connectFailed(null, e);
+            return;
+        }
+        @Nullable
+        ScheduledFuture<?> connectTimeout = connectTimeoutMillis <= 0 ? null : scheduler.schedule(() -> {
+            closeQuietly(newChannel);
+        }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        logger.trace("Connecting to endpoint {} (try {} out of {})", endpoint, connectTries, connectMaxTries);
+        newChannel.connect(new InetSocketAddress(endpoint.getAddress(), endpoint.getPort()), null,
+                new CompletionHandler<@Nullable Void, @Nullable Void>() {
+
+                    @Override
+                    public void completed(@Nullable Void result, @Nullable Void attachment) {
+                        if (connectTimeout != null) {
+                            connectTimeout.cancel(false);
+                        }
+                        synchronized (lock) {
+                            connecting = false;
+                            if (closed) {
+                                closeQuietly(newChannel);
+                                return;
+                            }
+                            logger.debug("Connected to endpoint {}", endpoint);
+                            connectTries = 0;
+                            consecutiveTimeouts = 0;
+                            connectedMillis = lastActivityMillis = System.currentTimeMillis();
+                            channel = newChannel;
+                            readBuffer.clear();
+                            read(newChannel);
+                            pump();
+                        }
+                    }
+
+                    @Override
+                    public void failed(Throwable exc, @Nullable Void attachment) {
+                        if (connectTimeout != null) {
+                            connectTimeout.cancel(false);
+                        }
+                        synchronized (lock) {
+                            connectFailed(newChannel, exc);
+                        }
+                    }
+                });
+    }
+
+    private void connectFailed(@Nullable AsynchronousSocketChannel failedChannel, Throwable error) {
+        connecting = false;
+        if (failedChannel != null) {
+            closeQuietly(failedChannel);
+        }
+        if (closed) {
+            return;
+        }
+        if (connectTries < connectMaxTries) {
+            logger.debug("Connecting to endpoint {} failed (try {} out of {}): {}", endpoint, connectTries,
+                    connectMaxTries, error.getMessage());
+            pump();
+            return;
+        }
+        logger.warn("Could not connect to endpoint {} -- aborting {} requests. Error was: {} {}", endpoint,
+                queue.size(), error.getClass().getName(), error.getMessage());
+        connectTries = 0;
+        List<Transaction> failed = new ArrayList<>(queue);
+        queue.clear();
+        ModbusConnectionException exception = new ModbusConnectionException(endpoint);
+        failed.forEach(transaction -> transaction.future.completeExceptionally(exception));
+    }
+
+    private void write(AsynchronousSocketChannel writeChannel, ByteBuffer frame) {
+        writeChannel.write(frame, null, new CompletionHandler<Integer, @Nullable Void>() {
+
+            @Override
+            public void completed(Integer result, @Nullable Void attachment) {
+                if (frame.hasRemaining()) {
+                    writeChannel.write(frame, null, this);
+                    return;
+                }
+                synchronized (lock) {
+                    if (channel == writeChannel) {
+                        writing = false;
+                        pump();
+                    }
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, @Nullable Void attachment) {
+                connectionFailed(writeChannel, exc);
+            }
+        });
+    }
+
+    private void read(AsynchronousSocketChannel readChannel) {
+        readChannel.read(readBuffer, null, new CompletionHandler<Integer, @Nullable Void>() {
+
+            @Override
+            public void completed(Integer result, @Nullable Void attachment) {
+                if (result < 0) {
+                    connectionFailed(readChannel, new EOFException("Connection closed by the slave"));
+                    return;
+                }
+                List<Transaction> answered = new ArrayList<>();
+                List<Frame> frames = new ArrayList<>();
+                synchronized (lock) {
+                    if (channel != readChannel) {
+                        return;
+                    }
+                    readBuffer.flip();
+                    try {
+                        Frame frame;
+                        while ((frame = ModbusTcpFrameCodec.decode(readBuffer)) != null) {
+                            Transaction transaction = inFlight.remove(frame.getTransactionId());
+                            if (transaction == null) {
+                                logger.debug(
+                                        "Discarding response with unexpected transaction id {} from endpoint {}, request timed out already?",
+                                        frame.getTransactionId(), endpoint);
+                                continue;
+                            }
+                            ScheduledFuture<?> timeout = transaction.timeout;
+                            if (timeout != null) {
+                                timeout.cancel(false);
+                            }
+                            answered.add(transaction);
+                            frames.add(frame);
+                            consecutiveTimeouts = 0;
+                            lastActivityMillis = System.currentTimeMillis();
+                        }
+                    } catch (IllegalStateException e) {
+                        readBuffer.clear();
+                        connectionFailed(readChannel, new IOException(e.getMessage(), e));
+                        return;
+                    }
+                    readBuffer.compact();
+                    read(readChannel);
+                    pump();
+                }
+                for (int i = 0; i < answered.size(); i++) {
+                    answered.get(i).future.complete(frames.get(i));
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, @Nullable Void attachment) {
+                connectionFailed(readChannel, exc);
+            }
+        });
+    }
+
+    private void timeout(Transaction transaction) {
+        @Nullable
+        AsynchronousSocketChannel staleChannel = null;
+        synchronized (lock) {
+            if (inFlight.get(transaction.transactionId) != transaction) {
+                return;
+            }
+            inFlight.remove(transaction.transactionId);
+            if (++consecutiveTimeouts >= MAX_CONSECUTIVE_TIMEOUTS) {
+                staleChannel = channel;
+            }
+            if (staleChannel == null) {
+                // Late responses are discarded, the connection itself might be fine
+                pump();
+            }
+        }
+        SocketTimeoutException error = new SocketTimeoutException(String.format(
+                "No response within %d ms to transaction %d", responseTimeoutMillis, transaction.transactionId));
+        transaction.future.completeExceptionally(new ModbusSlaveIOExceptionImpl(error));
+        if (staleChannel != null) {
+            // The connection might be half-open, e.g. after a gateway restart. Fails the requests still in flight and
+            // reconnects for the queued ones.
+            logger.debug("{} requests in a row to endpoint {} timed out, reconnecting", MAX_CONSECUTIVE_TIMEOUTS,
+                    endpoint);
+            connectionFailed(staleChannel, error);
+        }
+    }
+
+    private void connectionFailed(AsynchronousSocketChannel failedChannel, Throwable error) {
+        List<Transaction> failed;
+        synchronized (lock) {
+            if (channel != failedChannel) {
+                return;
+            }
+            logger.debug("Connection to endpoint {} failed, {} requests in flight: {} {}", endpoint, inFlight.size(),
+                    error.getClass().getName(), error.getMessage());
+            disconnect();
+            failed = new ArrayList<>(inFlight.values());
+            inFlight.clear();
+            failed.forEach(transaction -> {
+                ScheduledFuture<?> timeout = transaction.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+            });
+            // Reconnect for the queued requests
+            pump();
+        }
+        IOException exception = error instanceof IOException ? (IOException) error
+                : new IOException(error.getMessage(), error);
+        failed.forEach(transaction -> transaction.future
+                .completeExceptionally(new ModbusSlaveIOExceptionImpl(exception)));
+    }
+
+    private void closeQuietly(AsynchronousSocketChannel closedChannel) {
+        try {
+            closedChannel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing connection to endpoint {}: {}", endpoint, e.getMessage());
+        }
+    }
+
+    /**
+     * Close the connection. Queued and unanswered requests are cancelled.
+     */
+    @Override
+    public void close() {
+        List<Transaction> cancelled;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelled = new ArrayList<>(queue);
+            cancelled.addAll(inFlight.values());
+            queue.clear();
+            inFlight.clear();
+            ScheduledFuture<?> localSendTimer = sendTimer;
+            if (localSendTimer != null) {
+                localSendTimer.cancel(false);
+                sendTimer = null;
+            }
+            ScheduledFuture<?> localIdleTimer = idleTimer;
+            if (localIdleTimer != null) {
+                localIdleTimer.cancel(false);
+                idleTimer = null;
+            }
+            AsynchronousSocketChannel localChannel = channel;
+            channel = null;
+            if (localChannel != null) {
+                closeQuietly(localChannel);
+            }
+        }
+        cancelled.forEach(transaction -> {
+            ScheduledFuture<?> timeout = transaction.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            transaction.future.cancel(false);
+        });
+        logger.debug("Closed pipelined client of endpoint {}, cancelled {} requests", endpoint, cancelled.size());
+    }
+}
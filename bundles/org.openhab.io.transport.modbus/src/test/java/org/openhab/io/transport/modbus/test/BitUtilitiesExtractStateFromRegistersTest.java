@@ -373,4 +373,40 @@ public class BitUtilitiesExtractStateFromRegistersTest {
         assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type), actualState,
                 is(equalTo(expectedStateWrapped)));
     }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testExtractPrimitiveFromRegisters(Object expectedResult, ValueType type, ModbusRegisterArray registers,
+            int index) {
+        boolean floatType = type == ValueType.FLOAT32 || type == ValueType.FLOAT32_SWAP;
+        if (expectedResult instanceof Class && Exception.class.isAssignableFrom((Class) expectedResult)) {
+            assertThrows((Class) expectedResult, () -> {
+                if (floatType) {
+                    ModbusBitUtilities.extractFloatFromRegisters(registers.asByteBuffer(), index, type);
+                } else {
+                    ModbusBitUtilities.extractLongFromRegisters(registers.asByteBuffer(), index, type);
+                }
+            });
+            return;
+        }
+
+        String message = String.format("registers=%s, index=%d, type=%s", registers, index, type);
+        if (floatType) {
+            float actual = ModbusBitUtilities.extractFloatFromRegisters(registers.asByteBuffer(), index, type);
+            if (expectedResult instanceof DecimalType) {
+                assertThat(message, new DecimalType(actual), is(equalTo(expectedResult)));
+            } else {
+                // NaN and infinity are not representable as DecimalType
+                assertThat(message, Float.isFinite(actual), is(equalTo(false)));
+            }
+        } else {
+            long actual = ModbusBitUtilities.extractLongFromRegisters(registers.asByteBuffer(), index, type);
+            if (type == ValueType.UINT64 || type == ValueType.UINT64_SWAP) {
+                assertThat(message, new DecimalType(Long.toUnsignedString(actual)), is(equalTo(expectedResult)));
+            } else {
+                assertThat(message, new DecimalType(actual), is(equalTo(expectedResult)));
+            }
+        }
+    }
 }
@@ -25,6 +25,7 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.function.LongSupplier;
 
 import org.apache.commons.lang.NotImplementedException;
@@ -346,7 +347,11 @@ public class IntegrationTestSupport extends JavaTest {
 
     public static class NonOSGIModbusManager extends ModbusManagerImpl implements AutoCloseable {
         public NonOSGIModbusManager() {
-            activate(new HashMap<>());
+            this(new HashMap<>());
+        }
+
+        public NonOSGIModbusManager(Map<String, Object> configProperties) {
+            activate(configProperties);
         }
 
         @Override
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares decoding all items of a 64 register poll to <code>DecimalType</code> states with decoding them to
+ * primitives over the register buffer.
+ *
+ * Not run by the build. Run {@link #main(String[])} from the IDE or the test classpath.
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModbusBitUtilitiesBenchmark {
+
+    private static final int REGISTERS = 64;
+
+    @Param({ "UINT16", "INT32", "FLOAT32", "UINT64" })
+    public String valueType = "UINT16";
+
+    private ValueType type = ValueType.UINT16;
+    private ModbusRegisterArray registers = new ModbusRegisterArray(new int[REGISTERS]);
+
+    @Setup
+    public void setup() {
+        type = ValueType.fromConfigValue(valueType.toLowerCase());
+        int[] values = new int[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            values[i] = (0x3F80 + i * 0x0123) & 0xffff;
+        }
+        registers = new ModbusRegisterArray(values);
+    }
+
+    @Benchmark
+    public void extractState(Blackhole blackhole) {
+        int registersPerItem = type.getBits() / 16;
+        for (int index = 0; index + registersPerItem <= REGISTERS; index += registersPerItem) {
+            blackhole.consume(ModbusBitUtilities.extractStateFromRegisters(registers, index, type));
+        }
+    }
+
+    @Benchmark
+    public void extractPrimitive(Blackhole blackhole) {
+        int registersPerItem = type.getBits() / 16;
+        ByteBuffer buffer = registers.asByteBuffer();
+        boolean floatType = type == ValueType.FLOAT32;
+        for (int index = 0; index + registersPerItem <= REGISTERS; index += registersPerItem) {
+            if (floatType) {
+                blackhole.consume(ModbusBitUtilities.extractFloatFromRegisters(buffer, index, type));
+            } else {
+                blackhole.consume(ModbusBitUtilities.extractLongFromRegisters(buffer, index, type));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ModbusBitUtilitiesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
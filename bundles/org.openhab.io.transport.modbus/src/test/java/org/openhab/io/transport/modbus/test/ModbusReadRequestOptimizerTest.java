@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusConstants;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadRequestOptimizer;
+import org.openhab.io.transport.modbus.ModbusReadRequestOptimizer.MergedRead;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusReadRequestOptimizerTest {
+
+    private static ModbusReadRequestBlueprint holding(int start, int length) {
+        return new ModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, length, 1);
+    }
+
+    @Test
+    public void testAdjacentAndOverlappingMerged() {
+        ModbusReadRequestBlueprint first = holding(0, 10);
+        ModbusReadRequestBlueprint second = holding(10, 5);
+        ModbusReadRequestBlueprint third = holding(12, 10);
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(0).merge(Arrays.asList(third, first, second));
+
+        assertThat(reads.size(), is(equalTo(1)));
+        ModbusReadRequestBlueprint request = reads.get(0).getRequest();
+        assertThat(request.getReference(), is(equalTo(0)));
+        assertThat(request.getDataLength(), is(equalTo(22)));
+        assertThat(reads.get(0).getParts(), is(equalTo(Arrays.asList(first, second, third))));
+    }
+
+    @Test
+    public void testGapTolerance() {
+        ModbusReadRequestBlueprint first = holding(0, 10);
+        ModbusReadRequestBlueprint second = holding(13, 2);
+
+        assertThat(new ModbusReadRequestOptimizer(2).merge(Arrays.asList(first, second)).size(), is(equalTo(2)));
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(3).merge(Arrays.asList(first, second));
+        assertThat(reads.size(), is(equalTo(1)));
+        assertThat(reads.get(0).getRequest().getDataLength(), is(equalTo(15)));
+    }
+
+    @Test
+    public void testSingleRequestNotChanged() {
+        ModbusReadRequestBlueprint first = holding(0, 10);
+        ModbusReadRequestBlueprint second = holding(20, 10);
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(0).merge(Arrays.asList(first, second));
+
+        assertThat(reads.size(), is(equalTo(2)));
+        assertThat(reads.get(0).getRequest(), is(sameInstance(first)));
+        assertThat(reads.get(1).getRequest(), is(sameInstance(second)));
+    }
+
+    @Test
+    public void testDifferentSlaveOrFunctionCodeNotMerged() {
+        ModbusReadRequestBlueprint first = holding(0, 10);
+        ModbusReadRequestBlueprint otherSlave = new ModbusReadRequestBlueprint(2,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 10, 1);
+        ModbusReadRequestBlueprint otherFunctionCode = new ModbusReadRequestBlueprint(1,
+                ModbusReadFunctionCode.READ_INPUT_REGISTERS, 10, 10, 1);
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(0)
+                .merge(Arrays.asList(first, otherSlave, otherFunctionCode));
+
+        assertThat(reads.size(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testMaxReadCountRespected() {
+        ModbusReadRequestBlueprint first = holding(0, 100);
+        ModbusReadRequestBlueprint second = holding(100, ModbusConstants.MAX_REGISTERS_READ_COUNT - 100);
+        ModbusReadRequestBlueprint third = holding(ModbusConstants.MAX_REGISTERS_READ_COUNT, 1);
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(0).merge(Arrays.asList(first, second, third));
+
+        assertThat(reads.size(), is(equalTo(2)));
+        assertThat(reads.get(0).getRequest().getDataLength(), is(equalTo(ModbusConstants.MAX_REGISTERS_READ_COUNT)));
+        assertThat(reads.get(1).getRequest(), is(sameInstance(third)));
+    }
+
+    @Test
+    public void testMaxTriesOfMergedRead() {
+        ModbusReadRequestBlueprint first = new ModbusReadRequestBlueprint(1,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, 1);
+        ModbusReadRequestBlueprint second = new ModbusReadRequestBlueprint(1,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, 3);
+        List<MergedRead> reads = new ModbusReadRequestOptimizer(0).merge(Arrays.asList(first, second));
+
+        assertThat(reads.get(0).getRequest().getMaxTries(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testSliceRegisters() {
+        ModbusReadRequestBlueprint first = holding(5, 2);
+        ModbusReadRequestBlueprint second = holding(8, 1);
+        MergedRead read = new ModbusReadRequestOptimizer(1).merge(Arrays.asList(first, second)).get(0);
+        AsyncModbusReadResult result = new AsyncModbusReadResult(read.getRequest(),
+                new ModbusRegisterArray(new int[] { 5, 6, 7, 8 }));
+
+        AsyncModbusReadResult firstResult = read.slice(result, first);
+        assertThat(firstResult.getRequest(), is(sameInstance(first)));
+        assertThat(firstResult.getRegisters().get().toHexString(), is(equalTo("00050006")));
+        AsyncModbusReadResult secondResult = read.slice(result, second);
+        assertThat(secondResult.getRequest(), is(sameInstance(second)));
+        assertThat(secondResult.getRegisters().get().toHexString(), is(equalTo("0008")));
+    }
+
+    @Test
+    public void testSliceBits() {
+        ModbusReadRequestBlueprint first = new ModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_COILS, 0, 3,
+                1);
+        ModbusReadRequestBlueprint second = new ModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_COILS, 3, 2,
+                1);
+        MergedRead read = new ModbusReadRequestOptimizer(0).merge(Arrays.asList(first, second)).get(0);
+        // Bit responses are padded to full bytes
+        AsyncModbusReadResult result = new AsyncModbusReadResult(read.getRequest(),
+                new BitArray(true, false, false, true, true, false, false, false));
+
+        assertThat(read.slice(result, first).getBits().get(), is(equalTo(new BitArray(true, false, false))));
+        assertThat(read.slice(result, second).getBits().get(), is(equalTo(new BitArray(true, true))));
+    }
+
+    @Test
+    public void testNegativeGap() {
+        assertThrows(IllegalArgumentException.class, () -> new ModbusReadRequestOptimizer(-1));
+    }
+}
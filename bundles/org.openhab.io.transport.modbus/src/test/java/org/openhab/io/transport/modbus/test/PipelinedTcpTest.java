@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.exception.ModbusSlaveErrorResponseException;
+
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.WriteCoilRequest;
+import net.wimpi.modbus.procimg.SimpleDigitalOut;
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests for the manager with pipelining enabled with TCP slaves
+ *
+ * @author agent - Initial contribution
+ */
+public class PipelinedTcpTest extends IntegrationTestSupport {
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        modbusManager.close();
+        Map<String, Object> config = new HashMap<>();
+        config.put("pipelinedTcp", true);
+        config.put("maxTransactionsInFlight", "4");
+        modbusManager = new NonOSGIModbusManager(config);
+    }
+
+    private void generateData() {
+        for (int i = 0; i < 100; i++) {
+            spi.addRegister(new SimpleRegister(i));
+            spi.addDigitalOut(new SimpleDigitalOut(false));
+        }
+    }
+
+    @Test
+    public void testOneOffReadWithHolding() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        AtomicReference<ModbusRegisterArray> lastData = new AtomicReference<>();
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            comms.submitOneTimePoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 15, 1), result -> {
+                        if (result.getRegisters().isPresent()) {
+                            lastData.set(result.getRegisters().get());
+                        } else {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        callbackCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    });
+            assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+            ModbusRegisterArray registers = lastData.get();
+            assertThat(registers.size(), is(equalTo(15)));
+            for (int i = 0; i < 15; i++) {
+                assertThat(registers.getRegister(i), is(equalTo(i + 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testManyOneOffReadsShareConnection() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        int requests = 20;
+        Queue<Integer> firstValues = new ConcurrentLinkedQueue<>();
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(requests);
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            for (int i = 0; i < requests; i++) {
+                comms.submitOneTimePoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                        ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, i, 2, 1), result -> {
+                            if (result.getRegisters().isPresent()) {
+                                firstValues.add(result.getRegisters().get().getRegister(0));
+                            } else {
+                                unexpectedCount.incrementAndGet();
+                            }
+                            callbackCalled.countDown();
+                        }, failure -> {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        });
+            }
+            assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+            assertThat(firstValues.size(), is(equalTo(requests)));
+            for (int i = 0; i < requests; i++) {
+                assertTrue(firstValues.contains(i), "Missing response for register " + i);
+            }
+            waitForRequests(requests);
+            waitForConnectionsReceived(1);
+        }
+    }
+
+    private void readOnce(ModbusCommunicationInterface comms) throws InterruptedException {
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        comms.submitOneTimePoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 2, 1), result -> {
+                    callbackCalled.countDown();
+                }, failure -> {
+                    unexpectedCount.incrementAndGet();
+                    callbackCalled.countDown();
+                });
+        assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+    }
+
+    /**
+     * With the default reconnect interval of zero, the connection is closed once idle and reconnected on demand
+     */
+    @Test
+    public void testIdleConnectionIsClosed() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            readOnce(comms);
+            Thread.sleep(500);
+            readOnce(comms);
+            waitForConnectionsReceived(2);
+        }
+    }
+
+    /**
+     * With a negative reconnect interval, the connection is kept open
+     */
+    @Test
+    public void testConnectionIsKeptOpen() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setReconnectAfterMillis(-1);
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint,
+                configuration)) {
+            readOnce(comms);
+            Thread.sleep(500);
+            readOnce(comms);
+            waitForConnectionsReceived(1);
+        }
+    }
+
+    @Test
+    public void testOneOffWriteSingleCoil() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        AtomicReference<ModbusResponse> lastData = new AtomicReference<>();
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            comms.submitOneTimeWrite(new ModbusWriteCoilRequestBlueprint(SLAVE_UNIT_ID, 3, new BitArray(true), false,
+                    1), result -> {
+                        lastData.set(result.getResponse());
+                        callbackCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    });
+            assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+            assertThat(lastData.get().getFunctionCode(), is(equalTo(5)));
+
+            assertThat(modbustRequestCaptor.getAllReturnValues().size(), is(equalTo(1)));
+            ModbusRequest request = modbustRequestCaptor.getAllReturnValues().get(0);
+            assertThat(request.getFunctionCode(), is(equalTo(5)));
+            assertThat(((WriteCoilRequest) request).getReference(), is(equalTo(3)));
+            assertThat(((WriteCoilRequest) request).getCoil(), is(equalTo(true)));
+        }
+    }
+
+    /**
+     * Test handling of slave error responses. In this case, error code = 2, illegal data address, since no data.
+     */
+    @Test
+    public void testSlaveReadErrorResponse() throws Exception {
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        AtomicInteger okCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        AtomicReference<Exception> lastError = new AtomicReference<>();
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            comms.submitOneTimePoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 5, 1), result -> {
+                        okCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    }, failure -> {
+                        lastError.set(failure.getCause());
+                        callbackCalled.countDown();
+                    });
+            assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+
+            assertThat(okCount.get(), is(equalTo(0)));
+            assertTrue(lastError.get() instanceof ModbusSlaveErrorResponseException, String.valueOf(lastError.get()));
+            assertThat(((ModbusSlaveErrorResponseException) lastError.get()).getExceptionCode(), is(equalTo(2)));
+        }
+    }
+}
@@ -58,6 +58,7 @@ import org.openhab.io.transport.modbus.exception.ModbusSlaveIOException;
 import org.slf4j.LoggerFactory;
 
 import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
 import net.wimpi.modbus.msg.WriteCoilRequest;
 import net.wimpi.modbus.msg.WriteMultipleCoilsRequest;
 import net.wimpi.modbus.procimg.SimpleDigitalIn;
@@ -564,6 +565,48 @@ public class SmokeTest extends IntegrationTestSupport {
         }
     }
 
+    /**
+     * Write submitted after polls is executed before the polls still waiting for their turn
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOneOffWriteBeforeQueuedPolls() throws Exception {
+        generateData();
+        artificialServerWait = 300;
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch callbackCalled = new CountDownLatch(4);
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint, null)) {
+            for (int i = 0; i < 3; i++) {
+                comms.submitOneTimePoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                        ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, i, 1, 1), result -> {
+                            callbackCalled.countDown();
+                        }, failure -> {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        });
+            }
+            comms.submitOneTimeWrite(new ModbusWriteCoilRequestBlueprint(SLAVE_UNIT_ID, 3, new BitArray(true), false, 1),
+                    result -> {
+                        callbackCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                        callbackCalled.countDown();
+                    });
+            assertTrue(callbackCalled.await(60, TimeUnit.SECONDS));
+
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+            assertThat(modbustRequestCaptor.getAllReturnValues().size(), is(equalTo(4)));
+            // First poll was executing already when the write was submitted
+            assertThat(modbustRequestCaptor.getAllReturnValues().get(0).getFunctionCode(), is(equalTo(3)));
+            assertThat(modbustRequestCaptor.getAllReturnValues().get(1).getFunctionCode(), is(equalTo(5)));
+            assertThat(modbustRequestCaptor.getAllReturnValues().get(2).getFunctionCode(), is(equalTo(3)));
+            assertThat(modbustRequestCaptor.getAllReturnValues().get(3).getFunctionCode(), is(equalTo(3)));
+        }
+    }
+
     /**
      * Testing regular polling of coils
      *
@@ -654,6 +697,117 @@ public class SmokeTest extends IntegrationTestSupport {
         }
     }
 
+    /**
+     * Testing regular polling of adjacent holding registers with read coalescing enabled
+     *
+     * Both polls should be served by a single read request
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRegularReadCoalescedWithHolding() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setReadCoalescingGap(0);
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch firstCalled = new CountDownLatch(3);
+        CountDownLatch secondCalled = new CountDownLatch(3);
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint,
+                configuration)) {
+            comms.registerRegularPoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 8, 1), 150, 0, result -> {
+                        try {
+                            assertThat(result.getRequest().getReference(), is(equalTo(1)));
+                            ModbusRegisterArray registers = result.getRegisters().get();
+                            assertThat(registers.size(), is(equalTo(8)));
+                            testHoldingValues(registers, 1);
+                        } catch (AssertionError | RuntimeException e) {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        firstCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                    });
+            comms.registerRegularPoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 9, 7, 1), 150, 0, result -> {
+                        try {
+                            assertThat(result.getRequest().getReference(), is(equalTo(9)));
+                            ModbusRegisterArray registers = result.getRegisters().get();
+                            assertThat(registers.size(), is(equalTo(7)));
+                            testHoldingValues(registers, 9);
+                        } catch (AssertionError | RuntimeException e) {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        secondCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                    });
+            assertTrue(firstCalled.await(60, TimeUnit.SECONDS));
+            assertTrue(secondCalled.await(60, TimeUnit.SECONDS));
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+        }
+        // The first poll might have been executed before the second one was registered
+        long separateReads = modbustRequestCaptor.getAllReturnValues().stream()
+                .filter(request -> ((ReadMultipleRegistersRequest) request).getWordCount() != 15).count();
+        assertTrue(separateReads <= 1, "Polls were read separately " + separateReads + " times");
+    }
+
+    /**
+     * Testing that unregistering one of two coalesced polls keeps the other one polling
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testUnregisterOneOfCoalescedPolls() throws Exception {
+        generateData();
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setReadCoalescingGap(0);
+
+        AtomicInteger unexpectedCount = new AtomicInteger();
+        CountDownLatch firstCalled = new CountDownLatch(1);
+        CountDownLatch secondCalled = new CountDownLatch(1);
+        AtomicInteger secondReceived = new AtomicInteger();
+
+        try (ModbusCommunicationInterface comms = modbusManager.newModbusCommunicationInterface(endpoint,
+                configuration)) {
+            PollTask first = comms.registerRegularPoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 8, 1), 150, 0, result -> {
+                        firstCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                    });
+            comms.registerRegularPoll(new ModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 9, 7, 1), 150, 0, result -> {
+                        try {
+                            ModbusRegisterArray registers = result.getRegisters().get();
+                            assertThat(registers.size(), is(equalTo(7)));
+                            testHoldingValues(registers, 9);
+                        } catch (AssertionError | RuntimeException e) {
+                            unexpectedCount.incrementAndGet();
+                        }
+                        secondReceived.incrementAndGet();
+                        secondCalled.countDown();
+                    }, failure -> {
+                        unexpectedCount.incrementAndGet();
+                    });
+            assertTrue(firstCalled.await(60, TimeUnit.SECONDS));
+            assertTrue(secondCalled.await(60, TimeUnit.SECONDS));
+
+            assertTrue(comms.unregisterRegularPoll(first));
+            int receivedBefore = secondReceived.get();
+
+            // the remaining poll should still be executed according to its period
+            Thread.sleep(1000);
+            assertThat(unexpectedCount.get(), is(equalTo(0)));
+            assertTrue(secondReceived.get() > receivedBefore + 1,
+                    "Remaining poll was not executed after unregistering the other one");
+        }
+    }
+
     @Test
     public void testRegularReadFirstErrorThenOK() throws Exception {
         generateData();
@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.influxdb;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
@@ -34,9 +35,12 @@ import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
+import org.openhab.persistence.influxdb.internal.Aggregation;
+import org.openhab.persistence.influxdb.internal.BufferedPointWriter;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
+import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItemIterable;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
@@ -81,6 +85,11 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     protected static final String CONFIG_URI = "persistence:influxdb";
 
+    // milliseconds to wait for the buffered points to be written on deactivation
+    private static final long FLUSH_TIMEOUT = 10000;
+    // maximum number of points read by one query while a result is iterated
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
     // External dependencies
     private final ItemRegistry itemRegistry;
     private final MetadataRegistry metadataRegistry;
@@ -92,6 +101,9 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     private @NonNullByDefault({}) ItemToStorePointCreator itemToStorePointCreator;
     private @NonNullByDefault({}) InfluxDBRepository influxDBRepository;
 
+    // Replaced on activation and cleared on deactivation while items may still be stored
+    private volatile @Nullable BufferedPointWriter pointWriter;
+
     @Activate
     public InfluxDBPersistenceService(final @Reference ItemRegistry itemRegistry,
             final @Reference MetadataRegistry metadataRegistry) {
@@ -110,6 +122,8 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
             itemToStorePointCreator = new ItemToStorePointCreator(configuration, metadataRegistry);
             influxDBRepository = createInfluxDBRepository();
             influxDBRepository.connect();
+            pointWriter = new BufferedPointWriter(influxDBRepository, configuration.getBufferSize(),
+                    configuration.getBatchSize(), configuration.getLingerTime());
         } else {
             logger.error("Cannot load configuration, persistence service wont work");
         }
@@ -128,6 +142,11 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("InfluxDB persistence service deactivated");
+        final BufferedPointWriter currentPointWriter = pointWriter;
+        if (currentPointWriter != null) {
+            pointWriter = null;
+            currentPointWriter.close(FLUSH_TIMEOUT);
+        }
         if (influxDBRepository != null) {
             influxDBRepository.disconnect();
             influxDBRepository = null;
@@ -199,11 +218,12 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     @Override
     public void store(Item item, @Nullable String alias) {
-        if (influxDBRepository != null && influxDBRepository.isConnected()) {
+        final BufferedPointWriter currentPointWriter = pointWriter;
+        if (currentPointWriter != null && influxDBRepository != null && influxDBRepository.isConnected()) {
             InfluxPoint point = itemToStorePointCreator.convert(item, alias);
             if (point != null) {
                 logger.trace("Storing item {} in InfluxDB point {}", item, point);
-                influxDBRepository.write(point);
+                currentPointWriter.add(point);
             } else {
                 logger.trace("Ignoring item {} as is cannot be converted to a InfluxDB point", item);
             }
@@ -222,8 +242,36 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
                     filter.getItemName(), filter.getOrdering().toString(), filter.getState(), filter.getOperator(),
                     filter.getBeginDate(), filter.getEndDate(), filter.getPageSize(), filter.getPageNumber());
 
-            String query = RepositoryFactory.createQueryCreator(configuration).createQuery(filter,
-                    configuration.getRetentionPolicy());
+            FilterCriteriaQueryCreator queryCreator = RepositoryFactory.createQueryCreator(configuration);
+            String retentionPolicy = configuration.getRetentionPolicy();
+            InfluxDBRepository repository = influxDBRepository;
+            int skip = filter.getPageSize() != Integer.MAX_VALUE ? filter.getPageNumber() * filter.getPageSize() : 0;
+            return new InfluxDBHistoricItemIterable((offset, limit) -> {
+                String query = queryCreator.createQuery(filter, retentionPolicy, offset, limit);
+                logger.trace("Query {}", query);
+                return repository.query(query);
+            }, skip, QUERY_CHUNK_SIZE, filter.getPageSize(), this::mapRow2HistoricItem);
+        } else {
+            logger.debug("query ignored, InfluxDB is not yet connected");
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Queries the database like {@link #query(FilterCriteria)}, but lets InfluxDB reduce the points to one point per
+     * time bucket, so only the downsampled series is transferred.
+     *
+     * @param filter the filter to apply to the query, page size and number apply to the buckets
+     * @param bucket width of the time buckets
+     * @param aggregation function applied to the points of each bucket
+     * @return one historic item per non-empty bucket
+     */
+    public Iterable<HistoricItem> query(FilterCriteria filter, Duration bucket, Aggregation aggregation) {
+        logger.debug("Got an aggregated query for historic points!");
+
+        if (influxDBRepository != null && influxDBRepository.isConnected()) {
+            String query = RepositoryFactory.createQueryCreator(configuration).createAggregatedQuery(filter,
+                    configuration.getRetentionPolicy(), bucket, aggregation);
             logger.trace("Query {}", query);
             List<InfluxRow> results = influxDBRepository.query(query);
             return results.stream().map(this::mapRow2HistoricItem).collect(Collectors.toList());
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Function used to reduce all points of a time bucket to a single point in aggregated queries
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public enum Aggregation {
+    MIN("MIN", "min"),
+    MAX("MAX", "max"),
+    AVG("MEAN", "mean"),
+    LAST("LAST", "last");
+
+    private final String influxQLFunction;
+    private final String fluxFunction;
+
+    Aggregation(String influxQLFunction, String fluxFunction) {
+        this.influxQLFunction = influxQLFunction;
+        this.fluxFunction = fluxFunction;
+    }
+
+    /**
+     * @return Name of the InfluxQL (1.X) selector/aggregation function
+     */
+    public String getInfluxQLFunction() {
+        return influxQLFunction;
+    }
+
+    /**
+     * @return Name of the Flux (2.X) function passed to aggregateWindow
+     */
+    public String getFluxFunction() {
+        return fluxFunction;
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers points and writes them to the repository in batches from a thread of the {@link #POOL_NAME} pool.
+ *
+ * {@link #add(InfluxPoint)} never blocks: if the buffer is full, the oldest buffered point is dropped to make room.
+ * The writer sends a batch as soon as {@code batchSize} points are buffered or when the oldest point of the batch has
+ * waited {@code lingerTime} milliseconds. A batch that fails is retried {@link #MAX_ATTEMPTS} times before it is
+ * dropped, points keep being buffered meanwhile. While the repository is not connected, the batch is kept until the
+ * connection is back.
+ *
+ * Based on the {@code AbstractBufferedPersistenceService} of the DynamoDB persistence service.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class BufferedPointWriter {
+    public static final int MAX_ATTEMPTS = 3;
+    public static final String POOL_NAME = "persistence.influxdb";
+
+    private static final long POLL_INTERVAL = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(BufferedPointWriter.class);
+
+    private final InfluxDBRepository repository;
+    private final BlockingDeque<InfluxPoint> buffer;
+    private final int batchSize;
+    private final long lingerTime;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Future<?> writer;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param repository repository the batches are written to
+     * @param bufferSize maximum number of buffered points
+     * @param batchSize maximum number of points written at once
+     * @param lingerTime milliseconds a point waits for more points before it is written
+     */
+    public BufferedPointWriter(InfluxDBRepository repository, int bufferSize, int batchSize, long lingerTime) {
+        this.repository = repository;
+        this.buffer = new LinkedBlockingDeque<>(Math.max(1, bufferSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerTime = Math.max(0, lingerTime);
+        this.writer = ThreadPoolManager.getPool(POOL_NAME).submit(this::run);
+    }
+
+    /**
+     * Queues a point for writing, dropping the oldest buffered point if the buffer is full.
+     */
+    public void add(InfluxPoint point) {
+        while (!buffer.offerLast(point)) {
+            if (buffer.pollFirst() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of points waiting to be written.
+     */
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops the writer after it has written the buffered points, waiting at most {@code timeout} milliseconds.
+     */
+    public void close(long timeout) {
+        running = false;
+        try {
+            writer.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("InfluxDB writer failed: {}", e.getMessage());
+        } catch (TimeoutException e) {
+            logger.warn("Timed out writing buffered points, {} points are lost", buffer.size());
+            writer.cancel(true);
+        }
+    }
+
+    private void run() {
+        List<InfluxPoint> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                attempts = 0;
+                if (!collect(batch)) {
+                    continue;
+                }
+            }
+            logDropped();
+            if (repository.write(batch)) {
+                batch.clear();
+            } else if (running && !repository.isConnected()) {
+                // keep the batch for the reconnect, the buffer drops its oldest points when it is full
+                pause(lingerTime);
+            } else if (++attempts >= MAX_ATTEMPTS) {
+                logger.warn("Dropping {} points after {} failed write attempts", batch.size(), attempts);
+                batch.clear();
+            } else {
+                pause(lingerTime);
+            }
+        }
+        logDropped();
+        logger.debug("InfluxDB writer stopped");
+    }
+
+    /**
+     * Waits for the first point, then for the batch to fill up until the linger time of that point has passed.
+     *
+     * @return true if the batch contains points
+     */
+    private boolean collect(List<InfluxPoint> batch) {
+        try {
+            InfluxPoint first = buffer.pollFirst(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return false;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerTime);
+            while (batch.size() < batchSize) {
+                buffer.drainTo(batch, batchSize - batch.size());
+                long remaining = Math.min(deadline - System.nanoTime(),
+                        TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL));
+                if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                    break;
+                }
+                InfluxPoint next = buffer.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    batch.add(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            // write what is left without waiting
+            buffer.drainTo(batch, batchSize - batch.size());
+        }
+        return !batch.isEmpty();
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(Math.max(millis, POLL_INTERVAL));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void logDropped() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            logger.warn("InfluxDB write buffer is full, dropped {} oldest points", count);
+        }
+    }
+}
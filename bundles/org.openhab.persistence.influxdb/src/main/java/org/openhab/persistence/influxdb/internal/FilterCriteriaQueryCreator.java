@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import java.time.Duration;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.persistence.FilterCriteria;
 
@@ -31,6 +33,29 @@ public interface FilterCriteriaQueryCreator {
      */
     String createQuery(FilterCriteria criteria, String retentionPolicy);
 
+    /**
+     * Create query from {@link FilterCriteria} that returns one chunk of the points
+     *
+     * @param criteria Criteria to create query from, its page size and number are ignored
+     * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
+     * @param offset Number of points to skip
+     * @param limit Maximum number of points to return
+     * @return Created query as an String
+     */
+    String createQuery(FilterCriteria criteria, String retentionPolicy, int offset, int limit);
+
+    /**
+     * Create query from {@link FilterCriteria} that returns only one point per time bucket
+     *
+     * @param criteria Criteria to create query from, page size and number apply to the buckets
+     * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
+     * @param bucket Width of the time buckets
+     * @param aggregation Function applied to the points of each bucket
+     * @return Created query as an String
+     */
+    String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, Duration bucket,
+            Aggregation aggregation);
+
     default String getOperationSymbol(FilterCriteria.Operator operator, InfluxDBVersion version) {
         switch (operator) {
             case EQ:
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Query result that reads its points in chunks while it is iterated.
+ *
+ * Every chunk is read by a query of its own, so no HTTP request is left open between two calls of the iterator or
+ * when a reader stops early. Chunks continue by skipping the points read so far. Only the current chunk is kept in
+ * memory; every iterator reads the result from the database again.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBHistoricItemIterable implements Iterable<HistoricItem> {
+
+    /**
+     * Queries the points of a chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkQuery {
+        List<InfluxRow> query(int offset, int limit);
+    }
+
+    private final ChunkQuery query;
+    private final int skip;
+    private final int chunkSize;
+    private final int maxRows;
+    private final Function<InfluxRow, HistoricItem> converter;
+
+    /**
+     * @param query queries the points of each chunk
+     * @param skip number of points to skip before the first chunk
+     * @param chunkSize maximum number of points read by one query
+     * @param maxRows number of points after which the result ends
+     * @param converter converts a point into a historic item
+     */
+    public InfluxDBHistoricItemIterable(ChunkQuery query, int skip, int chunkSize, int maxRows,
+            Function<InfluxRow, HistoricItem> converter) {
+        this.query = query;
+        this.skip = skip;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = maxRows;
+        this.converter = converter;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new ChunkIterator();
+    }
+
+    private class ChunkIterator implements Iterator<HistoricItem> {
+        private Iterator<InfluxRow> chunk = Collections.emptyIterator();
+        private int rows = 0;
+        private boolean complete = false;
+
+        @Override
+        public boolean hasNext() {
+            while (!chunk.hasNext() && !complete) {
+                readChunk();
+            }
+            return chunk.hasNext();
+        }
+
+        @Override
+        public HistoricItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return converter.apply(chunk.next());
+        }
+
+        private void readChunk() {
+            int limit = Math.min(chunkSize, maxRows - rows);
+            List<InfluxRow> read = query.query(skip + rows, limit);
+            rows += read.size();
+            complete = read.size() < limit || rows >= maxRows;
+            chunk = read.iterator();
+        }
+    }
+}
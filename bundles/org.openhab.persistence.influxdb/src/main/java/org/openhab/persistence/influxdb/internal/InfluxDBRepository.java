@@ -66,9 +66,10 @@ public interface InfluxDBRepository {
     List<InfluxRow> query(String query);
 
     /**
-     * Write point to database
+     * Write points to database in a single request
      *
-     * @param influxPoint Point to write
+     * @param influxPoints Points to write
+     * @return True if the points have been written, false if the write failed and may be retried
      */
-    void write(InfluxPoint influxPoint);
+    boolean write(List<InfluxPoint> influxPoints);
 }
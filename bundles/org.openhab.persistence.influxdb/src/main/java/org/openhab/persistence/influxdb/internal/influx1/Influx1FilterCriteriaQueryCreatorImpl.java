@@ -16,6 +16,8 @@ import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
+import java.time.Duration;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.influxdb.dto.Query;
 import org.influxdb.querybuilder.Appender;
@@ -24,6 +26,7 @@ import org.influxdb.querybuilder.Select;
 import org.influxdb.querybuilder.Where;
 import org.influxdb.querybuilder.clauses.SimpleClause;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.persistence.influxdb.internal.Aggregation;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
 
@@ -37,6 +40,33 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
 
     @Override
     public String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        Select select = createSelect(criteria, retentionPolicy);
+        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            if (criteria.getPageNumber() != 0) {
+                select = select.limit(criteria.getPageSize(), criteria.getPageSize() * criteria.getPageNumber());
+            } else {
+                select = select.limit(criteria.getPageSize());
+            }
+        }
+
+        final Query query = (Query) select;
+        return query.getCommand();
+    }
+
+    @Override
+    public String createQuery(FilterCriteria criteria, String retentionPolicy, int offset, int limit) {
+        Select select = createSelect(criteria, retentionPolicy);
+        if (offset != 0) {
+            select = select.limit(limit, offset);
+        } else {
+            select = select.limit(limit);
+        }
+
+        final Query query = (Query) select;
+        return query.getCommand();
+    }
+
+    private Select createSelect(FilterCriteria criteria, String retentionPolicy) {
         final String tableName;
         boolean hasCriteriaName = criteria.getItemName() != null;
         if (hasCriteriaName) {
@@ -69,17 +99,59 @@ public class Influx1FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
         } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
             select = select.orderBy(asc());
         }
+        return select;
+    }
+
+    @Override
+    public String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, Duration bucket,
+            Aggregation aggregation) {
+        final String tableName;
+        boolean hasCriteriaName = criteria.getItemName() != null;
+        if (hasCriteriaName) {
+            tableName = criteria.getItemName();
+        } else {
+            tableName = "/.*/";
+        }
+
+        StringBuilder sb = new StringBuilder("SELECT ");
+        sb.append(aggregation.getInfluxQLFunction()).append("(").append(COLUMN_VALUE_NAME_V1).append(") AS ")
+                .append(COLUMN_VALUE_NAME_V1);
+        sb.append(" FROM ").append(fullQualifiedTableName(retentionPolicy, tableName, hasCriteriaName));
+
+        String separator = " WHERE ";
+        if (criteria.getBeginDate() != null) {
+            sb.append(separator).append(COLUMN_TIME_NAME_V1).append(" >= ");
+            Appender.appendValue(criteria.getBeginDate().toInstant().toString(), sb);
+            separator = " AND ";
+        }
+        if (criteria.getEndDate() != null) {
+            sb.append(separator).append(COLUMN_TIME_NAME_V1).append(" <= ");
+            Appender.appendValue(criteria.getEndDate().toInstant().toString(), sb);
+            separator = " AND ";
+        }
+        if (criteria.getState() != null && criteria.getOperator() != null) {
+            sb.append(separator).append(COLUMN_VALUE_NAME_V1).append(" ")
+                    .append(getOperationSymbol(criteria.getOperator(), InfluxDBVersion.V1)).append(" ");
+            Appender.appendValue(stateToObject(criteria.getState()), sb);
+        }
+
+        // empty buckets are skipped instead of being returned as null values
+        sb.append(" GROUP BY ").append(COLUMN_TIME_NAME_V1).append("(").append(bucket.toMillis())
+                .append("ms) fill(none)");
+
+        if (criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING) {
+            sb.append(" ORDER BY ").append(COLUMN_TIME_NAME_V1).append(" DESC");
+        } else if (criteria.getOrdering() == FilterCriteria.Ordering.ASCENDING) {
+            sb.append(" ORDER BY ").append(COLUMN_TIME_NAME_V1).append(" ASC");
+        }
 
         if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            sb.append(" LIMIT ").append(criteria.getPageSize());
             if (criteria.getPageNumber() != 0) {
-                select = select.limit(criteria.getPageSize(), criteria.getPageSize() * criteria.getPageNumber());
-            } else {
-                select = select.limit(criteria.getPageSize());
+                sb.append(" OFFSET ").append(criteria.getPageSize() * criteria.getPageNumber());
             }
         }
-
-        final Query query = (Query) select;
-        return query.getCommand();
+        return sb.append(";").toString();
     }
 
     private String fullQualifiedTableName(String retentionPolicy, String tableName, boolean escapeTableName) {
@@ -16,10 +16,13 @@ import static com.influxdb.query.dsl.functions.restriction.Restrictions.measurem
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 import static org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils.stateToObject;
 
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.persistence.influxdb.internal.Aggregation;
 import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBVersion;
 
@@ -36,6 +39,31 @@ import com.influxdb.query.dsl.functions.restriction.Restrictions;
 public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQueryCreator {
     @Override
     public String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        return page(createFlux(criteria, retentionPolicy, null, null), criteria).toString();
+    }
+
+    @Override
+    public String createQuery(FilterCriteria criteria, String retentionPolicy, int offset, int limit) {
+        return createFlux(criteria, retentionPolicy, null, null).limit(limit).withPropertyValue("offset", offset)
+                .toString();
+    }
+
+    @Override
+    public String createAggregatedQuery(FilterCriteria criteria, String retentionPolicy, Duration bucket,
+            Aggregation aggregation) {
+        return page(createFlux(criteria, retentionPolicy, bucket, aggregation), criteria).toString();
+    }
+
+    private Flux page(Flux flux, FilterCriteria criteria) {
+        if (criteria.getPageSize() != Integer.MAX_VALUE) {
+            return flux.limit(criteria.getPageSize()).withPropertyValue("offset",
+                    criteria.getPageNumber() * criteria.getPageSize());
+        }
+        return flux;
+    }
+
+    private Flux createFlux(FilterCriteria criteria, String retentionPolicy, @Nullable Duration bucket,
+            @Nullable Aggregation aggregation) {
         Flux flux = Flux.from(retentionPolicy);
 
         if (criteria.getBeginDate() != null || criteria.getEndDate() != null) {
@@ -62,16 +90,17 @@ public class Influx2FilterCriteriaQueryCreatorImpl implements FilterCriteriaQuer
             flux = flux.filter(restrictions);
         }
 
+        if (bucket != null && aggregation != null) {
+            // empty windows are skipped instead of being returned as null values
+            flux = flux.aggregateWindow(bucket.toMillis(), ChronoUnit.MILLIS, aggregation.getFluxFunction())
+                    .withPropertyValue("createEmpty", false);
+        }
+
         if (criteria.getOrdering() != null) {
             boolean desc = criteria.getOrdering() == FilterCriteria.Ordering.DESCENDING;
             flux = flux.sort().withDesc(desc).withColumns(new String[] { COLUMN_TIME_NAME_V2 });
         }
 
-        if (criteria.getPageSize() != Integer.MAX_VALUE) {
-            flux = flux.limit(criteria.getPageSize()).withPropertyValue("offset",
-                    criteria.getPageNumber() * criteria.getPageSize());
-        }
-
-        return flux.toString();
+        return flux;
     }
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.DefaultLocation;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author agent - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+@NonNullByDefault(value = { DefaultLocation.PARAMETER, DefaultLocation.RETURN_TYPE })
+public class BufferedPointWriterTest {
+    private @Mock InfluxDBRepository influxDBRepository;
+
+    private final List<List<Object>> batches = new ArrayList<>();
+
+    @Test
+    public void pointsAreWrittenInOrderInBatchesOfAtMostBatchSize() {
+        when(influxDBRepository.write(any())).thenAnswer(this::record);
+        BufferedPointWriter writer = new BufferedPointWriter(influxDBRepository, 100, 3, 10000);
+        for (int i = 0; i < 7; i++) {
+            writer.add(point(i));
+        }
+        writer.close(5000);
+
+        assertThat(batches, everyItem(hasSize(lessThanOrEqualTo(3))));
+        assertThat(batches.stream().flatMap(List::stream).collect(Collectors.toList()),
+                is(List.of(0, 1, 2, 3, 4, 5, 6)));
+    }
+
+    @Test
+    public void fullBufferDropsOldestPoints() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(influxDBRepository.write(any())).thenAnswer(invocation -> {
+            record(invocation);
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        BufferedPointWriter writer = new BufferedPointWriter(influxDBRepository, 2, 1, 0);
+        writer.add(point(0));
+        assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+
+        writer.add(point(1));
+        writer.add(point(2));
+        writer.add(point(3));
+        assertThat(writer.size(), is(2));
+
+        release.countDown();
+        writer.close(5000);
+
+        assertThat(batches, is(List.of(List.of(0), List.of(2), List.of(3))));
+    }
+
+    @Test
+    public void failedBatchIsRetried() {
+        when(influxDBRepository.write(any())).thenReturn(false).thenAnswer(this::record);
+        BufferedPointWriter writer = new BufferedPointWriter(influxDBRepository, 10, 10, 0);
+        writer.add(point(0));
+        writer.close(5000);
+
+        verify(influxDBRepository, times(2)).write(any());
+        assertThat(batches, is(List.of(List.of(0))));
+    }
+
+    private boolean record(InvocationOnMock invocation) {
+        List<InfluxPoint> points = invocation.getArgument(0);
+        synchronized (batches) {
+            batches.add(points.stream().map(InfluxPoint::getValue).collect(Collectors.toList()));
+        }
+        return true;
+    }
+
+    private static InfluxPoint point(int value) {
+        return InfluxPoint.newBuilder("item").withTime(Instant.ofEpochMilli(value)).withValue(value).build();
+    }
+}
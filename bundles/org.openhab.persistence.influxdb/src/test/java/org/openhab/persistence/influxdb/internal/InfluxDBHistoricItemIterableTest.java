@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Tests the {@link InfluxDBHistoricItemIterable}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBHistoricItemIterableTest {
+    private static final int POINTS = 10;
+
+    private final List<Integer> offsets = new ArrayList<>();
+
+    private List<InfluxRow> query(int offset, int limit) {
+        offsets.add(offset);
+        List<InfluxRow> rows = new ArrayList<>();
+        for (int i = offset; i < Math.min(POINTS, offset + limit); i++) {
+            rows.add(new InfluxRow(Instant.ofEpochSecond(i), "Test", i));
+        }
+        return rows;
+    }
+
+    private InfluxDBHistoricItemIterable query(int skip, int maxRows) {
+        return new InfluxDBHistoricItemIterable(this::query, skip, 3, maxRows,
+                row -> new InfluxDBHistoricItem(row.getItemName(), new DecimalType((Integer) row.getValue()),
+                        ZonedDateTime.ofInstant(row.getTime(), ZoneId.systemDefault())));
+    }
+
+    private static List<Integer> values(Iterable<HistoricItem> result) {
+        List<Integer> values = new ArrayList<>();
+        for (HistoricItem item : result) {
+            values.add(((DecimalType) item.getState()).intValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void readAllChunks() {
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values(query(0, Integer.MAX_VALUE)));
+        assertEquals(List.of(0, 3, 6, 9), offsets);
+    }
+
+    @Test
+    public void readPageAcrossChunks() {
+        assertEquals(List.of(4, 5, 6, 7), values(query(4, 4)));
+        assertEquals(List.of(4, 7), offsets);
+    }
+
+    @Test
+    public void stopEarly() {
+        Iterator<HistoricItem> iterator = query(0, Integer.MAX_VALUE).iterator();
+        assertTrue(iterator.hasNext());
+        iterator.next();
+
+        assertEquals(List.of(0), offsets);
+    }
+
+    @Test
+    public void iterateAgainQueriesAgain() {
+        InfluxDBHistoricItemIterable result = query(0, Integer.MAX_VALUE);
+
+        assertEquals(values(result), values(result));
+        assertEquals(List.of(0, 3, 6, 9, 0, 3, 6, 9), offsets);
+    }
+}
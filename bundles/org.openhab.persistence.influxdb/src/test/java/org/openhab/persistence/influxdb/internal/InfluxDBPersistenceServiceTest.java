@@ -92,7 +92,9 @@ public class InfluxDBPersistenceServiceTest {
     public void storeItemWithConnectedRepository() {
         instance.activate(validConfig);
         when(influxDBRepository.isConnected()).thenReturn(true);
+        when(influxDBRepository.write(any())).thenReturn(true);
         instance.store(ItemTestHelper.createNumberItem("number", 5));
+        instance.deactivate();
         verify(influxDBRepository).write(any());
     }
 
@@ -101,6 +103,7 @@ public class InfluxDBPersistenceServiceTest {
         instance.activate(validConfig);
         when(influxDBRepository.isConnected()).thenReturn(false);
         instance.store(ItemTestHelper.createNumberItem("number", 5));
+        instance.deactivate();
         verify(influxDBRepository, never()).write(any());
     }
 }
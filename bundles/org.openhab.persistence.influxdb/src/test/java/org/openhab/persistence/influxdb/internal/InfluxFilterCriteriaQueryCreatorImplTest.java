@@ -12,9 +12,11 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -144,6 +146,20 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                 + "|> filter(fn: (r) => r[\"_measurement\"] == \"sampleItem\")\n\t" + "|> limit(n:10, offset:20)"));
     }
 
+    @Test
+    public void testChunkIgnoresPage() {
+        FilterCriteria criteria = createBaseCriteria();
+        criteria.setPageNumber(2);
+        criteria.setPageSize(10);
+
+        String query = instanceV1.createQuery(criteria, RETENTION_POLICY, 1020, 1000);
+        assertThat(query, equalTo("SELECT value FROM origin.sampleItem LIMIT 1000 OFFSET 1020;"));
+
+        String queryV2 = instanceV2.createQuery(criteria, RETENTION_POLICY, 1020, 1000);
+        assertThat(queryV2, equalTo("from(bucket:\"origin\")\n\t" + "|> range(start:-100y)\n\t"
+                + "|> filter(fn: (r) => r[\"_measurement\"] == \"sampleItem\")\n\t" + "|> limit(n:1000, offset:1020)"));
+    }
+
     @Test
     public void testOrdering() {
         FilterCriteria criteria = createBaseCriteria();
@@ -159,6 +175,41 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                         + "|> sort(desc:false, columns:[\"_time\"])"));
     }
 
+    @Test
+    public void testAggregatedQuery() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime yesterday = now.minus(1, ChronoUnit.DAYS);
+        criteria.setBeginDate(yesterday);
+        criteria.setEndDate(now);
+        criteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+
+        String queryV1 = instanceV1.createAggregatedQuery(criteria, RETENTION_POLICY, Duration.ofMinutes(15),
+                Aggregation.AVG);
+        String expectedQueryV1 = String.format(
+                "SELECT MEAN(value) AS value FROM origin.sampleItem WHERE time >= '%s' AND time <= '%s' GROUP BY time(900000ms) fill(none) ORDER BY time ASC;",
+                yesterday.toInstant(), now.toInstant());
+        assertThat(queryV1, equalTo(expectedQueryV1));
+
+        String queryV2 = instanceV2.createAggregatedQuery(criteria, RETENTION_POLICY, Duration.ofMinutes(15),
+                Aggregation.AVG);
+        assertThat(queryV2, containsString("|> aggregateWindow("));
+        assertThat(queryV2, containsString("fn:mean"));
+        assertThat(queryV2, containsString("createEmpty:false"));
+    }
+
+    @Test
+    public void testAggregatedQueryWithPagination() {
+        FilterCriteria criteria = createBaseCriteria();
+        criteria.setPageNumber(2);
+        criteria.setPageSize(10);
+
+        String queryV1 = instanceV1.createAggregatedQuery(criteria, RETENTION_POLICY, Duration.ofHours(1),
+                Aggregation.MAX);
+        assertThat(queryV1, equalTo(
+                "SELECT MAX(value) AS value FROM origin.sampleItem GROUP BY time(3600000ms) fill(none) LIMIT 10 OFFSET 20;"));
+    }
+
     private FilterCriteria createBaseCriteria() {
         return createBaseCriteria(ITEM_NAME);
     }
@@ -13,11 +13,12 @@
 package org.openhab.persistence.jdbc.db;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,11 +42,14 @@ import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Operator;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.model.Aggregation;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.model.JdbcHistoricItem;
@@ -327,53 +331,263 @@ public class JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
-    public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
-            String table, String name) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name);
-        logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
+    /**
+     * Converts the current state of the item into a value for {@link #doStoreItemValues(List)}, stamped with the
+     * current time.
+     */
+    public ItemVO doPrepareItemValue(Item item, ItemVO vo) {
+        ItemVO preparedVO = storeItemValueProvider(item, vo);
+        preparedVO.setTime(new java.util.Date());
+        return preparedVO;
+    }
 
-        List<HistoricItem> items = new ArrayList<>();
-        for (int i = 0; i < m.size(); i++) {
-            items.add(new JdbcHistoricItem(item.getName(), getState(item, m.get(i)[1]), objectAsDate(m.get(i)[0])));
+    /**
+     * Writes the given values of a single item table as one JDBC batch. Unlike
+     * {@link #doStoreItemValue(Item, ItemVO)} the time column is bound as a parameter, taken from
+     * {@link ItemVO#getTime()}, so that the values keep the time they were queued at.
+     *
+     * @param vol values of one item table, prepared by {@link #storeItemValueProvider(Item, ItemVO)}
+     */
+    public void doStoreItemValues(List<ItemVO> vol) {
+        if (vol.isEmpty()) {
+            return;
+        }
+        String sql = storeItemValuesProvider(vol.get(0));
+        Object[][] params = new Object[vol.size()][];
+        for (int i = 0; i < vol.size(); i++) {
+            params[i] = storeItemValuesParams(vol.get(i));
         }
-        return items;
+        logger.debug("JDBC::doStoreItemValues sql={} count={}", sql, params.length);
+        Yank.executeBatch(sql, params);
+    }
+
+    /**
+     * Queries the values of an item. The rows are read in chunks while the result is iterated, each chunk by a query
+     * of its own, and converted while they are read.
+     */
+    public Iterable<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
+            String table, String name) {
+        int pageSize = filter.getPageSize() != Integer.MAX_VALUE ? filter.getPageSize() : 0;
+        return new JdbcHistoricItemIterable(Yank.getDefaultConnectionPool(),
+                (after, limit, params) -> histItemFilterQueryProvider(filter, numberDecimalcount, table, name, item,
+                        after, limit, params),
+                histItemChunkSize(), pageSize, rs -> new JdbcHistoricItem(item.getName(),
+                        getState(item, rs.getObject(2)), objectAsDate(rs.getObject(1))));
+    }
+
+    /**
+     * Queries one value per time bucket, reduced by the database with the given aggregation. Ordering, time range,
+     * state filter and paging of the filter are applied, paging to the buckets. Like
+     * {@link #doGetHistItemFilterQuery(Item, FilterCriteria, int, String, String)}, the buckets are read in chunks
+     * while the result is iterated.
+     */
+    public Iterable<HistoricItem> doGetAggregatedHistItemFilterQuery(Item item, FilterCriteria filter, String table,
+            Duration bucket, Aggregation aggregation) {
+        int pageSize = filter.getPageSize() != Integer.MAX_VALUE ? filter.getPageSize() : 0;
+        return new JdbcHistoricItemIterable(Yank.getDefaultConnectionPool(),
+                (after, limit, params) -> aggregatedHistItemFilterQueryProvider(filter, table, item, bucket,
+                        aggregation, after, limit, params),
+                histItemChunkSize(), pageSize, rs -> {
+                    Object value = rs.getObject(2);
+                    if (value == null) {
+                        return null;
+                    }
+                    State state = aggregation == Aggregation.LAST ? getState(item, value)
+                            : getAggregatedState(item, value);
+                    return new JdbcHistoricItem(item.getName(), state, objectAsDate(rs.getObject(1)));
+                });
     }
 
     /*************
      * Providers *
      *************/
-    static final DateTimeFormatter JDBC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private String aggregatedHistItemFilterQueryProvider(FilterCriteria filter, String table, Item item,
+            Duration bucket, Aggregation aggregation, Object after, int limit, List<Object> params) {
+        String filterString = "";
+        if (filter.getBeginDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " time>?";
+            params.add(timeParam(filter.getBeginDate().toInstant()));
+        }
+        if (filter.getEndDate() != null) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += " time<?";
+            params.add(timeParam(filter.getEndDate().toInstant()));
+        }
+        String stateFilter = histItemFilterStateProvider(filter, item, params);
+        if (!stateFilter.isEmpty()) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += stateFilter;
+        }
+        String groupBy = " GROUP BY " + histItemBucketProvider(Math.max(1, bucket.getSeconds()));
+
+        String bucketsString;
+        if (aggregation == Aggregation.LAST) {
+            bucketsString = "SELECT time, value FROM " + table + " WHERE time IN (SELECT MAX(time) FROM " + table
+                    + filterString + groupBy + ")";
+        } else {
+            bucketsString = "SELECT MIN(time) AS time, " + aggregation.getSqlFunction() + "(value) AS value FROM "
+                    + table + filterString + groupBy;
+        }
+        // buckets don't overlap, so the chunks continue after the earliest time of the last bucket read
+        String queryString = "SELECT time, value FROM (" + bucketsString + ") buckets";
+        if (after != null) {
+            queryString += filter.getOrdering() == Ordering.ASCENDING ? " WHERE time>?" : " WHERE time<?";
+            params.add(after);
+        }
+        queryString += filter.getOrdering() == Ordering.ASCENDING ? " ORDER BY time ASC" : " ORDER BY time DESC";
+        int offset = after == null && filter.getPageSize() != Integer.MAX_VALUE
+                ? filter.getPageNumber() * filter.getPageSize()
+                : 0;
+        queryString += histItemFilterLimitProvider(limit, offset, params);
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
 
+    /**
+     * Builds the expression that numbers the time bucket of a row, used in GROUP BY of aggregated queries.
+     *
+     * @param bucketSeconds width of the buckets in seconds
+     */
+    protected String histItemBucketProvider(long bucketSeconds) {
+        return "FLOOR(UNIX_TIMESTAMP(time)/" + bucketSeconds + ")";
+    }
+
+    /**
+     * Builds the query of one chunk of a historic query. The chunks are paged by key on the time column, which is
+     * unique per item table: the first chunk starts at the first row of the page of the filter, the following ones
+     * continue after the time of the last row read.
+     */
     private String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
-            String simpleName) {
+            String simpleName, Item item, Object after, int limit, List<Object> params) {
         logger.debug(
                 "JDBC::getHistItemFilterQueryProvider filter = {}, numberDecimalcount = {}, table = {}, simpleName = {}",
                 filter.toString(), numberDecimalcount, table, simpleName);
 
+        List<Object> filterParams = new ArrayList<>();
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate()) + "'";
+            filterString += " time>?";
+            filterParams.add(timeParam(filter.getBeginDate().toInstant()));
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate()) + "'";
+            filterString += " time<?";
+            filterParams.add(timeParam(filter.getEndDate().toInstant()));
+        }
+        String stateFilter = histItemFilterStateProvider(filter, item, filterParams);
+        if (!stateFilter.isEmpty()) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += stateFilter;
         }
-        filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC ";
-        if (filter.getPageSize() != 0x7fffffff) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
+        String orderString = filter.getOrdering() == Ordering.ASCENDING ? " ORDER BY time ASC"
+                : " ORDER BY time DESC";
+        params.addAll(filterParams);
+
+        String keyString = "";
+        if (after != null) {
+            keyString = filter.getOrdering() == Ordering.ASCENDING ? " time>?" : " time<?";
+            params.add(after);
+        } else if (filter.getPageSize() != Integer.MAX_VALUE && filter.getPageNumber() > 0) {
+            // the page starts at the time of its first row, only the time column is read to find it
+            int offset = filter.getPageNumber() * filter.getPageSize();
+            keyString = filter.getOrdering() == Ordering.ASCENDING ? " time>=" : " time<=";
+            keyString += "(SELECT time FROM " + table + filterString + orderString;
+            params.addAll(filterParams);
+            keyString += histItemFilterLimitProvider(1, offset, params) + ")";
+        }
+        if (!keyString.isEmpty()) {
+            filterString += filterString.isEmpty() ? " WHERE" : " AND";
+            filterString += keyString;
         }
-        // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 0,1
+        filterString += orderString + histItemFilterLimitProvider(limit, 0, params);
+        String queryString = histItemFilterSelectProvider(numberDecimalcount, table, simpleName) + filterString;
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    /**
+     * Builds the SELECT part of the historic query. The first column must be the time, the second the value.
+     */
+    protected String histItemFilterSelectProvider(int numberDecimalcount, String table, String simpleName) {
+        // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 1 OFFSET 0
         // rounding HALF UP
-        String queryString = "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
+        return "NUMBERITEM".equalsIgnoreCase(simpleName) && numberDecimalcount > -1
                 ? "SELECT time, ROUND(value," + numberDecimalcount + ") FROM " + table
                 : "SELECT time, value FROM " + table;
-        if (!filterString.isEmpty()) {
-            queryString += filterString;
+    }
+
+    /**
+     * Maximum number of rows read by one query while a historic query is iterated.
+     */
+    protected int histItemChunkSize() {
+        return 1000;
+    }
+
+    /**
+     * Builds the paging clause of the historic query and adds its parameters.
+     */
+    protected String histItemFilterLimitProvider(int pageSize, int offset, List<Object> params) {
+        params.add(pageSize);
+        params.add(offset);
+        return " LIMIT ? OFFSET ?";
+    }
+
+    /**
+     * Translates the state and operator of the filter into a condition on the value column. Numeric items support
+     * all operators, items stored as text only {@link Operator#EQ} and {@link Operator#NEQ}; other combinations are
+     * not filtered.
+     */
+    private String histItemFilterStateProvider(FilterCriteria filter, Item item, List<Object> params) {
+        State state = filter.getState();
+        Operator operator = filter.getOperator();
+        if (state == null || operator == null) {
+            return "";
+        }
+        String op = operatorAsSql(operator);
+        boolean numeric = !(item instanceof ColorItem)
+                && (item instanceof NumberItem || item instanceof DimmerItem || item instanceof RollershutterItem);
+        if (numeric && state instanceof QuantityType) {
+            QuantityType<?> qt = (QuantityType<?>) state;
+            if (item.getState() instanceof QuantityType) {
+                QuantityType<?> converted = qt.toUnit(((QuantityType<?>) item.getState()).getUnit());
+                if (converted != null) {
+                    qt = converted;
+                }
+            }
+            params.add(qt.toBigDecimal());
+            return " value" + op + "?";
+        } else if (numeric && state instanceof DecimalType) {
+            params.add(((DecimalType) state).toBigDecimal());
+            return " value" + op + "?";
+        } else if (!numeric && !(item instanceof DateTimeItem)
+                && (operator == Operator.EQ || operator == Operator.NEQ)) {
+            params.add(state.toString());
+            return " value" + op + "?";
+        }
+        logger.debug("JDBC::histItemFilterStateProvider: operator {} not supported for item '{}', ignoring it",
+                operator, item.getName());
+        return "";
+    }
+
+    private static String operatorAsSql(Operator operator) {
+        switch (operator) {
+            case EQ:
+                return "=";
+            case NEQ:
+                return "<>";
+            case LT:
+                return "<";
+            case LTE:
+                return "<=";
+            case GT:
+                return ">";
+            case GTE:
+                return ">=";
+            default:
+                throw new IllegalArgumentException("Unknown operator " + operator);
         }
-        logger.debug("JDBC::query queryString = {}", queryString);
-        return queryString;
     }
 
     private String updateItemTableNamesProvider(List<ItemVO> namesList) {
@@ -387,6 +601,31 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Builds the insert statement for {@link #doStoreItemValues(List)}, with the time value as bind parameter.
+     * The statement only depends on table name and data type, so it is built once per batch.
+     */
+    protected String storeItemValuesProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), "?" });
+    }
+
+    protected Object[] storeItemValuesParams(ItemVO vo) {
+        return new Object[] { storeItemValuesTime(vo), vo.getValue(), vo.getValue() };
+    }
+
+    protected Object storeItemValuesTime(ItemVO vo) {
+        return timeParam(vo.getTime().toInstant());
+    }
+
+    /**
+     * Converts a point in time into a bind parameter for the time column.
+     */
+    protected Object timeParam(Instant instant) {
+        return Timestamp.from(instant);
+    }
+
     protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -493,6 +732,20 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Converts the result of MIN, MAX or AVG, which may have a different SQL type than the column, into a state.
+     */
+    protected State getAggregatedState(Item item, Object v) {
+        if (!(v instanceof Number)) {
+            return getState(item, v);
+        }
+        BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v : new BigDecimal(v.toString());
+        if (item instanceof DimmerItem || item instanceof RollershutterItem) {
+            return new PercentType(value.setScale(0, RoundingMode.HALF_UP));
+        }
+        return new DecimalType(value);
+    }
+
     protected ZonedDateTime objectAsDate(Object v) {
         if (v instanceof java.lang.String) {
             return ZonedDateTime.ofInstant(Timestamp.valueOf(v.toString()).toInstant(), ZoneId.systemDefault());
@@ -81,10 +81,20 @@ public class JdbcH2DAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected Object[] storeItemValuesParams(ItemVO vo) {
+        return new Object[] { storeItemValuesTime(vo), vo.getValue() };
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
 
+    @Override
+    protected String histItemBucketProvider(long bucketSeconds) {
+        return "FLOOR(DATEDIFF('SECOND', TIMESTAMP '1970-01-01 00:00:00', time)/" + bucketSeconds + ")";
+    }
+
     /*****************
      * H E L P E R S *
      *****************/
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.openhab.core.persistence.HistoricItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query result that reads its rows in chunks while it is iterated.
+ *
+ * Every chunk is read by a query of its own, which takes a connection from the pool, reads all rows of the chunk and
+ * returns the connection right away. No connection or cursor is held between two calls of the iterator, and a reader
+ * that stops early only costs the current chunk. A chunk continues after the time of the last row of the previous
+ * one. Only the current chunk is kept in memory; every iterator reads the result from the database again.
+ *
+ * A query that fails while the result is iterated ends the iteration with an {@link IllegalStateException}.
+ *
+ * @author agent - Initial contribution
+ */
+public class JdbcHistoricItemIterable implements Iterable<HistoricItem> {
+    private final Logger logger = LoggerFactory.getLogger(JdbcHistoricItemIterable.class);
+
+    /**
+     * Builds the query of a chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkQuery {
+        /**
+         * @param after time column of the last row read so far, null for the first chunk
+         * @param limit maximum number of rows of the chunk
+         * @param params receives the values of the query parameters
+         */
+        String build(Object after, int limit, List<Object> params);
+    }
+
+    /**
+     * Converts the current row. The first column must be the time.
+     */
+    @FunctionalInterface
+    public interface RowMapper {
+        /**
+         * @return the historic item of the row, null to skip the row
+         */
+        HistoricItem map(ResultSet rs) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final ChunkQuery query;
+    private final int chunkSize;
+    private final int maxRows;
+    private final RowMapper mapper;
+
+    /**
+     * @param dataSource pool to take the connections from
+     * @param query builds the query of each chunk
+     * @param chunkSize maximum number of rows read by one query
+     * @param maxRows number of rows after which the result ends, 0 for no limit
+     * @param mapper converts a row into a historic item
+     */
+    public JdbcHistoricItemIterable(DataSource dataSource, ChunkQuery query, int chunkSize, int maxRows,
+            RowMapper mapper) {
+        this.dataSource = dataSource;
+        this.query = query;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = maxRows;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new ChunkIterator();
+    }
+
+    private class ChunkIterator implements Iterator<HistoricItem> {
+        private Iterator<HistoricItem> chunk = Collections.emptyIterator();
+        private Object lastKey;
+        private int rows = 0;
+        private boolean complete = false;
+
+        @Override
+        public boolean hasNext() {
+            while (!chunk.hasNext() && !complete) {
+                readChunk();
+            }
+            return chunk.hasNext();
+        }
+
+        @Override
+        public HistoricItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.next();
+        }
+
+        private void readChunk() {
+            int limit = maxRows > 0 ? Math.min(chunkSize, maxRows - rows) : chunkSize;
+            List<Object> params = new ArrayList<>();
+            String sql = query.build(lastKey, limit, params);
+            logger.debug("JDBC::query: reading chunk sql={} params={}", sql, params);
+            List<HistoricItem> items = new ArrayList<>();
+            int read;
+            try {
+                read = new QueryRunner(dataSource).query(sql, rs -> {
+                    int count = 0;
+                    while (rs.next()) {
+                        count++;
+                        lastKey = rs.getObject(1);
+                        HistoricItem item = mapper.map(rs);
+                        if (item != null) {
+                            items.add(item);
+                        }
+                    }
+                    return count;
+                }, params.toArray());
+            } catch (SQLException e) {
+                complete = true;
+                throw new IllegalStateException("JDBC::query: reading results failed after " + rows + " rows", e);
+            }
+            rows += read;
+            complete = read < limit || (maxRows > 0 && rows >= maxRows);
+            chunk = items.iterator();
+        }
+    }
+}
@@ -111,6 +111,19 @@ public class JdbcHsqldbDAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected String storeItemValuesProvider(ItemVO vo) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#dbType#", "#tableName#", "#tablePrimaryValue#" },
+                new String[] { vo.getTableName(), vo.getDbType(), vo.getTableName(),
+                        "CAST( ? as " + sqlTypes.get("tablePrimaryKey") + ")" });
+    }
+
+    @Override
+    protected Object[] storeItemValuesParams(ItemVO vo) {
+        return new Object[] { storeItemValuesTime(vo), vo.getValue() };
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
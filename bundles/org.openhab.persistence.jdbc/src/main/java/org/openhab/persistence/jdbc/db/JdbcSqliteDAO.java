@@ -12,6 +12,10 @@
  */
 package org.openhab.persistence.jdbc.db;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 import org.knowm.yank.Yank;
 import org.openhab.core.items.Item;
 import org.openhab.persistence.jdbc.model.ItemVO;
@@ -30,6 +34,9 @@ import org.slf4j.LoggerFactory;
 public class JdbcSqliteDAO extends JdbcBaseDAO {
     private final Logger logger = LoggerFactory.getLogger(JdbcSqliteDAO.class);
 
+    private static final DateTimeFormatter SQLITE_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
     /********
      * INIT *
      ********/
@@ -100,10 +107,27 @@ public class JdbcSqliteDAO extends JdbcBaseDAO {
         Yank.execute(sql, params);
     }
 
+    @Override
+    protected Object[] storeItemValuesParams(ItemVO vo) {
+        return new Object[] { storeItemValuesTime(vo), vo.getValue() };
+    }
+
+    @Override
+    protected Object timeParam(Instant instant) {
+        // same text format as produced by strftime('%Y-%m-%d %H:%M:%f', 'now', 'localtime')
+        return SQLITE_DATE_FORMAT.format(instant.atZone(ZoneId.systemDefault()));
+    }
+
     /****************************
      * SQL generation Providers *
      ****************************/
 
+    @Override
+    protected String histItemBucketProvider(long bucketSeconds) {
+        // integer division, time is stored as text in local time
+        return "CAST(strftime('%s', time) AS INTEGER)/" + bucketSeconds;
+    }
+
     /*****************
      * H E L P E R S *
      *****************/
@@ -60,6 +60,12 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private boolean writeBehind = false;
+    private int writeBatchSize = 100;
+    private int writeFlushInterval = 1000;
+    private int writeQueueCapacity = 10000;
+    private String writeBackPressurePolicy = "block";
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -173,6 +179,36 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String wb = (String) configuration.get("writeBehind");
+        if (wb != null && !wb.isBlank()) {
+            writeBehind = Boolean.parseBoolean(wb);
+            logger.debug("JDBC::updateConfig: writeBehind={}", writeBehind);
+        }
+
+        String bs = (String) configuration.get("writeBatchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            writeBatchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: writeBatchSize={}", writeBatchSize);
+        }
+
+        String fi = (String) configuration.get("writeFlushInterval");
+        if (fi != null && !fi.isBlank() && isNumericPattern.matcher(fi).matches()) {
+            writeFlushInterval = Integer.parseInt(fi);
+            logger.debug("JDBC::updateConfig: writeFlushInterval={}", writeFlushInterval);
+        }
+
+        String qc = (String) configuration.get("writeQueueCapacity");
+        if (qc != null && !qc.isBlank() && isNumericPattern.matcher(qc).matches()) {
+            writeQueueCapacity = Integer.parseInt(qc);
+            logger.debug("JDBC::updateConfig: writeQueueCapacity={}", writeQueueCapacity);
+        }
+
+        String bp = (String) configuration.get("writeBackPressurePolicy");
+        if (bp != null && !bp.isBlank()) {
+            writeBackPressurePolicy = bp;
+            logger.debug("JDBC::updateConfig: writeBackPressurePolicy={}", writeBackPressurePolicy);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -350,6 +386,26 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public boolean getWriteBehind() {
+        return writeBehind;
+    }
+
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
+    public int getWriteFlushInterval() {
+        return writeFlushInterval;
+    }
+
+    public int getWriteQueueCapacity() {
+        return writeQueueCapacity;
+    }
+
+    public String getWriteBackPressurePolicy() {
+        return writeBackPressurePolicy;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +25,7 @@ import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
+import org.openhab.persistence.jdbc.model.Aggregation;
 import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.model.JdbcPersistenceItemInfo;
@@ -43,6 +45,7 @@ public class JdbcMapper {
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
     protected final Map<String, String> sqlTables = new HashMap<>();
+    protected volatile JdbcWriteBehindQueue writeQueue = null;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
@@ -152,14 +155,46 @@ public class JdbcMapper {
         return item;
     }
 
-    public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
+    public boolean queueItemValue(Item item) {
+        logger.debug("JDBC::queueItemValue: item={}", item.toString());
+        String tableName = getTable(item);
+        if (tableName == null) {
+            logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
+            return false;
+        }
+        JdbcWriteBehindQueue queue = writeQueue;
+        if (queue == null) {
+            storeItemValue(item);
+            return true;
+        }
+        ItemVO vo = conf.getDBDAO().doPrepareItemValue(item, new ItemVO(tableName, null));
+        return queue.offer(vo);
+    }
+
+    public boolean storeItemValues(String tableName, List<ItemVO> vol) {
+        logger.debug("JDBC::storeItemValues: table={} count={}", tableName, vol.size());
+        long timerStart = System.currentTimeMillis();
+        try {
+            conf.getDBDAO().doStoreItemValues(vol);
+        } catch (RuntimeException e) {
+            errCnt++;
+            logger.error("JDBC::storeItemValues: Unable to store {} values into table '{}': {}", vol.size(),
+                    tableName, e.getMessage());
+            return false;
+        }
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+        return true;
+    }
+
+    public Iterable<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
             Item item) {
         logger.debug(
                 "JDBC::getHistItemFilterQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' itemName='{}'",
                 (filter != null), numberDecimalcount, table, item, item.getName());
         if (table != null) {
             long timerStart = System.currentTimeMillis();
-            List<HistoricItem> r = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
+            Iterable<HistoricItem> r = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
                     item.getName());
             logTime("insertItemValue", timerStart, System.currentTimeMillis());
             return r;
@@ -169,6 +204,17 @@ public class JdbcMapper {
         return null;
     }
 
+    public Iterable<HistoricItem> getAggregatedHistItemFilterQuery(FilterCriteria filter, String table, Item item,
+            Duration bucket, Aggregation aggregation) {
+        logger.debug("JDBC::getAggregatedHistItemFilterQuery table='{}' item='{}' bucket='{}' aggregation='{}'",
+                table, item.getName(), bucket, aggregation);
+        long timerStart = System.currentTimeMillis();
+        Iterable<HistoricItem> r = conf.getDBDAO().doGetAggregatedHistItemFilterQuery(item, filter, table, bucket,
+                aggregation);
+        logTime("getAggregatedHistItemFilterQuery", timerStart, System.currentTimeMillis());
+        return r;
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
@@ -409,10 +455,12 @@ public class JdbcMapper {
                 conf.timerCount = 0;
             }
             logger.info(
-                    "JDBC::logTime: '{}':\n afterAccess     = {} ms\n timeAverage50  = {} ms\n timeAverage100 = {} ms\n timeAverage200 = {} ms\n afterAccessMin  = {} ms\n afterAccessMax  = {} ms\n 1000Statements = {} sec\n statementCount = {}\n",
+                    "JDBC::logTime: '{}':\n afterAccess     = {} ms\n timeAverage50  = {} ms\n timeAverage100 = {} ms\n timeAverage200 = {} ms\n afterAccessMin  = {} ms\n afterAccessMax  = {} ms\n 1000Statements = {} sec\n statementCount = {}\n writeQueueDepth = {}\n writeQueueDropped = {}\n",
                     me, timerDiff, conf.timeAverage50arr.getAverageInteger(),
                     conf.timeAverage100arr.getAverageInteger(), conf.timeAverage200arr.getAverageInteger(),
-                    afterAccessMin, afterAccessMax, conf.time1000Statements, conf.timerCount);
+                    afterAccessMin, afterAccessMax, conf.time1000Statements, conf.timerCount,
+                    writeQueue != null ? writeQueue.getQueueDepth() : 0,
+                    writeQueue != null ? writeQueue.getDroppedCount() : 0);
         }
     }
 }
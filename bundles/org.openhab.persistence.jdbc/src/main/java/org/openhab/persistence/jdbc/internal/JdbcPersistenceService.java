@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -24,6 +25,10 @@ import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.ColorItem;
+import org.openhab.core.library.items.DimmerItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.items.RollershutterItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
@@ -31,6 +36,7 @@ import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.model.Aggregation;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
@@ -101,6 +107,7 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
         // closeConnection();
+        stopWriteQueue();
         initialized = false;
     }
 
@@ -137,6 +144,13 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
             return;
         }
         long timerStart = System.currentTimeMillis();
+        if (writeQueue != null) {
+            queueItemValue(item);
+            logger.debug("JDBC: Queued item '{}' as '{}' for SQL database at {} in {} ms.", item.getName(),
+                    item.getState().toString(), (new java.util.Date()).toString(),
+                    System.currentTimeMillis() - timerStart);
+            return;
+        }
         storeItemValue(item);
         logger.debug("JDBC: Stored item '{}' as '{}' in SQL database at {} in {} ms.", item.getName(),
                 item.getState().toString(), (new java.util.Date()).toString(), System.currentTimeMillis() - timerStart);
@@ -157,6 +171,27 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
      */
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        return doQuery(filter, null, null);
+    }
+
+    /**
+     * Queries the {@link PersistenceService} for data with a given filter
+     * criteria, reduced by the database to one value per time bucket
+     *
+     * @param filter
+     *            the filter to apply to the query, paging applies to the buckets
+     * @param bucket
+     *            width of the time buckets
+     * @param aggregation
+     *            function applied to the values of each bucket
+     * @return a time series of items, one per non-empty bucket
+     */
+    public Iterable<HistoricItem> query(FilterCriteria filter, Duration bucket, Aggregation aggregation) {
+        return doQuery(filter, bucket, aggregation);
+    }
+
+    private Iterable<HistoricItem> doQuery(FilterCriteria filter, @Nullable Duration bucket,
+            @Nullable Aggregation aggregation) {
         if (!checkDBAccessability()) {
             logger.warn("JDBC::query: database not connected, query aborted for item '{}'", filter.getItemName());
             return List.of();
@@ -199,9 +234,19 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
         }
 
         long timerStart = System.currentTimeMillis();
-        List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        Iterable<HistoricItem> items;
+        if (bucket != null && aggregation != null) {
+            if (aggregation == Aggregation.AVG && (item instanceof ColorItem || !(item instanceof NumberItem
+                    || item instanceof DimmerItem || item instanceof RollershutterItem))) {
+                logger.warn("JDBC::query: cannot average values of non-numeric item '{}'", itemName);
+                return List.of();
+            }
+            items = getAggregatedHistItemFilterQuery(filter, table, item, bucket, aggregation);
+        } else {
+            items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+        }
 
-        logger.debug("JDBC::query: query for {} returned {} rows in {} ms", item.getName(), items.size(),
+        logger.debug("JDBC::query: query for {} prepared in {} ms, rows are read while iterating", item.getName(),
                 System.currentTimeMillis() - timerStart);
 
         // Success
@@ -212,11 +257,20 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
+        stopWriteQueue();
         conf = new JdbcConfiguration(configuration);
         if (conf.valid && checkDBAccessability()) {
             checkDBSchema();
             // connection has been established ... initialization completed!
             initialized = true;
+            if (conf.getWriteBehind()) {
+                JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(conf.getWriteQueueCapacity(),
+                        conf.getWriteBatchSize(), conf.getWriteFlushInterval(),
+                        JdbcWriteBehindQueue.BackPressurePolicy.fromConfig(conf.getWriteBackPressurePolicy()),
+                        this::storeItemValues);
+                queue.start();
+                writeQueue = queue;
+            }
         } else {
             initialized = false;
         }
@@ -224,6 +278,15 @@ public class JdbcPersistenceService extends JdbcMapper implements QueryablePersi
         logger.debug("JDBC::updateConfig: configuration complete for service={}.", getId());
     }
 
+    private void stopWriteQueue() {
+        JdbcWriteBehindQueue queue = writeQueue;
+        if (queue != null) {
+            // new values are written synchronously again while the remaining ones are flushed
+            writeQueue = null;
+            queue.stop();
+        }
+    }
+
     @Override
     public List<PersistenceStrategy> getDefaultStrategies() {
         return List.of(PersistenceStrategy.Globals.CHANGE);
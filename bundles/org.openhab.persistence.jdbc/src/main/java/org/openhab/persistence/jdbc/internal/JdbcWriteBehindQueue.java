@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous write-behind queue for item values.
+ *
+ * Values are collected in a bounded queue and written by a dedicated thread, grouped per item table, whenever the
+ * configured batch size is reached or the flush interval elapses.
+ *
+ * A batch that cannot be written is kept and retried on the following flushes, before any newer value is written.
+ * While a retry fails, no further values are taken from the queue, so the back-pressure policy applies. After
+ * {@link #MAX_ATTEMPTS} failed attempts the batch is dropped.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBehindQueue {
+
+    /**
+     * Behaviour of {@link JdbcWriteBehindQueue#offer(ItemVO)} when the queue is full.
+     */
+    public enum BackPressurePolicy {
+        /** wait up to one flush interval for free space, then drop the new value */
+        BLOCK,
+        /** drop the oldest queued value to make room for the new one */
+        DROP_OLDEST,
+        /** drop the new value */
+        DROP_NEWEST;
+
+        public static BackPressurePolicy fromConfig(@Nullable String value) {
+            if ("dropOldest".equalsIgnoreCase(value)) {
+                return DROP_OLDEST;
+            } else if ("dropNewest".equalsIgnoreCase(value)) {
+                return DROP_NEWEST;
+            }
+            return BLOCK;
+        }
+    }
+
+    /**
+     * Writes the values of one item table.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        /**
+         * @param tableName the item table
+         * @param values values of that table, in insertion order
+         * @return false if the values could not be written and should be retried
+         */
+        boolean write(String tableName, List<ItemVO> values);
+    }
+
+    /**
+     * A batch that could not be written yet.
+     */
+    private static class PendingBatch {
+        private final String tableName;
+        private final List<ItemVO> values;
+        private int attempts;
+
+        PendingBatch(String tableName, List<ItemVO> values, int attempts) {
+            this.tableName = tableName;
+            this.values = values;
+            this.attempts = attempts;
+        }
+    }
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String THREADPOOL_NAME = "jdbcPersistenceWriter";
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcWriteBehindQueue.class);
+
+    private final BlockingQueue<ItemVO> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BackPressurePolicy policy;
+    private final BatchWriter writer;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREADPOOL_NAME));
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private @Nullable ScheduledFuture<?> flushJob;
+    // only accessed from the writer thread
+    private final List<PendingBatch> failedBatches = new ArrayList<>();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of queued values
+     * @param batchSize maximum number of values taken from the queue per flush round
+     * @param flushIntervalMillis maximum time a value stays in the queue
+     * @param policy behaviour when the queue is full
+     * @param writer receives the pending values of one item table, in insertion order
+     */
+    public JdbcWriteBehindQueue(int capacity, int batchSize, long flushIntervalMillis, BackPressurePolicy policy,
+            BatchWriter writer) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.policy = policy;
+        this.writer = writer;
+    }
+
+    public void start() {
+        logger.debug("JDBC::writeBehind: start, batchSize={} flushInterval={} ms policy={}", batchSize,
+                flushIntervalMillis, policy);
+        flushJob = scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timer and writes all values still pending in the queue. Calling it again has no effect.
+     */
+    public void stop() {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        try {
+            int lost = scheduler.submit(() -> {
+                flushSafely();
+                return queue.size() + failedBatches.stream().mapToInt(batch -> batch.values.size()).sum();
+            }).get(30, TimeUnit.SECONDS);
+            if (lost > 0) {
+                logger.warn("JDBC::writeBehind: final flush failed, {} values are lost", lost);
+            }
+        } catch (Exception e) {
+            logger.warn("JDBC::writeBehind: final flush failed, {} values may be lost: {}", queue.size(),
+                    e.getMessage());
+        }
+        scheduler.shutdown();
+        logger.debug("JDBC::writeBehind: stopped, {} values were dropped in total", droppedCount.get());
+    }
+
+    /**
+     * Queues a value for writing, applying the back-pressure policy if the queue is full.
+     *
+     * @return false if a value had to be dropped
+     */
+    public boolean offer(ItemVO vo) {
+        boolean accepted = queue.offer(vo);
+        if (!accepted) {
+            @Nullable ItemVO dropped = vo;
+            switch (policy) {
+                case DROP_OLDEST:
+                    @Nullable ItemVO oldest = queue.poll();
+                    if (queue.offer(vo)) {
+                        dropped = oldest;
+                    }
+                    break;
+                case DROP_NEWEST:
+                    break;
+                case BLOCK:
+                default:
+                    requestFlush();
+                    try {
+                        if (queue.offer(vo, flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+                            dropped = null;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    break;
+            }
+            if (dropped != null) {
+                droppedCount.incrementAndGet();
+                logger.warn("JDBC::writeBehind: queue full ({} values), dropped a value of table '{}' (policy {})",
+                        queue.size(), dropped.getTableName(), policy);
+            } else {
+                accepted = true;
+            }
+        }
+        if (queue.size() >= batchSize) {
+            requestFlush();
+        }
+        return accepted;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushSafely);
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("JDBC::writeBehind: flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the failed batches and all queued values. Runs on the writer thread only.
+     */
+    void flush() {
+        if (!retryFailedBatches()) {
+            return;
+        }
+        List<ItemVO> pending = new ArrayList<>(batchSize);
+        while (queue.drainTo(pending, batchSize) > 0) {
+            Map<String, List<ItemVO>> byTable = new LinkedHashMap<>();
+            for (ItemVO vo : pending) {
+                byTable.computeIfAbsent(vo.getTableName(), t -> new ArrayList<>()).add(vo);
+            }
+            logger.debug("JDBC::writeBehind: flushing {} values into {} tables, {} still queued", pending.size(),
+                    byTable.size(), queue.size());
+            boolean failed = false;
+            for (Map.Entry<String, List<ItemVO>> entry : byTable.entrySet()) {
+                if (failed) {
+                    // keep the order of the values, the database is most likely unavailable
+                    failedBatches.add(new PendingBatch(entry.getKey(), entry.getValue(), 0));
+                } else if (!write(entry.getKey(), entry.getValue())) {
+                    failedBatches.add(new PendingBatch(entry.getKey(), entry.getValue(), 1));
+                    failed = true;
+                }
+            }
+            pending.clear();
+            if (failed) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the batches that failed before.
+     *
+     * @return true if there are no failed batches left
+     */
+    private boolean retryFailedBatches() {
+        while (!failedBatches.isEmpty()) {
+            PendingBatch batch = failedBatches.get(0);
+            if (!write(batch.tableName, batch.values)) {
+                batch.attempts++;
+                if (batch.attempts < MAX_ATTEMPTS) {
+                    return false;
+                }
+                droppedCount.addAndGet(batch.values.size());
+                logger.warn("JDBC::writeBehind: dropped {} values of table '{}' after {} failed attempts",
+                        batch.values.size(), batch.tableName, batch.attempts);
+            }
+            failedBatches.remove(0);
+        }
+        return true;
+    }
+
+    private boolean write(String tableName, List<ItemVO> values) {
+        try {
+            return writer.write(tableName, values);
+        } catch (RuntimeException e) {
+            logger.warn("JDBC::writeBehind: writing {} values into table '{}' failed: {}", values.size(), tableName,
+                    e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.model;
+
+/**
+ * Function used to reduce all values of a time bucket to a single value in aggregated queries.
+ *
+ * @author agent - Initial contribution
+ */
+public enum Aggregation {
+    MIN("MIN"),
+    MAX("MAX"),
+    AVG("AVG"),
+    /** value with the latest time in the bucket */
+    LAST(null);
+
+    private final String sqlFunction;
+
+    Aggregation(String sqlFunction) {
+        this.sqlFunction = sqlFunction;
+    }
+
+    public String getSqlFunction() {
+        return sqlFunction;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knowm.yank.Yank;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Tests the paging of historic queries against an in-memory H2 database.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBaseDAOPagingTest {
+    private static final String TABLE = "item0001";
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private final NumberItem item = new NumberItem("Test");
+
+    @BeforeAll
+    public static void setUpPool() {
+        Properties properties = new Properties();
+        properties.setProperty("driverClassName", "org.h2.Driver");
+        properties.setProperty("jdbcUrl", "jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1");
+        Yank.setupDefaultConnectionPool(properties);
+    }
+
+    @AfterAll
+    public static void releasePool() {
+        Yank.releaseDefaultConnectionPool();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        JdbcH2DAO dao = new JdbcH2DAO();
+        Yank.execute("DROP TABLE IF EXISTS " + TABLE, new Object[0]);
+        Yank.execute("CREATE TABLE " + TABLE + " (time " + dao.sqlTypes.get("tablePrimaryKey") + " NOT NULL, value "
+                + dao.sqlTypes.get("NUMBERITEM") + ", PRIMARY KEY(time))", new Object[0]);
+        for (int i = 0; i < 10; i++) {
+            insert(i, i);
+        }
+    }
+
+    private static void insert(int minute, int value) {
+        Yank.execute("INSERT INTO " + TABLE + " (time, value) VALUES (?, ?)",
+                new Object[] { Timestamp.from(START.plus(minute, ChronoUnit.MINUTES)), (double) value });
+    }
+
+    private List<Integer> query(JdbcBaseDAO dao, Ordering ordering, int pageNumber) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(item.getName());
+        filter.setOrdering(ordering);
+        filter.setPageSize(2);
+        filter.setPageNumber(pageNumber);
+        List<Integer> values = new ArrayList<>();
+        for (HistoricItem historicItem : dao.doGetHistItemFilterQuery(item, filter, 3, TABLE, "NUMBERITEM")) {
+            values.add(((DecimalType) historicItem.getState()).intValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void readPageWithoutPreviousPage() {
+        JdbcBaseDAO dao = new JdbcH2DAO();
+        assertEquals(List.of(4, 5), query(dao, Ordering.ASCENDING, 2));
+        assertEquals(List.of(7, 6), query(dao, Ordering.DESCENDING, 1));
+    }
+
+    @Test
+    public void pagesDoNotDependOnPreviousQueries() {
+        JdbcBaseDAO dao = new JdbcH2DAO();
+        assertEquals(List.of(0, 1), query(dao, Ordering.ASCENDING, 0));
+        assertEquals(List.of(2, 3), query(dao, Ordering.ASCENDING, 1));
+
+        // a value is inserted before the pages read so far
+        insert(-1, -1);
+
+        assertEquals(List.of(1, 2), query(dao, Ordering.ASCENDING, 1));
+        assertEquals(List.of(3, 4), query(dao, Ordering.ASCENDING, 2));
+        assertEquals(query(new JdbcH2DAO(), Ordering.ASCENDING, 2), query(dao, Ordering.ASCENDING, 2));
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knowm.yank.Yank;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Operator;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.persistence.jdbc.model.Aggregation;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Tests reading historic queries in chunks against an in-memory H2 database.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcHistoricItemIterableTest {
+    private static final String TABLE = "item0001";
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private final NumberItem item = new NumberItem("Test");
+
+    /**
+     * Reads three rows per query.
+     */
+    private static class SmallChunkDAO extends JdbcH2DAO {
+        @Override
+        protected int histItemChunkSize() {
+            return 3;
+        }
+    }
+
+    @BeforeAll
+    public static void setUpPool() {
+        Properties properties = new Properties();
+        properties.setProperty("driverClassName", "org.h2.Driver");
+        properties.setProperty("jdbcUrl", "jdbc:h2:mem:chunks;DB_CLOSE_DELAY=-1");
+        Yank.setupDefaultConnectionPool(properties);
+    }
+
+    @AfterAll
+    public static void releasePool() {
+        Yank.releaseDefaultConnectionPool();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        JdbcH2DAO dao = new JdbcH2DAO();
+        Yank.execute("DROP TABLE IF EXISTS " + TABLE, new Object[0]);
+        Yank.execute("CREATE TABLE " + TABLE + " (time " + dao.sqlTypes.get("tablePrimaryKey") + " NOT NULL, value "
+                + dao.sqlTypes.get("NUMBERITEM") + ", PRIMARY KEY(time))", new Object[0]);
+        for (int i = 0; i < 10; i++) {
+            insert(i, i);
+        }
+    }
+
+    private static void insert(int minute, int value) {
+        Yank.execute("INSERT INTO " + TABLE + " (time, value) VALUES (?, ?)",
+                new Object[] { Timestamp.from(START.plus(minute, ChronoUnit.MINUTES)), (double) value });
+    }
+
+    private static int activeConnections() {
+        return ((HikariDataSource) Yank.getDefaultConnectionPool()).getHikariPoolMXBean().getActiveConnections();
+    }
+
+    private static FilterCriteria filter(Ordering ordering, int pageSize, int pageNumber) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("Test");
+        filter.setOrdering(ordering);
+        filter.setPageSize(pageSize);
+        filter.setPageNumber(pageNumber);
+        return filter;
+    }
+
+    private Iterable<HistoricItem> query(JdbcBaseDAO dao, Ordering ordering, int pageSize, int pageNumber) {
+        return dao.doGetHistItemFilterQuery(item, filter(ordering, pageSize, pageNumber), 3, TABLE, "NUMBERITEM");
+    }
+
+    private Iterable<HistoricItem> aggregate(Aggregation aggregation, Ordering ordering, int pageSize,
+            int pageNumber) {
+        return new SmallChunkDAO().doGetAggregatedHistItemFilterQuery(item, filter(ordering, pageSize, pageNumber),
+                TABLE, Duration.ofMinutes(3), aggregation);
+    }
+
+    private static List<Integer> values(Iterable<HistoricItem> result) {
+        List<Integer> values = new ArrayList<>();
+        for (HistoricItem historicItem : result) {
+            values.add(((DecimalType) historicItem.getState()).intValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void readAllChunks() {
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9),
+                values(query(new SmallChunkDAO(), Ordering.ASCENDING, Integer.MAX_VALUE, 0)));
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1, 0),
+                values(query(new SmallChunkDAO(), Ordering.DESCENDING, Integer.MAX_VALUE, 0)));
+    }
+
+    @Test
+    public void readPageAcrossChunks() {
+        assertEquals(List.of(4, 5, 6, 7), values(query(new SmallChunkDAO(), Ordering.ASCENDING, 4, 1)));
+        assertEquals(List.of(5, 4, 3, 2), values(query(new SmallChunkDAO(), Ordering.DESCENDING, 4, 1)));
+        assertEquals(List.of(8, 9), values(query(new SmallChunkDAO(), Ordering.ASCENDING, 4, 2)));
+    }
+
+    @Test
+    public void readPageWithoutPreviousPages() {
+        Iterable<HistoricItem> page = query(new SmallChunkDAO(), Ordering.ASCENDING, 4, 1);
+
+        // the page is found by the time of its first row, rows inserted before it move it
+        insert(-1, -1);
+        assertEquals(List.of(3, 4, 5, 6), values(page));
+        assertEquals(List.of(), values(query(new SmallChunkDAO(), Ordering.ASCENDING, 4, 3)));
+    }
+
+    @Test
+    public void readPageOfFilteredRows() {
+        FilterCriteria filter = filter(Ordering.DESCENDING, 2, 1);
+        filter.setOperator(Operator.LT);
+        filter.setState(new DecimalType(6));
+        filter.setBeginDate(START.atZone(ZoneOffset.UTC));
+
+        // rows 5 to 1 match, row 0 is not after the begin date
+        assertEquals(List.of(3, 2),
+                values(new SmallChunkDAO().doGetHistItemFilterQuery(item, filter, 3, TABLE, "NUMBERITEM")));
+    }
+
+    @Test
+    public void aggregateBucketsAcrossChunks() {
+        // buckets of three minutes: 0-2, 3-5, 6-8 and 9
+        assertEquals(List.of(1, 4, 7, 9), values(aggregate(Aggregation.AVG, Ordering.ASCENDING, Integer.MAX_VALUE, 0)));
+        assertEquals(List.of(9, 7, 4, 1),
+                values(aggregate(Aggregation.AVG, Ordering.DESCENDING, Integer.MAX_VALUE, 0)));
+        assertEquals(List.of(0, 3, 6, 9), values(aggregate(Aggregation.MIN, Ordering.ASCENDING, Integer.MAX_VALUE, 0)));
+        assertEquals(List.of(2, 5, 8, 9), values(aggregate(Aggregation.MAX, Ordering.ASCENDING, Integer.MAX_VALUE, 0)));
+        assertEquals(List.of(2, 5, 8, 9),
+                values(aggregate(Aggregation.LAST, Ordering.ASCENDING, Integer.MAX_VALUE, 0)));
+    }
+
+    @Test
+    public void aggregatePage() {
+        assertEquals(List.of(8, 9), values(aggregate(Aggregation.MAX, Ordering.ASCENDING, 2, 1)));
+        assertEquals(List.of(4, 1), values(aggregate(Aggregation.AVG, Ordering.DESCENDING, 2, 1)));
+    }
+
+    @Test
+    public void stopEarlyWithoutHoldingConnection() {
+        Iterator<HistoricItem> iterator = query(new SmallChunkDAO(), Ordering.ASCENDING, Integer.MAX_VALUE, 0)
+                .iterator();
+        assertTrue(iterator.hasNext());
+        assertEquals(0, ((DecimalType) iterator.next().getState()).intValue());
+
+        assertEquals(0, activeConnections());
+    }
+
+    @Test
+    public void iterateAgainQueriesAgain() {
+        Iterable<HistoricItem> result = query(new SmallChunkDAO(), Ordering.ASCENDING, Integer.MAX_VALUE, 0);
+        assertEquals(10, values(result).size());
+
+        // rows are not kept, the next iteration reads the table again
+        insert(10, 10);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10), values(result));
+    }
+
+    @Test
+    public void failedChunkIsThrown() {
+        Iterator<HistoricItem> iterator = query(new SmallChunkDAO(), Ordering.ASCENDING, Integer.MAX_VALUE, 0)
+                .iterator();
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+
+        Yank.execute("DROP TABLE " + TABLE, new Object[0]);
+
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.jdbc.internal.JdbcWriteBehindQueue.BackPressurePolicy;
+import org.openhab.persistence.jdbc.model.ItemVO;
+
+/**
+ * Tests the {@link JdbcWriteBehindQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcWriteBehindQueueTest {
+    private static final long NO_TIMER = TimeUnit.HOURS.toMillis(1);
+
+    private final List<JdbcWriteBehindQueue> queues = new ArrayList<>();
+    private final List<String> writes = new ArrayList<>();
+    private int failures;
+
+    @AfterEach
+    public void tearDown() {
+        queues.forEach(JdbcWriteBehindQueue::stop);
+    }
+
+    private JdbcWriteBehindQueue createQueue(int capacity, int batchSize, BackPressurePolicy policy) {
+        JdbcWriteBehindQueue queue = new JdbcWriteBehindQueue(capacity, batchSize, NO_TIMER, policy, this::write);
+        queues.add(queue);
+        return queue;
+    }
+
+    private synchronized boolean write(String tableName, List<ItemVO> values) {
+        String batch = tableName + ":"
+                + values.stream().map(vo -> String.valueOf(vo.getValue())).collect(Collectors.joining(","));
+        if (failures > 0) {
+            failures--;
+            writes.add("failed " + batch);
+            return false;
+        }
+        writes.add(batch);
+        notifyAll();
+        return true;
+    }
+
+    private synchronized List<String> getWrites() {
+        return new ArrayList<>(writes);
+    }
+
+    private static ItemVO value(String tableName, int value) {
+        ItemVO vo = new ItemVO(tableName, null);
+        vo.setValue(value);
+        return vo;
+    }
+
+    @Test
+    public void flushWhenBatchSizeIsReached() throws InterruptedException {
+        JdbcWriteBehindQueue queue = createQueue(10, 2, BackPressurePolicy.BLOCK);
+        queue.start();
+        queue.offer(value("item1", 1));
+        queue.offer(value("item1", 2));
+        synchronized (this) {
+            long end = System.currentTimeMillis() + 5000;
+            while (writes.isEmpty() && System.currentTimeMillis() < end) {
+                wait(100);
+            }
+        }
+        assertEquals(List.of("item1:1,2"), getWrites());
+    }
+
+    @Test
+    public void groupPerTableAndFlushOnStop() {
+        JdbcWriteBehindQueue queue = createQueue(10, 10, BackPressurePolicy.BLOCK);
+        queue.start();
+        queue.offer(value("item1", 1));
+        queue.offer(value("item2", 2));
+        queue.offer(value("item1", 3));
+        queue.stop();
+
+        assertEquals(List.of("item1:1,3", "item2:2"), getWrites());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void retryFailedBatchBeforeNewerValues() {
+        JdbcWriteBehindQueue queue = createQueue(10, 10, BackPressurePolicy.BLOCK);
+        failures = 1;
+        queue.offer(value("item1", 1));
+        queue.offer(value("item2", 2));
+        queue.flush();
+        assertEquals(List.of("failed item1:1"), getWrites());
+
+        queue.offer(value("item1", 3));
+        queue.flush();
+        assertEquals(List.of("failed item1:1", "item1:1", "item2:2", "item1:3"), getWrites());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void keepQueuedValuesWhileRetryFails() {
+        JdbcWriteBehindQueue queue = createQueue(10, 10, BackPressurePolicy.BLOCK);
+        failures = 2;
+        queue.offer(value("item1", 1));
+        queue.flush();
+        queue.offer(value("item1", 2));
+        queue.flush();
+        assertEquals(List.of("failed item1:1", "failed item1:1"), getWrites());
+        assertEquals(1, queue.getQueueDepth());
+
+        queue.flush();
+        assertEquals(List.of("failed item1:1", "failed item1:1", "item1:1", "item1:2"), getWrites());
+    }
+
+    @Test
+    public void dropBatchAfterMaxAttempts() {
+        JdbcWriteBehindQueue queue = createQueue(10, 10, BackPressurePolicy.BLOCK);
+        failures = JdbcWriteBehindQueue.MAX_ATTEMPTS;
+        queue.offer(value("item1", 1));
+        queue.offer(value("item1", 2));
+        for (int i = 0; i < JdbcWriteBehindQueue.MAX_ATTEMPTS; i++) {
+            queue.flush();
+        }
+        assertEquals(2, queue.getDroppedCount());
+
+        queue.offer(value("item1", 3));
+        queue.flush();
+        assertEquals("item1:3", getWrites().get(getWrites().size() - 1));
+    }
+
+    @Test
+    public void dropNewestWhenFull() {
+        JdbcWriteBehindQueue queue = createQueue(2, 10, BackPressurePolicy.DROP_NEWEST);
+        assertTrue(queue.offer(value("item1", 1)));
+        assertTrue(queue.offer(value("item1", 2)));
+        assertFalse(queue.offer(value("item1", 3)));
+        assertEquals(1, queue.getDroppedCount());
+
+        queue.flush();
+        assertEquals(List.of("item1:1,2"), getWrites());
+    }
+}
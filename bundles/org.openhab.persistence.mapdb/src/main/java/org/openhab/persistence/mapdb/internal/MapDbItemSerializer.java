@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact binary format for {@link MapDbItem}s, used instead of the JSON representation of {@link StateTypeAdapter}.
+ *
+ * The common state types are written as a type tag followed by their raw value; other states fall back to their
+ * class name and full string, like the JSON format.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializer {
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_OTHER = 0;
+    private static final byte TYPE_ON_OFF = 1;
+    private static final byte TYPE_OPEN_CLOSED = 2;
+    private static final byte TYPE_UP_DOWN = 3;
+    private static final byte TYPE_DECIMAL = 4;
+    private static final byte TYPE_PERCENT = 5;
+    private static final byte TYPE_HSB = 6;
+    private static final byte TYPE_QUANTITY = 7;
+    private static final byte TYPE_STRING = 8;
+    private static final byte TYPE_DATE_TIME = 9;
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbItemSerializer.class);
+
+    public byte[] serialize(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, item.getName());
+            out.writeLong(item.getTimestamp().toInstant().toEpochMilli());
+            writeState(out, item.getState());
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public @Nullable MapDbItem deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                logger.warn("Couldn't deserialize item: unknown format version {}", version);
+                return null;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(readString(in));
+            item.setTimestamp(new Date(in.readLong()));
+            State state = readState(in);
+            if (state == null) {
+                return null;
+            }
+            item.setState(state);
+            return item;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Couldn't deserialize item: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeState(DataOutputStream out, State state) throws IOException {
+        if (state instanceof OnOffType) {
+            out.writeByte(TYPE_ON_OFF);
+            out.writeBoolean(state == OnOffType.ON);
+        } else if (state instanceof OpenClosedType) {
+            out.writeByte(TYPE_OPEN_CLOSED);
+            out.writeBoolean(state == OpenClosedType.OPEN);
+        } else if (state instanceof UpDownType) {
+            out.writeByte(TYPE_UP_DOWN);
+            out.writeBoolean(state == UpDownType.UP);
+        } else if (state instanceof HSBType) {
+            // check before PercentType and DecimalType, which HSBType extends
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TYPE_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (state instanceof PercentType) {
+            out.writeByte(TYPE_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (state instanceof DecimalType) {
+            out.writeByte(TYPE_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (state instanceof QuantityType) {
+            out.writeByte(TYPE_QUANTITY);
+            writeString(out, state.toFullString());
+        } else if (state instanceof StringType) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, state.toFullString());
+        } else if (state instanceof DateTimeType) {
+            out.writeByte(TYPE_DATE_TIME);
+            writeString(out, state.toFullString());
+        } else {
+            out.writeByte(TYPE_OTHER);
+            writeString(out, state.getClass().getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    private @Nullable State readState(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_ON_OFF:
+                return OnOffType.from(in.readBoolean());
+            case TYPE_OPEN_CLOSED:
+                return in.readBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case TYPE_UP_DOWN:
+                return in.readBoolean() ? UpDownType.UP : UpDownType.DOWN;
+            case TYPE_HSB:
+                return new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                        new PercentType(readDecimal(in)));
+            case TYPE_PERCENT:
+                return new PercentType(readDecimal(in));
+            case TYPE_DECIMAL:
+                return new DecimalType(readDecimal(in));
+            case TYPE_QUANTITY:
+                return QuantityType.valueOf(readString(in));
+            case TYPE_STRING:
+                return new StringType(readString(in));
+            case TYPE_DATE_TIME:
+                return new DateTimeType(readString(in));
+            case TYPE_OTHER:
+                String typeName = readString(in);
+                String value = readString(in);
+                try {
+                    @SuppressWarnings("unchecked")
+                    Class<? extends State> stateType = (Class<? extends State>) Class.forName(typeName);
+                    return TypeParser.parseState(List.of(stateType), value);
+                } catch (ClassNotFoundException | ClassCastException e) {
+                    logger.warn("Couldn't deserialize state '{}' of type '{}': {}", value, typeName, e.getMessage());
+                    return null;
+                }
+            default:
+                logger.warn("Couldn't deserialize state: unknown type {}", type);
+                return null;
+        }
+    }
+
+    private void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readInt()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        // not writeUTF(), which is limited to 64 kB
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
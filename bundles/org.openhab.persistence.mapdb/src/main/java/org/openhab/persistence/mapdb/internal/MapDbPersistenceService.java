@@ -14,13 +14,19 @@ package org.openhab.persistence.mapdb.internal;
 
 import java.io.File;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -40,6 +46,7 @@ import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
 import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +62,8 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_ID = "mapdb";
@@ -64,22 +72,51 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
             + File.separator + "mapdb";
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    private static final String CONFIG_COMMIT_INTERVAL = "commitInterval";
+    private static final String CONFIG_COMMIT_SIZE = "commitSize";
+    private static final String CONFIG_SERIALIZER = "serializer";
+    private static final String SERIALIZER_BINARY = "binary";
+
+    private static final long DEFAULT_COMMIT_INTERVAL = 5000;
+    private static final int DEFAULT_COMMIT_SIZE = 100;
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    // ThreadPoolManager keeps all pools by name, so the scheduled pool needs a name of its own
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName() + "-commit");
 
     /** holds the local instance of the MapDB database */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    /** values are JSON strings or, with the binary serializer, byte arrays */
+    private @NonNullByDefault({}) Map<String, Object> map;
+
+    /** latest state per item that has not been written to the database yet */
+    private final Map<String, MapDbItem> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private @Nullable ScheduledFuture<?> flushJob;
+    private @Nullable Future<?> submittedFlush;
+
+    private long commitInterval = DEFAULT_COMMIT_INTERVAL;
+    private int commitSize = DEFAULT_COMMIT_SIZE;
+    private boolean binary = false;
 
     private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
+    private final MapDbItemSerializer binarySerializer = new MapDbItemSerializer();
 
     @Activate
-    public void activate() {
+    public void activate(final @Nullable Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
+        if (config != null) {
+            commitInterval = getLongConfig(config, CONFIG_COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL);
+            commitSize = (int) getLongConfig(config, CONFIG_COMMIT_SIZE, DEFAULT_COMMIT_SIZE);
+            binary = SERIALIZER_BINARY.equalsIgnoreCase(String.valueOf(config.get(CONFIG_SERIALIZER)));
+        }
+
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
             if (!folder.mkdirs()) {
@@ -92,14 +129,34 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
         map = db.createTreeMap("itemStore").makeOrGet();
-        logger.debug("MapDB persistence service is now activated");
+        if (commitInterval > 0) {
+            flushJob = scheduler.scheduleWithFixedDelay(this::flush, commitInterval, commitInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+        logger.debug("MapDB persistence service is now activated (commitInterval={} ms, commitSize={}, {})",
+                commitInterval, commitSize, binary ? "binary" : "json");
     }
 
     @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
-        if (db != null) {
-            db.close();
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+        Future<?> submitted = submittedFlush;
+        if (submitted != null) {
+            submitted.cancel(false);
+            submittedFlush = null;
+        }
+        // a flush that is already running finishes first, one that starts later finds the database closed
+        synchronized (this) {
+            if (db != null) {
+                flush();
+                db.close();
+                db = null;
+            }
         }
     }
 
@@ -115,8 +172,11 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
-                .collect(Collectors.<PersistenceItemInfo> toUnmodifiableSet());
+        Map<String, PersistenceItemInfo> items = new HashMap<>();
+        map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
+                .forEach(item -> items.put(item.getName(), item));
+        items.putAll(pending);
+        return Set.copyOf(items.values());
     }
 
     @Override
@@ -139,28 +199,90 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(localAlias, json);
-        commit();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+        if (commitInterval <= 0) {
+            // write-behind disabled, write and commit every value on its own
+            write(mItem);
+            commit();
+            return;
+        }
+        pending.put(localAlias, mItem);
+        int pendingCount = pending.size();
+        logger.debug("Queued '{}' with state '{}' for MapDB database, {} items pending", localAlias, state,
+                pendingCount);
+        if (pendingCount >= commitSize && flushScheduled.compareAndSet(false, true)) {
+            submittedFlush = threadPool.submit(this::flush);
         }
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        MapDbItem pendingItem = pending.get(filter.getItemName());
+        if (pendingItem != null) {
+            return List.of(pendingItem);
+        }
+        Object value = map.get(filter.getItemName());
+        if (value == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(value);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
+    /**
+     * @return number of states that have not been written to the database yet
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending states and commits them with a single transaction. Does nothing once the database has been
+     * closed.
+     */
+    synchronized void flush() {
+        flushScheduled.set(false);
+        List<MapDbItem> items = List.copyOf(pending.values());
+        if (db == null || items.isEmpty()) {
+            return;
+        }
+        try {
+            items.forEach(this::write);
+            db.commit();
+            // keep states that were replaced in the meantime for the next round
+            items.forEach(item -> pending.remove(item.getName(), item));
+            logger.debug("Committed {} items to MapDB database", items.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to commit {} items to MapDB database, retrying later: {}", items.size(),
+                    e.getMessage());
+        }
+    }
+
+    private void write(MapDbItem item) {
+        Object value = binary ? binarySerializer.serialize(item) : serialize(item);
+        map.put(item.getName(), value);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", item.getName(), item.getState(),
+                    value instanceof byte[] ? ((byte[]) value).length + " bytes" : value);
+        }
+    }
+
     private String serialize(MapDbItem item) {
         return mapper.toJson(item);
     }
 
+    private Optional<MapDbItem> deserialize(Object value) {
+        if (value instanceof byte[]) {
+            MapDbItem item = binarySerializer.deserialize((byte[]) value);
+            if (item == null || !item.isValid()) {
+                logger.warn("Deserialized invalid item: {}", item);
+                return Optional.empty();
+            }
+            return Optional.of(item);
+        }
+        // values written before the binary serializer was enabled are JSON
+        return deserialize(value.toString());
+    }
+
     @SuppressWarnings("null")
     private Optional<MapDbItem> deserialize(String json) {
         MapDbItem item = mapper.<MapDbItem> fromJson(json, MapDbItem.class);
@@ -178,6 +300,19 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         threadPool.submit(() -> db.commit());
     }
 
+    private long getLongConfig(Map<String, Object> config, String key, long defaultValue) {
+        Object value = config.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring illegal value '{}' for '{}', using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
         return opt.isPresent() ? Stream.of(opt.get()) : Stream.empty();
     }
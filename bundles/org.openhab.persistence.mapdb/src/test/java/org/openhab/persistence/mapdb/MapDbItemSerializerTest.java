@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PlayPauseType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.SmartHomeUnits;
+import org.openhab.core.types.State;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemSerializer;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializerTest {
+    private final MapDbItemSerializer serializer = new MapDbItemSerializer();
+
+    private static final List<State> VALUES = List.of(DecimalType.ZERO, new DecimalType(1.123),
+            new DecimalType(new BigDecimal("-12345678901234567890.000001")), HSBType.BLACK, HSBType.fromRGB(11, 22, 33),
+            OnOffType.ON, OnOffType.OFF, OpenClosedType.OPEN, OpenClosedType.CLOSED, UpDownType.UP,
+            PercentType.ZERO, PercentType.valueOf("99.999"), QuantityType.valueOf("1 kW"),
+            new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS),
+            QuantityType.valueOf(100, SmartHomeUnits.METRE_PER_SQUARE_SECOND), StringType.valueOf(""),
+            StringType.valueOf("@@@###   @@@ äöü"), new DateTimeType("2020-10-18T12:34:56.789+0200"),
+            PlayPauseType.PLAY);
+
+    @ParameterizedTest
+    @MethodSource
+    public void serializeDeserializeRoundtripShouldRecreateTheWrittenItem(State state) {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(state);
+        item.setTimestamp(new Date(1603017296789L));
+
+        MapDbItem actual = Objects.requireNonNull(serializer.deserialize(serializer.serialize(item)));
+
+        assertThat(actual.getName(), is(equalTo("item")));
+        assertThat(actual.getState(), is(equalTo(state)));
+        assertThat(actual.getTimestamp(), is(equalTo(item.getTimestamp())));
+    }
+
+    public static Stream<State> serializeDeserializeRoundtripShouldRecreateTheWrittenItem() {
+        return VALUES.stream();
+    }
+
+    @Test
+    public void deserializeOfUnknownFormatShouldReturnNull() {
+        assertThat(serializer.deserialize(new byte[] { 42 }), is(nullValue()));
+        assertThat(serializer.deserialize(new byte[0]), is(nullValue()));
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.OpenHAB;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Tests the write-behind commits of the {@link MapDbPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbPersistenceServiceTest {
+    private final List<MapDbPersistenceService> services = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpUserData() throws IOException {
+        // the database folder is taken from the user data folder when the service class is loaded
+        System.setProperty(OpenHAB.USERDATA_DIR_PROG_ARGUMENT,
+                Files.createTempDirectory("mapdb").toAbsolutePath().toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        services.forEach(MapDbPersistenceService::deactivate);
+    }
+
+    private MapDbPersistenceService activate(String commitInterval, String commitSize) {
+        MapDbPersistenceService service = new MapDbPersistenceService();
+        service.activate(Map.of("commitInterval", commitInterval, "commitSize", commitSize));
+        services.add(service);
+        return service;
+    }
+
+    private static void store(MapDbPersistenceService service, String name, int value) {
+        NumberItem item = new NumberItem(name);
+        item.setState(new DecimalType(value));
+        service.store(item);
+    }
+
+    private static List<HistoricItem> query(MapDbPersistenceService service, String name) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(name);
+        List<HistoricItem> items = new ArrayList<>();
+        service.query(filter).forEach(items::add);
+        return items;
+    }
+
+    @Test
+    public void flushWhenCommitSizeIsReached() throws InterruptedException {
+        MapDbPersistenceService service = activate("600000", "2");
+        store(service, "Size1", 1);
+        assertEquals(1, service.getPendingCount());
+
+        store(service, "Size2", 2);
+        for (int i = 0; i < 100 && service.getPendingCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(0, service.getPendingCount());
+        assertEquals(new DecimalType(2), query(service, "Size2").get(0).getState());
+    }
+
+    @Test
+    public void keepLatestPendingStatePerItem() {
+        MapDbPersistenceService service = activate("600000", "100");
+        store(service, "Latest", 1);
+        store(service, "Latest", 2);
+
+        assertEquals(1, service.getPendingCount());
+        assertEquals(new DecimalType(2), query(service, "Latest").get(0).getState());
+    }
+
+    @Test
+    public void flushOnDeactivate() {
+        MapDbPersistenceService service = activate("600000", "100");
+        store(service, "Deactivate", 3);
+        assertEquals(1, service.getPendingCount());
+
+        service.deactivate();
+        services.remove(service);
+
+        MapDbPersistenceService restarted = activate("600000", "100");
+        assertEquals(new DecimalType(3), query(restarted, "Deactivate").get(0).getState());
+    }
+
+    @Test
+    public void skipFlushAfterDeactivate() {
+        MapDbPersistenceService service = activate("600000", "100");
+        service.deactivate();
+        services.remove(service);
+
+        // a flush that was queued before the service was deactivated must not touch the closed database
+        store(service, "Closed", 4);
+        service.flush();
+
+        assertEquals(1, service.getPendingCount());
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Function applied by the database to the values of one time bucket of an aggregated query.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public enum Aggregation {
+    MIN("$min"),
+    MAX("$max"),
+    AVG("$avg"),
+    LAST("$last");
+
+    private final String accumulator;
+
+    Aggregation(String accumulator) {
+        this.accumulator = accumulator;
+    }
+
+    /**
+     * @return the {@code $group} accumulator operator
+     */
+    public String getAccumulator() {
+        return accumulator;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.persistence.HistoricItem;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.Cursor;
+
+/**
+ * Query result that reads its documents in chunks while it is iterated.
+ *
+ * Every chunk is read from a cursor of its own, which is closed as soon as the chunk has been read, so no cursor is
+ * left open on the server between two calls of the iterator or when a reader stops early. Chunks continue by skipping
+ * the documents read so far; timestamps are not unique and cannot be used to continue. Only the current chunk is kept
+ * in memory; every iterator reads the result from the database again.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class MongoDBHistoricItemIterable implements Iterable<HistoricItem> {
+
+    /**
+     * Opens the cursor of a chunk.
+     */
+    @FunctionalInterface
+    interface ChunkQuery {
+        Cursor find(int skip, int limit);
+    }
+
+    /**
+     * Converts a document into a historic item.
+     */
+    @FunctionalInterface
+    interface DocumentConverter {
+        HistoricItem convert(BasicDBObject obj);
+    }
+
+    private final ChunkQuery query;
+    private final int skip;
+    private final int chunkSize;
+    private final int maxDocuments;
+    private final DocumentConverter converter;
+
+    /**
+     * @param query opens the cursor of each chunk
+     * @param skip number of documents to skip before the first chunk
+     * @param chunkSize maximum number of documents read from one cursor
+     * @param maxDocuments number of documents after which the result ends
+     * @param converter converts a document into a historic item
+     */
+    MongoDBHistoricItemIterable(ChunkQuery query, int skip, int chunkSize, int maxDocuments,
+            DocumentConverter converter) {
+        this.query = query;
+        this.skip = skip;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxDocuments = maxDocuments;
+        this.converter = converter;
+    }
+
+    @Override
+    public Iterator<HistoricItem> iterator() {
+        return new ChunkIterator();
+    }
+
+    private class ChunkIterator implements Iterator<HistoricItem> {
+        private Iterator<HistoricItem> chunk = Collections.emptyIterator();
+        private int documents = 0;
+        private boolean complete = false;
+
+        @Override
+        public boolean hasNext() {
+            while (!chunk.hasNext() && !complete) {
+                readChunk();
+            }
+            return chunk.hasNext();
+        }
+
+        @Override
+        public HistoricItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.next();
+        }
+
+        private void readChunk() {
+            int limit = Math.min(chunkSize, maxDocuments - documents);
+            List<HistoricItem> items = new ArrayList<>();
+            try (Cursor cursor = query.find(skip + documents, limit)) {
+                while (items.size() < limit && cursor.hasNext()) {
+                    items.add(converter.convert((BasicDBObject) cursor.next()));
+                }
+            }
+            documents += items.size();
+            complete = items.size() < limit || documents >= maxDocuments;
+            chunk = items.iterator();
+        }
+    }
+}
@@ -12,6 +12,9 @@
  */
 package org.openhab.persistence.mongodb.internal;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -28,6 +31,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.library.items.ColorItem;
 import org.openhab.core.library.items.ContactItem;
 import org.openhab.core.library.items.DateTimeItem;
 import org.openhab.core.library.items.DimmerItem;
@@ -59,9 +63,9 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mongodb.AggregationOptions;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
-import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
@@ -82,6 +86,8 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private static final String FIELD_TIMESTAMP = "timestamp";
     private static final String FIELD_VALUE = "value";
 
+    private static final int CHUNK_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private @NonNullByDefault({}) String url;
@@ -269,7 +275,6 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         String name = filter.getItemName();
         Item item = getItem(name);
 
-        List<HistoricItem> items = new ArrayList<>();
         DBObject query = new BasicDBObject();
         if (filter.getItemName() != null) {
             query.put(FIELD_ITEM, filter.getItemName());
@@ -287,35 +292,125 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         }
 
         Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = this.mongoCollection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
-                .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
-
-        while (cursor.hasNext()) {
-            BasicDBObject obj = (BasicDBObject) cursor.next();
-
-            final State state;
-            if (item instanceof NumberItem) {
-                state = new DecimalType(obj.getDouble(FIELD_VALUE));
-            } else if (item instanceof DimmerItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof SwitchItem) {
-                state = OnOffType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof ContactItem) {
-                state = OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
-            } else if (item instanceof RollershutterItem) {
-                state = new PercentType(obj.getInt(FIELD_VALUE));
-            } else if (item instanceof DateTimeItem) {
-                state = new DateTimeType(
-                        ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
-            } else {
-                state = new StringType(obj.getString(FIELD_VALUE));
-            }
-
-            items.add(new MongoDBItem(name, state,
-                    ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+        DBCollection currentCollection = this.mongoCollection;
+        return new MongoDBHistoricItemIterable(
+                (skip, limit) -> currentCollection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
+                        .skip(skip).limit(limit).batchSize(limit),
+                filter.getPageNumber() * filter.getPageSize(), CHUNK_SIZE, filter.getPageSize(),
+                obj -> new MongoDBItem(name, convertState(item, obj),
+                        ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+    }
+
+    /**
+     * Queries the database for data with a given filter criteria, reduced by the server to one value per time
+     * bucket. Buckets are aligned to the epoch, paging applies to the buckets.
+     *
+     * @param filter the filter to apply to the query
+     * @param bucket width of the time buckets
+     * @param aggregation function applied to the values of each bucket
+     * @return a time series of items, one per non-empty bucket
+     */
+    public Iterable<HistoricItem> query(FilterCriteria filter, Duration bucket, Aggregation aggregation) {
+        if (!initialized) {
+            return Collections.emptyList();
+        }
+
+        if (!isConnected()) {
+            connectToDatabase();
         }
 
-        return items;
+        if (!isConnected()) {
+            return Collections.emptyList();
+        }
+
+        String name = filter.getItemName();
+        Item item = getItem(name);
+        if (aggregation == Aggregation.AVG && !isNumeric(item)) {
+            logger.warn("Cannot average values of non-numeric item '{}'", name);
+            return Collections.emptyList();
+        }
+
+        List<DBObject> pipeline = createAggregationPipeline(filter, bucket, aggregation);
+        DBCollection currentCollection = this.mongoCollection;
+        return new MongoDBHistoricItemIterable((skip, limit) -> {
+            List<DBObject> chunk = new ArrayList<>(pipeline);
+            chunk.add(new BasicDBObject("$skip", skip));
+            chunk.add(new BasicDBObject("$limit", limit));
+            return currentCollection.aggregate(chunk, AggregationOptions.builder()
+                    .outputMode(AggregationOptions.OutputMode.CURSOR).batchSize(limit).build());
+        }, filter.getPageNumber() * filter.getPageSize(), CHUNK_SIZE, filter.getPageSize(),
+                obj -> new MongoDBItem(name, convertState(item, obj),
+                        ZonedDateTime.ofInstant(obj.getDate(FIELD_TIMESTAMP).toInstant(), ZoneId.systemDefault())));
+    }
+
+    /**
+     * Creates the aggregation pipeline of {@link #query(FilterCriteria, Duration, Aggregation)}, without paging.
+     */
+    List<DBObject> createAggregationPipeline(FilterCriteria filter, Duration bucket, Aggregation aggregation) {
+        DBObject match = new BasicDBObject();
+        if (filter.getItemName() != null) {
+            match.put(FIELD_ITEM, filter.getItemName());
+        }
+        if (filter.getState() != null && filter.getOperator() != null) {
+            String op = convertOperator(filter.getOperator());
+            Object value = convertValue(filter.getState());
+            match.put(FIELD_VALUE, new BasicDBObject(op, value));
+        }
+        BasicDBObject timeRange = new BasicDBObject();
+        if (filter.getBeginDate() != null) {
+            timeRange.put("$gte", Date.from(filter.getBeginDate().toInstant()));
+        }
+        if (filter.getEndDate() != null) {
+            timeRange.put("$lte", Date.from(filter.getEndDate().toInstant()));
+        }
+        if (!timeRange.isEmpty()) {
+            match.put(FIELD_TIMESTAMP, timeRange);
+        }
+
+        // milliseconds since the epoch, truncated to the start of the bucket
+        BasicDBObject epochMillis = new BasicDBObject("$subtract", List.of("$" + FIELD_TIMESTAMP, new Date(0)));
+        BasicDBObject bucketStart = new BasicDBObject("$subtract",
+                List.of(epochMillis, new BasicDBObject("$mod", List.of(epochMillis, bucket.toMillis()))));
+
+        BasicDBObject group = new BasicDBObject(FIELD_ID, bucketStart);
+        if (aggregation == Aggregation.LAST) {
+            group.put(FIELD_TIMESTAMP, new BasicDBObject("$last", "$" + FIELD_TIMESTAMP));
+        } else {
+            group.put(FIELD_TIMESTAMP, new BasicDBObject("$min", "$" + FIELD_TIMESTAMP));
+        }
+        group.put(FIELD_VALUE, new BasicDBObject(aggregation.getAccumulator(), "$" + FIELD_VALUE));
+
+        Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
+        List<DBObject> pipeline = new ArrayList<>();
+        pipeline.add(new BasicDBObject("$match", match));
+        pipeline.add(new BasicDBObject("$sort", new BasicDBObject(FIELD_TIMESTAMP, 1)));
+        pipeline.add(new BasicDBObject("$group", group));
+        pipeline.add(new BasicDBObject("$sort", new BasicDBObject(FIELD_TIMESTAMP, sortDir)));
+        return pipeline;
+    }
+
+    private boolean isNumeric(@Nullable Item item) {
+        return !(item instanceof ColorItem)
+                && (item instanceof NumberItem || item instanceof DimmerItem || item instanceof RollershutterItem);
+    }
+
+    private State convertState(@Nullable Item item, BasicDBObject obj) {
+        if (item instanceof NumberItem) {
+            return new DecimalType(obj.getDouble(FIELD_VALUE));
+        } else if (item instanceof DimmerItem || item instanceof RollershutterItem) {
+            // aggregated values are not necessarily integral
+            return new PercentType(
+                    BigDecimal.valueOf(obj.getDouble(FIELD_VALUE)).setScale(0, RoundingMode.HALF_UP).intValue());
+        } else if (item instanceof SwitchItem) {
+            return OnOffType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof ContactItem) {
+            return OpenClosedType.valueOf(obj.getString(FIELD_VALUE));
+        } else if (item instanceof DateTimeItem) {
+            return new DateTimeType(
+                    ZonedDateTime.ofInstant(obj.getDate(FIELD_VALUE).toInstant(), ZoneId.systemDefault()));
+        } else {
+            return new StringType(obj.getString(FIELD_VALUE));
+        }
     }
 
     private @Nullable String convertOperator(Operator operator) {
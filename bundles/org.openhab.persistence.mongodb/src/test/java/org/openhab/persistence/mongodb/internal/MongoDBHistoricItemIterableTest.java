@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.HistoricItem;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.Cursor;
+import com.mongodb.DBObject;
+
+/**
+ * Tests the {@link MongoDBHistoricItemIterable}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBHistoricItemIterableTest {
+    private static final int DOCUMENTS = 10;
+
+    private final List<Cursor> cursors = new ArrayList<>();
+    private final List<Integer> skips = new ArrayList<>();
+
+    private Cursor find(int skip, int limit) {
+        skips.add(skip);
+        List<DBObject> documents = new ArrayList<>();
+        for (int i = skip; i < Math.min(DOCUMENTS, skip + limit); i++) {
+            documents.add(new BasicDBObject("value", i));
+        }
+        Iterator<DBObject> iterator = documents.iterator();
+        Cursor cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    private MongoDBHistoricItemIterable query(int skip, int maxDocuments) {
+        return new MongoDBHistoricItemIterable(this::find, skip, 3, maxDocuments,
+                obj -> new MongoDBItem("Test", new DecimalType(obj.getInt("value")), ZonedDateTime.now()));
+    }
+
+    private static List<Integer> values(Iterable<HistoricItem> result) {
+        List<Integer> values = new ArrayList<>();
+        for (HistoricItem item : result) {
+            values.add(((DecimalType) item.getState()).intValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void readAllChunks() {
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values(query(0, Integer.MAX_VALUE)));
+        assertEquals(List.of(0, 3, 6, 9), skips);
+        for (Cursor cursor : cursors) {
+            verify(cursor).close();
+        }
+    }
+
+    @Test
+    public void readPageAcrossChunks() {
+        assertEquals(List.of(4, 5, 6, 7), values(query(4, 4)));
+        assertEquals(List.of(4, 7), skips);
+    }
+
+    @Test
+    public void stopEarlyAndCloseCursor() {
+        Iterator<HistoricItem> iterator = query(0, Integer.MAX_VALUE).iterator();
+        assertTrue(iterator.hasNext());
+        iterator.next();
+
+        assertEquals(1, cursors.size());
+        verify(cursors.get(0)).close();
+    }
+
+    @Test
+    public void iterateAgainQueriesAgain() {
+        MongoDBHistoricItemIterable result = query(0, Integer.MAX_VALUE);
+        List<Integer> first = values(result);
+
+        assertEquals(first, values(result));
+        assertEquals(List.of(0, 3, 6, 9, 0, 3, 6, 9), skips);
+    }
+}
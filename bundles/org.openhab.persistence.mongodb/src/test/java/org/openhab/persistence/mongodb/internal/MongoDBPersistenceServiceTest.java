@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Tests the aggregation pipeline of the {@link MongoDBPersistenceService}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBPersistenceServiceTest {
+    private final MongoDBPersistenceService service = new MongoDBPersistenceService(mock(ItemRegistry.class));
+
+    private static FilterCriteria filter(Ordering ordering) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("Test");
+        filter.setOrdering(ordering);
+        return filter;
+    }
+
+    private static DBObject stage(List<DBObject> pipeline, int index, String operator) {
+        DBObject stage = pipeline.get(index);
+        assertEquals(1, stage.keySet().size());
+        return (DBObject) stage.get(operator);
+    }
+
+    @Test
+    public void groupsByBucket() {
+        FilterCriteria filter = filter(Ordering.DESCENDING);
+        ZonedDateTime begin = ZonedDateTime.parse("2020-01-01T00:00:00Z");
+        filter.setBeginDate(begin);
+
+        List<DBObject> pipeline = service.createAggregationPipeline(filter, Duration.ofMinutes(15), Aggregation.AVG);
+
+        assertEquals(4, pipeline.size());
+        DBObject match = stage(pipeline, 0, "$match");
+        assertEquals("Test", match.get("item"));
+        assertEquals(new BasicDBObject("$gte", Date.from(begin.toInstant())), match.get("timestamp"));
+        assertEquals(new BasicDBObject("timestamp", 1), stage(pipeline, 1, "$sort"));
+
+        DBObject group = stage(pipeline, 2, "$group");
+        BasicDBObject epochMillis = new BasicDBObject("$subtract", List.of("$timestamp", new Date(0)));
+        assertEquals(new BasicDBObject("$subtract",
+                List.of(epochMillis, new BasicDBObject("$mod", List.of(epochMillis, 900_000L)))), group.get("_id"));
+        assertEquals(new BasicDBObject("$min", "$timestamp"), group.get("timestamp"));
+        assertEquals(new BasicDBObject("$avg", "$value"), group.get("value"));
+
+        assertEquals(new BasicDBObject("timestamp", -1), stage(pipeline, 3, "$sort"));
+    }
+
+    @Test
+    public void lastKeepsTimeOfLastValue() {
+        List<DBObject> pipeline = service.createAggregationPipeline(filter(Ordering.ASCENDING), Duration.ofHours(1),
+                Aggregation.LAST);
+
+        DBObject group = stage(pipeline, 2, "$group");
+        assertEquals(new BasicDBObject("$last", "$timestamp"), group.get("timestamp"));
+        assertEquals(new BasicDBObject("$last", "$value"), group.get("value"));
+        assertEquals(new BasicDBObject("timestamp", 1), stage(pipeline, 3, "$sort"));
+    }
+}
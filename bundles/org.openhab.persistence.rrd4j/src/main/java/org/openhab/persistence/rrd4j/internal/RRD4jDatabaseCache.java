@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps {@link RrdDb} handles open between accesses and serializes the accesses per database.
+ *
+ * Every access runs while holding one of a fixed set of locks selected by the database name, so different items
+ * are written concurrently while two accesses to the same file never overlap. The number of open handles is bounded,
+ * the least recently used ones are closed first, and handles that have not been used for the idle timeout are
+ * closed by {@link #evictIdle()}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDatabaseCache {
+
+    /**
+     * Opens or creates the database for a name, returning null if there is none.
+     */
+    @FunctionalInterface
+    public interface DatabaseLoader {
+        @Nullable
+        RrdDb open(String name) throws IOException;
+    }
+
+    /**
+     * Does something with an open database. The database must not be closed by the action.
+     */
+    @FunctionalInterface
+    public interface DatabaseAction<T> {
+        @Nullable
+        T apply(RrdDb db) throws IOException;
+    }
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDatabaseCache.class);
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<String, CachedDatabase> databases = new ConcurrentHashMap<>();
+    private final DatabaseLoader loader;
+
+    private volatile int capacity;
+    private volatile long idleTimeoutNanos;
+
+    private static class CachedDatabase {
+        private final RrdDb db;
+        private volatile long lastAccess = System.nanoTime();
+
+        private CachedDatabase(RrdDb db) {
+            this.db = db;
+        }
+    }
+
+    /**
+     * @param loader opens the database of a name that is not cached yet
+     * @param capacity maximum number of open databases, 0 closes every database right after its use
+     * @param idleTimeoutSeconds time after which an unused database is closed
+     */
+    public RRD4jDatabaseCache(DatabaseLoader loader, int capacity, long idleTimeoutSeconds) {
+        this.loader = loader;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        setLimits(capacity, idleTimeoutSeconds);
+    }
+
+    public void setLimits(int capacity, long idleTimeoutSeconds) {
+        this.capacity = Math.max(0, capacity);
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(1, idleTimeoutSeconds));
+    }
+
+    /**
+     * Runs an action on the database of the given name while holding its lock.
+     *
+     * @return the result of the action, or null if there is no database for the name
+     * @throws IOException if the database could not be opened or the action failed, in which case the handle is
+     *             closed
+     */
+    public <T> @Nullable T withDatabase(String name, DatabaseAction<T> action) throws IOException {
+        ReentrantLock lock = lockFor(name);
+        lock.lock();
+        try {
+            CachedDatabase cached = databases.get(name);
+            if (cached == null) {
+                RrdDb db = loader.open(name);
+                if (db == null) {
+                    return null;
+                }
+                cached = new CachedDatabase(db);
+                if (capacity > 0) {
+                    databases.put(name, cached);
+                }
+            }
+            cached.lastAccess = System.nanoTime();
+            boolean keepOpen = capacity > 0;
+            try {
+                return action.apply(cached.db);
+            } catch (IOException | RuntimeException e) {
+                keepOpen = false;
+                throw e;
+            } finally {
+                if (!keepOpen) {
+                    databases.remove(name, cached);
+                    close(name, cached);
+                }
+            }
+        } finally {
+            lock.unlock();
+            if (databases.size() > capacity) {
+                evictLeastRecentlyUsed();
+            }
+        }
+    }
+
+    /**
+     * Closes all databases that have not been used for the idle timeout.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        databases.forEach((name, cached) -> {
+            if (now - cached.lastAccess > idleTimeoutNanos) {
+                tryEvict(name, cached);
+            }
+        });
+    }
+
+    /**
+     * Closes all databases, waiting for running accesses to finish.
+     */
+    public void closeAll() {
+        for (String name : new ArrayList<>(databases.keySet())) {
+            ReentrantLock lock = lockFor(name);
+            lock.lock();
+            try {
+                CachedDatabase cached = databases.remove(name);
+                if (cached != null) {
+                    close(name, cached);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return databases.size();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        List<Map.Entry<String, CachedDatabase>> entries = new ArrayList<>(databases.entrySet());
+        int excess = entries.size() - capacity;
+        if (excess <= 0) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (Map.Entry<String, CachedDatabase> entry : entries) {
+            if (excess <= 0) {
+                break;
+            }
+            if (tryEvict(entry.getKey(), entry.getValue())) {
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Closes a database unless it is currently in use, in which case it is left for a later round.
+     */
+    private boolean tryEvict(String name, CachedDatabase cached) {
+        ReentrantLock lock = lockFor(name);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (databases.remove(name, cached)) {
+                close(name, cached);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void close(String name, CachedDatabase cached) {
+        try {
+            cached.db.close();
+            logger.trace("Closed rrd4j database of '{}'", name);
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database of '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private ReentrantLock lockFor(String name) {
+        return locks[(name.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+}
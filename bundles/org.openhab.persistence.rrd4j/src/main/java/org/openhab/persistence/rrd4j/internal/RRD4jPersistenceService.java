@@ -18,7 +18,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -30,6 +29,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
@@ -67,14 +67,18 @@ import org.openhab.core.types.State;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,8 +93,8 @@ import org.slf4j.LoggerFactory;
  * @author Karel Goderis - remove TimerThread dependency
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        RRD4jPersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final String DEFAULT_OTHER = "default_other";
@@ -111,7 +115,28 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
 
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<>();
+    private static final String CONFIG_MAX_OPEN_DATABASES = "maxOpenDatabases";
+    private static final String CONFIG_IDLE_TIMEOUT = "idleTimeout";
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_SYNC_PERIOD = "syncPeriod";
+
+    private static final String BACKEND_FILE = "file";
+    private static final String BACKEND_NIO = "nio";
+
+    private static final int DEFAULT_MAX_OPEN_DATABASES = 200;
+    private static final long DEFAULT_IDLE_TIMEOUT = 300;
+    private static final long EVICTION_INTERVAL = 30;
+    private static final int DEFAULT_SYNC_PERIOD = 300;
+
+    private final RRD4jDatabaseCache databases = new RRD4jDatabaseCache(this::getDB, DEFAULT_MAX_OPEN_DATABASES,
+            DEFAULT_IDLE_TIMEOUT);
+
+    private final Map<String, Double> pendingSamples = new ConcurrentHashMap<>();
+
+    private @Nullable ScheduledFuture<?> evictionJob;
+
+    private volatile RrdBackendFactory backendFactory = RrdBackendFactory.getDefaultFactory();
+    private String backendConfig = "";
 
     protected final ItemRegistry itemRegistry;
 
@@ -131,94 +156,118 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     @Override
-    public synchronized void store(final Item item, @Nullable final String alias) {
+    public void store(final Item item, @Nullable final String alias) {
         if (!isSupportedItemType(item)) {
             logger.trace("Ignoring item '{}' since its type {} is not supported", item.getName(), item.getType());
             return;
         }
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
-            ConsolFun function = getConsolidationFunction(db);
-            long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
-                try {
-                    // we store the last value again, so that the value change
-                    // in the database is not interpolated, but
-                    // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
-                        // only do it if there is not already a value
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            Sample sample = db.createSample();
-                            sample.setTime(now - 1);
-                            sample.setValue(DATASOURCE_STATE, lastValue);
-                            sample.update();
-                            logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
+
+        Double value = null;
+        if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
+            NumberItem nItem = (NumberItem) item;
+            QuantityType<?> qState = (QuantityType<?>) item.getState();
+            Unit<? extends Quantity<?>> unit = nItem.getUnit();
+            if (unit != null) {
+                QuantityType<?> convertedState = qState.toUnit(unit);
+                if (convertedState != null) {
+                    value = convertedState.doubleValue();
+                } else {
+                    logger.warn(
+                            "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
+                            qState, unit);
                 }
+            } else {
+                value = qState.doubleValue();
             }
-            try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
+        } else {
+            DecimalType state = item.getStateAs(DecimalType.class);
+            if (state != null) {
+                value = state.toBigDecimal().doubleValue();
+            }
+        }
+        if (value != null) {
+            store(name, value, false);
+        }
+    }
 
-                Double value = null;
-
-                if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
-                    NumberItem nItem = (NumberItem) item;
-                    QuantityType<?> qState = (QuantityType<?>) item.getState();
-                    Unit<? extends Quantity<?>> unit = nItem.getUnit();
-                    if (unit != null) {
-                        QuantityType<?> convertedState = qState.toUnit(unit);
-                        if (convertedState != null) {
-                            value = convertedState.doubleValue();
-                        } else {
-                            logger.warn(
-                                    "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
-                                    qState, unit);
-                        }
-                    } else {
-                        value = qState.doubleValue();
-                    }
-                } else {
-                    DecimalType state = item.getStateAs(DecimalType.class);
-                    if (state != null) {
-                        value = state.toBigDecimal().doubleValue();
+    /**
+     * @param flush true if the value must be written right away, even if it has to be dated one second after the
+     *            previous sample
+     */
+    private void store(String name, double value, boolean flush) {
+        try {
+            databases.withDatabase(name, db -> {
+                long now = System.currentTimeMillis() / 1000;
+                if (now <= db.getLastUpdateTime()) {
+                    if (!flush) {
+                        // rrd4j needs at least one second between two samples, keep the value for the next second
+                        deferSample(name, value);
+                        return null;
                     }
+                    now = db.getLastUpdateTime() + 1;
                 }
-                if (value != null) {
-                    if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
-                                                                                          // adjusted by stepsize
-                        value = value * db.getRrdDef().getStep();
+                ConsolFun function = getConsolidationFunction(db);
+                if (function != ConsolFun.AVERAGE) {
+                    try {
+                        // we store the last value again, so that the value change
+                        // in the database is not interpolated, but
+                        // happens right at this spot
+                        if (now - 1 > db.getLastUpdateTime()) {
+                            // only do it if there is not already a value
+                            double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                            if (!Double.isNaN(lastValue)) {
+                                Sample sample = db.createSample();
+                                sample.setTime(now - 1);
+                                sample.setValue(DATASOURCE_STATE, lastValue);
+                                sample.update();
+                                logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
+                            }
+                        }
+                    } catch (IOException e) {
+                        logger.debug("Error storing last value (again): {}", e.getMessage());
                     }
-                    sample.setValue(DATASOURCE_STATE, value);
-                    sample.update();
-                    logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
                 }
-            } catch (IllegalArgumentException e) {
-                String message = e.getMessage();
-                if (message != null && message.contains("at least one second step is required")) {
-                    // we try to store the value one second later
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
-                    if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
-                    }
-                    job = scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
-                } else {
-                    logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+                double storedValue = value;
+                if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
+                                                                                      // adjusted by stepsize
+                    storedValue = value * db.getRrdDef().getStep();
                 }
-            } catch (Exception e) {
+                Sample sample = db.createSample();
+                sample.setTime(now);
+                sample.setValue(DATASOURCE_STATE, storedValue);
+                sample.update();
+                logger.debug("Stored '{}' as value '{}' in rrd4j database", name, storedValue);
+                return null;
+            });
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            if (!flush && message != null && message.contains("at least one second step is required")) {
+                deferSample(name, value);
+            } else {
                 logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
+        } catch (Exception e) {
+            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps a value that arrived in the same second as the previous one and stores it one second later. Further
+     * values arriving in the meantime replace it, so at most one sample per item is pending.
+     */
+    private void deferSample(String name, double value) {
+        if (pendingSamples.put(name, value) == null) {
             try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+                scheduler.schedule(() -> {
+                    Double pending = pendingSamples.remove(name);
+                    if (pending != null) {
+                        store(name, pending, false);
+                    }
+                }, 1, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException e) {
+                // this happens if the system is shut down
+                pendingSamples.remove(name);
             }
         }
     }
@@ -232,12 +281,6 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
 
-        RrdDb db = getDB(itemName);
-        if (db == null) {
-            logger.debug("Could not find item '{}' in rrd4j database", itemName);
-            return List.of();
-        }
-
         Item item = null;
         Unit<?> unit = null;
         try {
@@ -251,61 +294,74 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             logger.debug("Could not find item '{}' in registry", itemName);
         }
 
+        final Item queryItem = item;
+        final Unit<?> queryUnit = unit;
+        try {
+            Iterable<HistoricItem> items = databases.withDatabase(itemName,
+                    db -> query(db, filter, itemName, queryItem, queryUnit));
+            if (items == null) {
+                logger.debug("Could not find item '{}' in rrd4j database", itemName);
+                return List.of();
+            }
+            return items;
+        } catch (IOException e) {
+            logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Iterable<HistoricItem> query(RrdDb db, FilterCriteria filter, String itemName, @Nullable Item item,
+            @Nullable Unit<?> unit) throws IOException {
         long start = 0L;
         long end = filter.getEndDate() == null ? System.currentTimeMillis() / 1000
                 : filter.getEndDate().toInstant().getEpochSecond();
 
-        try {
-            if (filter.getBeginDate() == null) {
-                // as rrd goes back for years and gets more and more
-                // inaccurate, we only support descending order
-                // and a single return value
-                // if there is no begin date is given - this case is
-                // required specifically for the historicState()
-                // query, which we want to support
-                if (filter.getOrdering() == Ordering.DESCENDING && filter.getPageSize() == 1
-                        && filter.getPageNumber() == 0) {
-                    if (filter.getEndDate() == null) {
-                        // we are asked only for the most recent value!
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            HistoricItem rrd4jItem = new RRD4jItem(itemName, mapToState(lastValue, item, unit),
-                                    ZonedDateTime.ofInstant(Instant.ofEpochMilli(db.getLastArchiveUpdateTime() * 1000),
-                                            ZoneId.systemDefault()));
-                            return List.of(rrd4jItem);
-                        } else {
-                            return List.of();
-                        }
+        if (filter.getBeginDate() == null) {
+            // as rrd goes back for years and gets more and more
+            // inaccurate, we only support descending order
+            // and a single return value
+            // if there is no begin date is given - this case is
+            // required specifically for the historicState()
+            // query, which we want to support
+            if (filter.getOrdering() == Ordering.DESCENDING && filter.getPageSize() == 1
+                    && filter.getPageNumber() == 0) {
+                if (filter.getEndDate() == null) {
+                    // we are asked only for the most recent value!
+                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                    if (!Double.isNaN(lastValue)) {
+                        HistoricItem rrd4jItem = new RRD4jItem(itemName, mapToState(lastValue, item, unit),
+                                ZonedDateTime.ofInstant(Instant.ofEpochMilli(db.getLastArchiveUpdateTime() * 1000),
+                                        ZoneId.systemDefault()));
+                        return List.of(rrd4jItem);
                     } else {
-                        start = end;
+                        return List.of();
                     }
                 } else {
-                    throw new UnsupportedOperationException("rrd4j does not allow querys without a begin date, "
-                            + "unless order is descending and a single value is requested");
+                    start = end;
                 }
             } else {
-                start = filter.getBeginDate().toInstant().getEpochSecond();
-            }
-
-            FetchRequest request = db.createFetchRequest(getConsolidationFunction(db), start, end, 1);
-            FetchData result = request.fetchData();
-
-            List<HistoricItem> items = new ArrayList<>();
-            long ts = result.getFirstTimestamp();
-            long step = result.getRowCount() > 1 ? result.getStep() : 0;
-            for (double value : result.getValues(DATASOURCE_STATE)) {
-                if (!Double.isNaN(value) && (((ts >= start) && (ts <= end)) || (start == end))) {
-                    RRD4jItem rrd4jItem = new RRD4jItem(itemName, mapToState(value, item, unit),
-                            ZonedDateTime.ofInstant(Instant.ofEpochMilli(ts * 1000), ZoneId.systemDefault()));
-                    items.add(rrd4jItem);
-                }
-                ts += step;
+                throw new UnsupportedOperationException("rrd4j does not allow querys without a begin date, "
+                        + "unless order is descending and a single value is requested");
             }
-            return items;
-        } catch (IOException e) {
-            logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
-            return List.of();
+        } else {
+            start = filter.getBeginDate().toInstant().getEpochSecond();
         }
+
+        FetchRequest request = db.createFetchRequest(getConsolidationFunction(db), start, end, 1);
+        FetchData result = request.fetchData();
+
+        // the fetched window is kept as the raw values, they are converted to states while they are iterated
+        final long firstTimestamp = result.getFirstTimestamp();
+        final long step = result.getRowCount() > 1 ? result.getStep() : 0;
+        final double[] values = result.getValues(DATASOURCE_STATE);
+        final long windowStart = start;
+        return () -> IntStream.range(0, values.length).filter(i -> {
+            long ts = firstTimestamp + i * step;
+            return !Double.isNaN(values[i]) && (((ts >= windowStart) && (ts <= end)) || (windowStart == end));
+        }).mapToObj(i -> (HistoricItem) new RRD4jItem(itemName, mapToState(values[i], item, unit),
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli((firstTimestamp + i * step) * 1000),
+                        ZoneId.systemDefault())))
+                .iterator();
     }
 
     @Override
@@ -313,13 +369,13 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias) {
+    protected @Nullable RrdDb getDB(String alias) {
         RrdDb db = null;
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
         try {
             if (file.exists()) {
                 // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+                db = new RrdDb(file.getAbsolutePath(), backendFactory);
             } else {
                 File folder = new File(DB_FOLDER);
                 if (!folder.exists()) {
@@ -328,7 +384,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 RrdDef rrdDef = getRrdDef(alias, file);
                 if (rrdDef != null) {
                     // create a new database file
-                    db = new RrdDb(rrdDef);
+                    db = new RrdDb(rrdDef, backendFactory);
                 } else {
                     logger.debug(
                             "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
@@ -392,6 +448,24 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Reads the values of an item's database for a chart through the open handle of the database, using the
+     * consolidation function of its first archive.
+     *
+     * @param start start of the period in seconds since the epoch
+     * @param end end of the period in seconds since the epoch
+     * @param resolution preferred resolution in seconds
+     * @return the values, or null if there is no database for the item
+     */
+    public @Nullable FetchData fetchChartData(String itemName, long start, long end, long resolution)
+            throws IOException {
+        if (!new File(DB_FOLDER + File.separator + itemName + ".rrd").exists()) {
+            return null;
+        }
+        return databases.withDatabase(itemName,
+                db -> db.createFetchRequest(getConsolidationFunction(db), start, end, resolution).fetchData());
+    }
+
     public ConsolFun getConsolidationFunction(RrdDb db) {
         try {
             return db.getRrdDef().getArcDefs()[0].getConsolFun();
@@ -441,6 +515,28 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     @Activate
     protected void activate(final Map<String, Object> config) {
         modified(config);
+        evictionJob = scheduler.scheduleWithFixedDelay(databases::evictIdle, EVICTION_INTERVAL, EVICTION_INTERVAL,
+                TimeUnit.SECONDS);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ScheduledFuture<?> job = evictionJob;
+        if (job != null) {
+            job.cancel(false);
+            evictionJob = null;
+        }
+        // write the values that were waiting for the next second before the scheduler stops, then release all file
+        // handles
+        for (String name : Set.copyOf(pendingSamples.keySet())) {
+            Double pending = pendingSamples.remove(name);
+            if (pending != null) {
+                store(name, pending, true);
+            }
+        }
+        scheduler.shutdown();
+        databases.closeAll();
+        closeBackendFactory(backendFactory);
     }
 
     @Modified
@@ -448,6 +544,10 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         // clean existing definitions
         rrdDefs.clear();
 
+        databases.setLimits(getIntConfig(config, CONFIG_MAX_OPEN_DATABASES, DEFAULT_MAX_OPEN_DATABASES),
+                getIntConfig(config, CONFIG_IDLE_TIMEOUT, (int) DEFAULT_IDLE_TIMEOUT));
+        configureBackend(config);
+
         // add default configurations
 
         RrdDefConfig defaultNumeric = new RrdDefConfig(DEFAULT_NUMERIC);
@@ -501,6 +601,12 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 continue;
             }
 
+            if (key.equals(CONFIG_MAX_OPEN_DATABASES) || key.equals(CONFIG_IDLE_TIMEOUT) || key.equals(CONFIG_BACKEND)
+                    || key.equals(CONFIG_SYNC_PERIOD)) {
+                // service options, already processed
+                continue;
+            }
+
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
                 logger.debug("config '{}' should have the format 'name.configkey'", key);
@@ -554,6 +660,65 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Switches to the configured backend. Databases opened through the previous backend are closed, so that no file
+     * stays open through two different backends.
+     */
+    private void configureBackend(Map<String, Object> config) {
+        Object backendValue = config.get(CONFIG_BACKEND);
+        String backend = backendValue == null ? "" : backendValue.toString().trim().toLowerCase();
+        int syncPeriod = getIntConfig(config, CONFIG_SYNC_PERIOD, DEFAULT_SYNC_PERIOD);
+        String newBackendConfig = BACKEND_NIO.equals(backend) ? backend + "," + syncPeriod : backend;
+        if (newBackendConfig.equals(backendConfig)) {
+            return;
+        }
+
+        RrdBackendFactory newFactory;
+        if (BACKEND_FILE.equals(backend)) {
+            newFactory = new RrdRandomAccessFileBackendFactory();
+        } else if (BACKEND_NIO.equals(backend)) {
+            newFactory = new RrdNioBackendFactory(Math.max(1, syncPeriod));
+        } else {
+            if (!backend.isEmpty()) {
+                logger.warn("Unknown backend '{}', using the rrd4j default", backend);
+            }
+            newFactory = RrdBackendFactory.getDefaultFactory();
+        }
+
+        RrdBackendFactory oldFactory = backendFactory;
+        backendFactory = newFactory;
+        backendConfig = newBackendConfig;
+        databases.closeAll();
+        if (oldFactory != newFactory) {
+            closeBackendFactory(oldFactory);
+        }
+        logger.debug("Using rrd4j backend {}", newFactory.getName());
+    }
+
+    private void closeBackendFactory(RrdBackendFactory factory) {
+        // the NIO backend runs a thread to synchronize the memory mapped files, the other backends hold no resources
+        if (factory instanceof RrdNioBackendFactory) {
+            try {
+                ((RrdNioBackendFactory) factory).close();
+            } catch (Exception e) {
+                logger.debug("Error closing rrd4j backend: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int getIntConfig(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring illegal value '{}' for '{}', using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
     private class RrdArchiveDef {
         public @Nullable ConsolFun fcn;
         public double xff;
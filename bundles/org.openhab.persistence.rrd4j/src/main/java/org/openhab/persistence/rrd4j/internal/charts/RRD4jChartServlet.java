@@ -15,7 +15,6 @@ package org.openhab.persistence.rrd4j.internal.charts;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
@@ -39,8 +38,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.http.HttpService;
 import org.osgi.service.http.NamespaceException;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.FetchData;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
 import org.slf4j.Logger;
@@ -100,6 +98,9 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Reference
     protected ItemUIRegistry itemUIRegistry;
 
+    @Reference
+    protected RRD4jPersistenceService persistenceService;
+
     @Activate
     protected void activate() {
         try {
@@ -157,33 +158,39 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
      * Adds a line for the item to the graph definition.
      * The color of the line is determined by the counter, it simply picks the according index from LINECOLORS (and
      * rolls over if necessary).
+     * The values are read through the database handle of the persistence service, so the file is never opened twice.
      *
      * @param graphDef the graph definition to fill
      * @param item the item to add a line for
      * @param counter defines the number of the datasource and is used to determine the line color
+     * @param start start of the chart in seconds since the epoch
+     * @param end end of the chart in seconds since the epoch
+     * @param width width of the chart in pixels, used to pick the archive with a matching resolution
      */
-    protected void addLine(RrdGraphDef graphDef, Item item, int counter) {
+    protected void addLine(RrdGraphDef graphDef, Item item, int counter, long start, long end, int width) {
         Color color = LINECOLORS[counter % LINECOLORS.length];
         String label = itemUIRegistry.getLabel(item.getName());
-        String rrdName = RRD4jPersistenceService.DB_FOLDER + File.separator + item.getName() + ".rrd";
-        ConsolFun consolFun;
         if (label != null && label.contains("[") && label.contains("]")) {
             label = label.substring(0, label.indexOf('['));
         }
+        FetchData fetchData;
         try {
-            RrdDb db = new RrdDb(rrdName);
-            consolFun = db.getRrdDef().getArcDefs()[0].getConsolFun();
-            db.close();
+            fetchData = persistenceService.fetchChartData(item.getName(), start, end,
+                    Math.max(1, (end - start) / Math.max(1, width)));
         } catch (IOException e) {
-            consolFun = ConsolFun.MAX;
+            logger.debug("Cannot read the rrd4j database of item '{}': {}", item.getName(), e.getMessage());
+            return;
+        }
+        if (fetchData == null) {
+            logger.debug("No rrd4j database for item '{}'", item.getName());
+            return;
         }
+        graphDef.datasource(Integer.toString(counter), "state", fetchData);
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
@@ -233,6 +240,8 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         graphDef.setLargeFont(new Font("SansSerif", Font.PLAIN, 15));
         graphDef.setSmallFont(new Font("SansSerif", Font.PLAIN, 11));
 
+        long start = startTime.getTime() / 1000;
+        long end = endTime.getTime() / 1000;
         int seriesCounter = 0;
 
         // Loop through all the items
@@ -240,7 +249,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
                 Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                addLine(graphDef, item, seriesCounter++, start, end, width);
             }
         }
 
@@ -252,7 +261,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
                 if (item instanceof GroupItem) {
                     GroupItem groupItem = (GroupItem) item;
                     for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
+                        addLine(graphDef, member, seriesCounter++, start, end, width);
                     }
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.rrd4j.core.RrdDb;
+
+/**
+ * Tests the {@link RRD4jDatabaseCache}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDatabaseCacheTest {
+    private final Map<String, RrdDb> opened = new HashMap<>();
+    private final List<String> loads = new ArrayList<>();
+
+    private @Nullable RrdDb open(String name) {
+        loads.add(name);
+        if (name.startsWith("missing")) {
+            return null;
+        }
+        RrdDb db = mock(RrdDb.class);
+        opened.put(name, db);
+        return db;
+    }
+
+    private void use(RRD4jDatabaseCache cache, String name) throws IOException {
+        cache.withDatabase(name, db -> db);
+    }
+
+    @Test
+    public void keepDatabaseOpenBetweenAccesses() throws IOException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 10, 300);
+        use(cache, "item1");
+        use(cache, "item1");
+
+        assertEquals(List.of("item1"), loads);
+        assertEquals(1, cache.size());
+        verify(opened.get("item1"), never()).close();
+    }
+
+    @Test
+    public void closeAfterUseWithoutCapacity() throws IOException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 0, 300);
+        use(cache, "item1");
+        use(cache, "item1");
+
+        assertEquals(List.of("item1", "item1"), loads);
+        assertEquals(0, cache.size());
+        verify(opened.get("item1")).close();
+    }
+
+    @Test
+    public void closeLeastRecentlyUsedWhenFull() throws IOException, InterruptedException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 2, 300);
+        use(cache, "item1");
+        Thread.sleep(1);
+        use(cache, "item2");
+        Thread.sleep(1);
+        use(cache, "item1");
+        Thread.sleep(1);
+        use(cache, "item3");
+
+        assertEquals(2, cache.size());
+        verify(opened.get("item2")).close();
+        verify(opened.get("item1"), never()).close();
+        verify(opened.get("item3"), never()).close();
+    }
+
+    @Test
+    public void closeAndReopenAfterFailure() throws IOException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 10, 300);
+        use(cache, "item1");
+        RrdDb first = opened.get("item1");
+        assertThrows(IOException.class, () -> cache.withDatabase("item1", db -> {
+            throw new IOException("broken");
+        }));
+        verify(first).close();
+        assertEquals(0, cache.size());
+
+        use(cache, "item1");
+        assertEquals(List.of("item1", "item1"), loads);
+    }
+
+    @Test
+    public void returnNullWithoutDatabase() throws IOException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 10, 300);
+        assertNull(cache.withDatabase("missing", db -> db));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void closeAllDatabases() throws IOException {
+        RRD4jDatabaseCache cache = new RRD4jDatabaseCache(this::open, 10, 300);
+        use(cache, "item1");
+        use(cache, "item2");
+        cache.closeAll();
+
+        assertEquals(0, cache.size());
+        verify(opened.get("item1")).close();
+        verify(opened.get("item2")).close();
+    }
+}
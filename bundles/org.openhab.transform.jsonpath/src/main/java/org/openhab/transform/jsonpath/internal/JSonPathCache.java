@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+/**
+ * Caches compiled {@link JsonPath}s and parsed JSON documents.
+ *
+ * Several channels are often linked to the same JSON message, e.g. the telemetry of a Tasmota or Shelly device, and
+ * each of them transforms the message with its own path. Documents are therefore kept for a short time, keyed by
+ * their content, so that all transformations of a message share one parse. The parsed documents are only read, never
+ * modified.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JSonPathCache {
+
+    private final JsonProvider jsonProvider = Configuration.defaultConfiguration().jsonProvider();
+
+    private final Map<String, JsonPath> paths = new ConcurrentHashMap<>();
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+    private final int pathCapacity;
+    private final int documentCapacity;
+    private final long documentTtlNanos;
+
+    private final AtomicLong pathHits = new AtomicLong();
+    private final AtomicLong pathMisses = new AtomicLong();
+    private final AtomicLong documentHits = new AtomicLong();
+    private final AtomicLong documentMisses = new AtomicLong();
+
+    private static class Document {
+        final Object json;
+        final long expires;
+
+        Document(Object json, long expires) {
+            this.json = json;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * @param pathCapacity maximum number of compiled paths
+     * @param documentCapacity maximum number of parsed documents
+     * @param documentTtl milliseconds a parsed document is reused
+     */
+    public JSonPathCache(int pathCapacity, int documentCapacity, long documentTtl) {
+        this.pathCapacity = Math.max(1, pathCapacity);
+        this.documentCapacity = Math.max(1, documentCapacity);
+        this.documentTtlNanos = documentTtl * 1_000_000;
+    }
+
+    /**
+     * Returns the compiled path, compiling it on the first use.
+     *
+     * @throws InvalidPathException if the expression is invalid
+     */
+    public JsonPath getPath(String expression) {
+        JsonPath path = paths.get(expression);
+        if (path != null) {
+            pathHits.incrementAndGet();
+            return path;
+        }
+        pathMisses.incrementAndGet();
+        path = JsonPath.compile(expression);
+        if (paths.size() >= pathCapacity) {
+            evictAny(paths);
+        }
+        paths.put(expression, path);
+        return path;
+    }
+
+    /**
+     * Returns the parsed document, parsing it unless the same content has been parsed recently.
+     *
+     * @throws InvalidJsonException if the source isn't valid JSON
+     */
+    public Object getDocument(String source) {
+        long now = System.nanoTime();
+        Document document = documents.get(source);
+        if (document != null && now - document.expires < 0) {
+            documentHits.incrementAndGet();
+            return document.json;
+        }
+        documentMisses.incrementAndGet();
+        Object json = jsonProvider.parse(source);
+        if (documents.size() >= documentCapacity) {
+            documents.values().removeIf(d -> now - d.expires >= 0);
+            if (documents.size() >= documentCapacity) {
+                evictAny(documents);
+            }
+        }
+        documents.put(source, new Document(json, now + documentTtlNanos));
+        return json;
+    }
+
+    private void evictAny(Map<String, ?> map) {
+        Iterator<String> keys = map.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public long getPathHits() {
+        return pathHits.get();
+    }
+
+    public long getPathMisses() {
+        return pathMisses.get();
+    }
+
+    public long getDocumentHits() {
+        return documentHits.get();
+    }
+
+    public long getDocumentMisses() {
+        return documentMisses.get();
+    }
+
+    /**
+     * Returns the share of path lookups that found a compiled path, between 0 and 1, or 0 before the first lookup.
+     */
+    public double getPathHitRate() {
+        return hitRate(pathHits.get(), pathMisses.get());
+    }
+
+    /**
+     * Returns the share of document lookups that found a parsed document, between 0 and 1, or 0 before the first
+     * lookup.
+     */
+    public double getDocumentHitRate() {
+        return hitRate(documentHits.get(), documentMisses.get());
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void clear() {
+        paths.clear();
+        documents.clear();
+    }
+}
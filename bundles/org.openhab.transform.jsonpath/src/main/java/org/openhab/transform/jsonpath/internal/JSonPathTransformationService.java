@@ -13,6 +13,7 @@
 package org.openhab.transform.jsonpath.internal;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -21,6 +22,7 @@ import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.openhab.core.types.UnDefType;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +45,35 @@ public class JSonPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    /* paths of all linked channels and the messages received during the last second are kept */
+    private static final int PATH_CACHE_SIZE = 256;
+    private static final int DOCUMENT_CACHE_SIZE = 32;
+    private static final long DOCUMENT_TTL = 1000;
+    /* number of transformations between two debug logs of the cache statistics */
+    private static final long STATISTICS_INTERVAL = 1000;
+
+    private final JSonPathCache cache = new JSonPathCache(PATH_CACHE_SIZE, DOCUMENT_CACHE_SIZE, DOCUMENT_TTL);
+    private final AtomicLong transformations = new AtomicLong();
+
+    @Deactivate
+    public void deactivate() {
+        logStatistics();
+        cache.clear();
+    }
+
+    private void logStatistics() {
+        logger.debug("Cache hits/misses (hit rate): paths {}/{} ({}), documents {}/{} ({})", cache.getPathHits(),
+                cache.getPathMisses(), String.format("%.2f", cache.getPathHitRate()), cache.getDocumentHits(),
+                cache.getDocumentMisses(), String.format("%.2f", cache.getDocumentHitRate()));
+    }
+
+    /**
+     * Returns the cache of compiled paths and parsed documents.
+     */
+    JSonPathCache getCache() {
+        return cache;
+    }
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -58,9 +89,13 @@ public class JSonPathTransformationService implements TransformationService {
         }
 
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
+        if (transformations.incrementAndGet() % STATISTICS_INTERVAL == 0 && logger.isDebugEnabled()) {
+            logStatistics();
+        }
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            JsonPath path = cache.getPath(jsonPathExpression);
+            Object transformationResult = path.read(cache.getDocument(source));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.core.transform.TransformationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Measures the transformation of one message by all channels linked to it, with the caches of the service and with
+ * {@link JsonPath#read(String, String, com.jayway.jsonpath.Predicate...)} as it was used before.
+ *
+ * Every invocation transforms a new message, and each channel receives its own copy of it, like the channels of the
+ * MQTT binding.
+ *
+ * Not run by the build. Run {@link #main(String[])} from the IDE or the test classpath.
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSonPathTransformationBenchmark {
+
+    private static final String TASMOTA_SENSOR = "{\"Time\":\"2020-10-18T12:00:00\",\"ENERGY\":{\"TotalStartTime\":"
+            + "\"2020-01-01T00:00:00\",\"Total\":123.456,\"Yesterday\":1.234,\"Today\":0.567,\"Period\":3,\"Power\":"
+            + "42,\"ApparentPower\":50,\"ReactivePower\":27,\"Factor\":0.84,\"Voltage\":231,\"Current\":0.216},"
+            + "\"AM2301\":{\"Temperature\":21.4,\"Humidity\":48.2,\"DewPoint\":10.1},\"TempUnit\":\"C\"}";
+    private static final List<String> TASMOTA_PATHS = List.of("$.ENERGY.Power", "$.ENERGY.Voltage",
+            "$.ENERGY.Current", "$.ENERGY.Total", "$.ENERGY.Today", "$.AM2301.Temperature", "$.AM2301.Humidity",
+            "$.AM2301.DewPoint", "$.ENERGY.Factor", "$.Time");
+
+    private static final String SHELLY_STATUS = "{\"wifi_sta\":{\"connected\":true,\"ssid\":\"home\",\"ip\":"
+            + "\"192.168.1.50\",\"rssi\":-61},\"cloud\":{\"enabled\":false,\"connected\":false},\"time\":\"12:00\","
+            + "\"serial\":1234,\"has_update\":false,\"mac\":\"A4CF12345678\",\"relays\":[{\"ison\":true,"
+            + "\"has_timer\":false,\"overpower\":false}],\"meters\":[{\"power\":42.17,\"is_valid\":true,\"timestamp\":"
+            + "1603022400,\"counters\":[41.2,40.9,42.5],\"total\":123456}],\"temperature\":45.3,\"overtemperature\":"
+            + "false,\"update\":{\"status\":\"idle\",\"has_update\":false},\"ram_total\":50592,\"ram_free\":38672,"
+            + "\"uptime\":123456}";
+    private static final List<String> SHELLY_PATHS = List.of("$.relays[0].ison", "$.meters[0].power",
+            "$.meters[0].total", "$.temperature", "$.wifi_sta.rssi", "$.uptime", "$.overtemperature",
+            "$.update.status");
+
+    @Param({ "tasmota", "shelly" })
+    public String device;
+
+    private String message;
+    private List<String> paths;
+    private JSonPathTransformationService service;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        boolean tasmota = "tasmota".equals(device);
+        message = tasmota ? TASMOTA_SENSOR : SHELLY_STATUS;
+        paths = tasmota ? TASMOTA_PATHS : SHELLY_PATHS;
+        service = new JSonPathTransformationService();
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) throws TransformationException {
+        String current = nextMessage();
+        for (String path : paths) {
+            blackhole.consume(service.transform(path, new String(current)));
+        }
+    }
+
+    @Benchmark
+    public void uncached(Blackhole blackhole) {
+        String current = nextMessage();
+        for (String path : paths) {
+            Object result = JsonPath.read(new String(current), path);
+            blackhole.consume(result);
+        }
+    }
+
+    private String nextMessage() {
+        return "{\"seq\":" + sequence++ + "," + message.substring(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JSonPathTransformationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -127,4 +127,31 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSameMessageIsParsedOnce() throws TransformationException {
+        String message = "{\"StatusSNS\":{\"AM2301\":{\"Temperature\":21.4,\"Humidity\":48.2}}}";
+
+        assertEquals("21.4", processor.transform("$.StatusSNS.AM2301.Temperature", message));
+        assertEquals("48.2", processor.transform("$.StatusSNS.AM2301.Humidity", new String(message)));
+        assertEquals("21.4", processor.transform("$.StatusSNS.AM2301.Temperature", message));
+
+        assertEquals(1, processor.getCache().getDocumentMisses());
+        assertEquals(2, processor.getCache().getDocumentHits());
+        assertEquals(2, processor.getCache().getPathMisses());
+        assertEquals(1, processor.getCache().getPathHits());
+        assertEquals(2.0 / 3, processor.getCache().getDocumentHitRate(), 0.001);
+    }
+
+    @Test
+    public void testExpiredDocumentIsParsedAgain() throws InterruptedException {
+        JSonPathCache cache = new JSonPathCache(10, 10, 0);
+
+        cache.getDocument(jsonArray);
+        Thread.sleep(1);
+        cache.getDocument(jsonArray);
+
+        assertEquals(2, cache.getDocumentMisses());
+        assertEquals(0, cache.getDocumentHits());
+    }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Bounded cache of compiled {@link Pattern}s, keyed by the regular expression.
+ *
+ * Lookups don't lock. When the cache is full, an arbitrary entry is evicted for each newly compiled pattern, which is
+ * good enough for the small and stable set of expressions used by item and channel configurations.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCache {
+
+    private final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final int flags;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of cached patterns
+     * @param flags match flags the patterns are compiled with
+     */
+    public RegExPatternCache(int capacity, int flags) {
+        this.capacity = Math.max(1, capacity);
+        this.flags = flags;
+    }
+
+    /**
+     * Returns the compiled pattern for the given regular expression, compiling it on the first use.
+     *
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
+    public Pattern get(String regex) {
+        Pattern pattern = patterns.get(regex);
+        if (pattern != null) {
+            hits.incrementAndGet();
+            return pattern;
+        }
+        misses.incrementAndGet();
+        pattern = Pattern.compile(regex, flags);
+        if (patterns.size() >= capacity) {
+            Iterator<String> keys = patterns.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        patterns.put(regex, pattern);
+        return pattern;
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the share of lookups that found a compiled pattern, between 0 and 1, or 0 before the first lookup.
+     */
+    public double getHitRate() {
+        long hits = this.hits.get();
+        long lookups = hits + misses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void clear() {
+        patterns.clear();
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,6 +21,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +42,43 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    /* number of compiled patterns kept per form of the transformation */
+    private static final int CACHE_SIZE = 256;
+    /* number of transformations between two debug logs of the cache statistics */
+    private static final long STATISTICS_INTERVAL = 1000;
+
+    private final RegExPatternCache matchPatterns = new RegExPatternCache(CACHE_SIZE, Pattern.DOTALL);
+    private final RegExPatternCache substitutionPatterns = new RegExPatternCache(CACHE_SIZE, 0);
+    private final AtomicLong transformations = new AtomicLong();
+
+    @Deactivate
+    public void deactivate() {
+        logStatistics();
+        matchPatterns.clear();
+        substitutionPatterns.clear();
+    }
+
+    private void logStatistics() {
+        logger.debug("Pattern cache hits/misses (hit rate): match {}/{} ({}), substitution {}/{} ({})",
+                matchPatterns.getHits(), matchPatterns.getMisses(), String.format("%.2f", matchPatterns.getHitRate()),
+                substitutionPatterns.getHits(), substitutionPatterns.getMisses(),
+                String.format("%.2f", substitutionPatterns.getHitRate()));
+    }
+
+    /**
+     * Returns the cache of the patterns used to match and extract the first group.
+     */
+    RegExPatternCache getMatchPatterns() {
+        return matchPatterns;
+    }
+
+    /**
+     * Returns the cache of the patterns used by the {@code s/<regex>/<substitution>/} form.
+     */
+    RegExPatternCache getSubstitutionPatterns() {
+        return substitutionPatterns;
+    }
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -47,6 +86,9 @@ public class RegExTransformationService implements TransformationService {
         }
 
         logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
+        if (transformations.incrementAndGet() % STATISTICS_INTERVAL == 0 && logger.isDebugEnabled()) {
+            logStatistics();
+        }
 
         String result = "";
 
@@ -56,17 +98,18 @@ public class RegExTransformationService implements TransformationService {
             String regex = substMatcher.group(1);
             String substitution = substMatcher.group(2);
             String options = substMatcher.group(3);
+            Matcher matcher = substitutionPatterns.get(regex).matcher(source.trim());
             if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+                result = matcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
+                result = matcher.replaceFirst(substitution);
             }
             if (result != null) {
                 return result;
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = matchPatterns.get("^" + regExpression + "$").matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
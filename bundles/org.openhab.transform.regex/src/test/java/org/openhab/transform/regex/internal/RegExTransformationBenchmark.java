@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openhab.core.transform.TransformationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the transformation with the compiled pattern cache to compiling the pattern on every call, as it was done
+ * before the cache was added.
+ *
+ * Not run by the build. Run {@link #main(String[])} from the IDE or the test classpath.
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegExTransformationBenchmark {
+
+    private static final String MATCH_REGEX = ".*\"Temperature\":([-0-9.]+),.*";
+    private static final String SUBSTITUTION_REGEX = "([A-Z]+)([0-9]+),*";
+    private static final String SUBSTITUTION = "var$1=$2 ";
+    private static final String SUBSTITUTION_EXPRESSION = "s/" + SUBSTITUTION_REGEX + "/" + SUBSTITUTION + "/g";
+    private static final String SOURCE = "{\"Time\":\"2020-10-18T12:00:00\",\"AM2301\":{\"Temperature\":21.4,"
+            + "\"Humidity\":48.2},\"TempUnit\":\"C\"}";
+
+    private RegExTransformationService service;
+
+    @Setup
+    public void setup() {
+        service = new RegExTransformationService();
+    }
+
+    @Benchmark
+    public String matchCached() throws TransformationException {
+        return service.transform(MATCH_REGEX, SOURCE);
+    }
+
+    @Benchmark
+    public String matchUncached() {
+        Matcher matcher = Pattern.compile("^" + MATCH_REGEX + "$", Pattern.DOTALL).matcher(SOURCE.trim());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    @Benchmark
+    public String substituteCached() throws TransformationException {
+        return service.transform(SUBSTITUTION_EXPRESSION, "X12,Y54");
+    }
+
+    @Benchmark
+    public String substituteUncached() {
+        return "X12,Y54".trim().replaceAll(SUBSTITUTION_REGEX, SUBSTITUTION);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RegExTransformationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
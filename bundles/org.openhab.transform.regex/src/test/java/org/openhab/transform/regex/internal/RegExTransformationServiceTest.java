@@ -75,4 +75,44 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_reusesCompiledPattern() throws TransformationException {
+        // method under test
+        processor.transform(".*?<current_conditions>.*?<temp_c data=\"(.*?)\".*", source);
+        String transformedResponse = processor.transform(".*?<current_conditions>.*?<temp_c data=\"(.*?)\".*",
+                source);
+
+        // Asserts
+        assertEquals("8", transformedResponse);
+        assertEquals(1, processor.getMatchPatterns().getMisses());
+        assertEquals(1, processor.getMatchPatterns().getHits());
+        assertEquals(0.5, processor.getMatchPatterns().getHitRate());
+    }
+
+    @Test
+    public void testTransformByRegex_substituteReusesCompiledPattern() throws TransformationException {
+        // method under test
+        processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "X12,Y54");
+        String transformedResponse = processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "A1");
+
+        // Asserts
+        assertEquals("varA=1 ", transformedResponse);
+        assertEquals(1, processor.getSubstitutionPatterns().getMisses());
+        assertEquals(1, processor.getSubstitutionPatterns().getHits());
+    }
+
+    @Test
+    public void testPatternCache_isBounded() {
+        RegExPatternCache cache = new RegExPatternCache(2, 0);
+
+        // method under test
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+
+        // Asserts
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMisses());
+    }
 }
@@ -12,13 +12,20 @@
  */
 package org.openhab.transform.xpath.internal;
 
+import java.io.IOException;
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -26,23 +33,42 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Neither {@link DocumentBuilder}s nor compiled {@link XPathExpression}s are thread-safe, so a transformation borrows
+ * a parser together with a cache of the most recently used expressions from a bounded pool and returns it afterwards.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(property = { "smarthome.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    /* number of compiled expressions kept per parser */
+    private static final int EXPRESSION_CACHE_SIZE = 32;
+
+    /* number of idle parsers kept for the next transformations */
+    private static final int IDLE_CONTEXTS = 4;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final BlockingQueue<XPathContext> idleContexts = new ArrayBlockingQueue<>(IDLE_CONTEXTS);
+
+    @Deactivate
+    protected void deactivate() {
+        idleContexts.clear();
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,22 +77,15 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        @Nullable XPathContext context = null;
+        try (StringReader stringReader = new StringReader(source)) {
+            context = borrowContext();
 
-        try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
-
-            stringReader = new StringReader(source);
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
-
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            Document doc = context.parse(inputSource);
+            XPathExpression expr = context.compile(xpathExpression);
 
             String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -76,9 +95,55 @@ public class XPathTransformationService implements TransformationService {
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
         } finally {
-            if (stringReader != null) {
-                stringReader.close();
+            if (context != null) {
+                // dropped if enough parsers are idle already
+                idleContexts.offer(context);
+            }
+        }
+    }
+
+    private XPathContext borrowContext() throws ParserConfigurationException {
+        @Nullable XPathContext context = idleContexts.poll();
+        return context != null ? context : new XPathContext();
+    }
+
+    /**
+     * Parser and compiled expressions, used by one transformation at a time.
+     */
+    private static class XPathContext {
+        private final DocumentBuilder builder;
+        private final XPath xpath = XPathFactory.newInstance().newXPath();
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                return size() > EXPRESSION_CACHE_SIZE;
+            }
+        };
+
+        XPathContext() throws ParserConfigurationException {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            builder = domFactory.newDocumentBuilder();
+        }
+
+        Document parse(InputSource inputSource) throws SAXException, IOException {
+            try {
+                return builder.parse(inputSource);
+            } finally {
+                builder.reset();
+            }
+        }
+
+        XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expr = expressions.get(xpathExpression);
+            if (expr == null) {
+                expr = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expr);
             }
+            return expr;
         }
     }
 }
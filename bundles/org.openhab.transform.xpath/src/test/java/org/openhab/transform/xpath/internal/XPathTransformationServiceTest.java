@@ -14,6 +14,12 @@ package org.openhab.transform.xpath.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.transform.TransformationException;
@@ -38,4 +44,42 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXPath_repeatedOnSameThread() throws TransformationException {
+        // method under test
+        processor.transform("//current_conditions/temp_c/@data", source);
+        processor.transform("//forecast_information/city/@data", source);
+        String transformedResponse = processor.transform("//current_conditions/temp_c/@data", source);
+
+        // Asserts
+        assertEquals("8", transformedResponse);
+    }
+
+    @Test
+    public void testTransformByXPath_invalidDocumentDoesNotBreakParser() {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("//current_conditions/temp_c/@data", "<xml_api_reply>"));
+
+        // Asserts
+        assertDoesNotThrow(() -> assertEquals("8", processor.transform("//current_conditions/temp_c/@data", source)));
+    }
+
+    @Test
+    public void testTransformByXPath_concurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> processor.transform("//current_conditions/temp_c/@data", source)));
+            }
+
+            // Asserts
+            for (Future<String> result : results) {
+                assertEquals("8", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -14,20 +14,66 @@ package org.openhab.transform.xslt.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Locale;
+
+import javax.xml.transform.Templates;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.openhab.core.transform.TransformationException;
+import org.osgi.framework.BundleContext;
 
 /**
  * @author Thomas.Eichstaedt-Engelen
  */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.WARN)
 public class XsltTransformationServiceTest extends AbstractTransformationServiceTest {
 
-    private XsltTransformationService processor;
+    private @Mock BundleContext bundleContext;
+
+    private TestableXsltTransformationService processor;
+
+    private class TestableXsltTransformationService extends XsltTransformationService {
+        private int loaded = 0;
+
+        @Override
+        protected Locale getLocale() {
+            return Locale.US;
+        }
+
+        @Override
+        protected Templates internalLoadTransform(String filename) throws TransformationException {
+            loaded++;
+            return super.internalLoadTransform(filename);
+        }
+
+        @Override
+        public void activate(BundleContext context) {
+            super.activate(context);
+        }
+
+        @Override
+        public void deactivate() {
+            super.deactivate();
+        }
+    };
 
     @BeforeEach
     public void init() {
-        processor = new XsltTransformationService();
+        processor = new TestableXsltTransformationService();
+        processor.activate(bundleContext);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        processor.deactivate();
     }
 
     @Test
@@ -38,4 +84,15 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXSLT_reusesCompiledStylesheet() throws TransformationException {
+        // method under test
+        processor.transform("http/google_weather.xsl", source);
+        String transformedResponse = processor.transform("http/google_weather.xsl", source);
+
+        // Asserts
+        assertEquals("8", transformedResponse);
+        assertEquals(1, processor.loaded);
+    }
 }